@@ -0,0 +1,108 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ Compares the query costs of FlatKdTree for several leaf bucket sizes. Every benchmark runs a batch of random
+ queries, and is reported per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FlatKdTreeBucketBenchmark
+{
+	private static final int QUERIES = 1024;
+
+	@Param(
+	{
+		"1", "8", "16", "32", "64"
+	})
+	public int bucketSize;
+
+	@Param(
+	{
+		"1000000"
+	})
+	public int size;
+
+	private FlatKdTree tree;
+	private Point3F[] targets;
+	private int[] indices;
+	private float[] squaredDistances;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(0);
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			points.add(new Point3F(random.nextFloat(), random.nextFloat(), 0));
+		}
+		tree = FlatKdTree.buildTree(points, false, bucketSize);
+
+		targets = new Point3F[QUERIES];
+		for (int i = 0; i < QUERIES; i++)
+		{
+			targets[i] = new Point3F(random.nextFloat(), random.nextFloat(), 0);
+		}
+		indices = new int[8];
+		squaredDistances = new float[8];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int closestPoint()
+	{
+		int result = 0;
+		for (Point3F target : targets)
+		{
+			result += tree.getClosestPoint(target);
+		}
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int kNearest()
+	{
+		int result = 0;
+		for (Point3F target : targets)
+		{
+			result += tree.kNearest(target.x, target.y, target.z, indices.length, indices, squaredDistances);
+		}
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public int rangeCount()
+	{
+		// Around 30 points per query.
+		int result = 0;
+		for (Point3F target : targets)
+		{
+			result += tree.rangeCount(target, 0.00001f);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,92 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ Compares the KD-tree builders: the historical one, sorting every level, against the quickselect ones.
+ Run with gradle jmh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KdTreeBuildBenchmark
+{
+	@Param(
+	{
+		"100000", "1000000"
+	})
+	public int size;
+
+	private List<Point3F> points;
+
+	@Setup
+	public void setup()
+	{
+		// Use shuffled, distinct coordinates, as required by KdTreeNode.
+		List<Float> xs = new ArrayList<>();
+		List<Float> ys = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			xs.add((float) i);
+			ys.add((float) i);
+		}
+		Random random = new Random(0);
+		Collections.shuffle(xs, random);
+		Collections.shuffle(ys, random);
+
+		points = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			points.add(new Point3F(xs.get(i), ys.get(i), 0));
+		}
+	}
+
+	@Benchmark
+	public KdTreeNode sortingBuilder()
+	{
+		return KdTreeNode.buildTree(0, points, false);
+	}
+
+	@Benchmark
+	public KdTreeNode quickselectBuilder()
+	{
+		return KdTreeNode.buildTree(points, false);
+	}
+
+	@Benchmark
+	public KdTreeNode parallelQuickselectBuilder()
+	{
+		return KdTreeNode.buildTree(points, true);
+	}
+
+	@Benchmark
+	public FlatKdTree flatBuilder()
+	{
+		return FlatKdTree.buildTree(points, false);
+	}
+
+	@Benchmark
+	public FlatKdTree parallelFlatBuilder()
+	{
+		return FlatKdTree.buildTree(points, true);
+	}
+}
@@ -0,0 +1,132 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ Measures batches of queries on KdTreeNode and FlatKdTree, for several tree sizes, the batch being spread over a given
+ number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KdTreeQueryBenchmark
+{
+	/**
+	 The number of queries per operation.
+	 */
+	private static final int QUERIES = 10000;
+
+	@Param(
+	{
+		"10000", "1000000"
+	})
+	public int size;
+
+	@Param(
+	{
+		"1", "2", "4"
+	})
+	public int threads;
+
+	private KdTreeNode tree;
+	private FlatKdTree flatTree;
+	private Point3F[] targets;
+	private float squaredRange;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setup()
+	{
+		// Use shuffled, distinct coordinates, as required by KdTreeNode.
+		List<Float> xs = new ArrayList<>();
+		List<Float> ys = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			xs.add((float) i);
+			ys.add((float) i);
+		}
+		Random random = new Random(0);
+		Collections.shuffle(xs, random);
+		Collections.shuffle(ys, random);
+
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			points.add(new Point3F(xs.get(i), ys.get(i), 0));
+		}
+		tree = KdTreeNode.buildTree(points);
+		flatTree = FlatKdTree.buildTree(points, true);
+
+		targets = new Point3F[QUERIES];
+		for (int i = 0; i < QUERIES; i++)
+		{
+			targets[i] = new Point3F(random.nextFloat() * size, random.nextFloat() * size, 0);
+		}
+		// About 10 points per range query.
+		squaredRange = (float) (10 * size / Math.PI);
+
+		pool = new ForkJoinPool(threads);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+
+	/**
+	 Runs the queries on the pool, a parallel stream running in the pool it is started from.
+	 */
+	private long run(IntToLongFunction query) throws InterruptedException, ExecutionException
+	{
+		return pool.submit(() -> IntStream.range(0, QUERIES).parallel().mapToLong(query).sum()).get();
+	}
+
+	@Benchmark
+	public long closestPoint() throws InterruptedException, ExecutionException
+	{
+		return run(i -> tree.getClosestPoint(targets[i]).hashCode());
+	}
+
+	@Benchmark
+	public long flatClosestPoint() throws InterruptedException, ExecutionException
+	{
+		return run(i -> flatTree.getClosestPoint(targets[i]));
+	}
+
+	@Benchmark
+	public long rangeCount() throws InterruptedException, ExecutionException
+	{
+		return run(i -> tree.rangeCount(targets[i], squaredRange));
+	}
+
+	@Benchmark
+	public long flatRangeCount() throws InterruptedException, ExecutionException
+	{
+		return run(i -> flatTree.rangeCount(targets[i], squaredRange));
+	}
+}
@@ -0,0 +1,105 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ Compares painting a Voronoi diagram with VoronoiRaster against querying a KD-tree for every pixel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VoronoiRasterBenchmark
+{
+	private static final int WIDTH = 2048;
+
+	@Param(
+	{
+		"100", "10000"
+	})
+	public int sites;
+
+	private VoronoiRaster voronoi;
+	private FlatKdTree flatTree;
+	private KdTreeNode tree;
+	private int[] raster;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(0);
+		List<Point3F> points = new ArrayList<>();
+		List<Point2F> planarPoints = new ArrayList<>();
+		for (int i = 0; i < sites; i++)
+		{
+			float x = random.nextFloat() * WIDTH;
+			float y = random.nextFloat() * WIDTH;
+			points.add(new Point3F(x, y, 0));
+			planarPoints.add(new Point2F(x, y));
+		}
+		voronoi = new VoronoiRaster(planarPoints);
+		flatTree = FlatKdTree.buildTree(points);
+		tree = KdTreeNode.buildTree(points);
+		raster = new int[WIDTH * WIDTH];
+	}
+
+	@Benchmark
+	public int[] voronoiRaster()
+	{
+		voronoi.fillSiteIndices(raster, WIDTH, WIDTH, 0, 0, 1, false);
+		return raster;
+	}
+
+	@Benchmark
+	public int[] voronoiRasterParallel()
+	{
+		voronoi.fillSiteIndices(raster, WIDTH, WIDTH, 0, 0, 1, true);
+		return raster;
+	}
+
+	@Benchmark
+	public int[] flatTreePerPixel()
+	{
+		for (int y = 0; y < WIDTH; y++)
+		{
+			for (int x = 0; x < WIDTH; x++)
+			{
+				raster[y * WIDTH + x] = flatTree.getClosestPoint(x, y, 0);
+			}
+		}
+		return raster;
+	}
+
+	@Benchmark
+	public int[] treePerPixel()
+	{
+		Point3F target = new Point3F(0, 0, 0);
+		for (int y = 0; y < WIDTH; y++)
+		{
+			for (int x = 0; x < WIDTH; x++)
+			{
+				target.x = x;
+				target.y = y;
+				raster[y * WIDTH + x] = System.identityHashCode(tree.getClosestPoint(target));
+			}
+		}
+		return raster;
+	}
+}
@@ -0,0 +1,92 @@
+package org.saucistophe.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ Compares computing a fractal noise grid octave by octave, tile by tile, against summing the octaves sample by sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FractalNoiseBenchmark
+{
+	@Param(
+	{
+		"512"
+	})
+	public int size;
+
+	@Param(
+	{
+		"8", "12"
+	})
+	public int octaves;
+
+	@Param(
+	{
+		"2", "3"
+	})
+	public int dimensions;
+
+	private OpenSimplexNoise noise;
+	private FractalNoise fractal;
+	private NoiseFieldGenerator generator;
+	private double[] values;
+
+	@Setup
+	public void setup()
+	{
+		noise = new OpenSimplexNoise(0);
+		fractal = new FractalNoise(dimensions == 2 ? FractalNoise.openSimplex2D(noise) : FractalNoise.openSimplex3D(noise));
+		fractal.octaves = octaves;
+		generator = new NoiseFieldGenerator();
+		values = new double[size * size];
+	}
+
+	@Benchmark
+	public double[] perSample()
+	{
+		double step = 4.0 / size;
+		for (int j = 0; j < size; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				double value = 0;
+				double frequency = 1;
+				double amplitude = 1;
+				for (int o = 0; o < octaves; o++)
+				{
+					double x = i * step * frequency;
+					double y = j * step * frequency;
+					value += amplitude * (dimensions == 2 ? noise.eval(x, y) : noise.eval(x, y, 0.5 * frequency));
+					frequency *= 2;
+					amplitude *= 0.5;
+				}
+				values[j * size + i] = value;
+			}
+		}
+		return values;
+	}
+
+	@Benchmark
+	public double[] batched()
+	{
+		double step = 4.0 / size;
+		fractal.generate(generator, values, 0, 0, 0.5, step, step, size, size);
+		return values;
+	}
+}
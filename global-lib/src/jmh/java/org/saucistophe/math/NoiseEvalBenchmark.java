@@ -0,0 +1,154 @@
+package org.saucistophe.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ Measures the evaluation of single noise samples, in 2D, 3D and 4D, to track regressions of the noise functions.
+ Each operation evaluates a batch of samples along a line crossing many lattice cells. Each benchmark is only
+ parameterised by the dimensions its noise has, so that every result measures what its parameters say.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NoiseEvalBenchmark
+{
+	/**
+	 The number of samples per operation.
+	 */
+	private static final int SAMPLES = 1024;
+
+	/**
+	 The dimensions of noises having a 4D variant.
+	 */
+	@State(Scope.Benchmark)
+	public static class UpTo4D
+	{
+		@Param(
+		{
+			"2", "3", "4"
+		})
+		public int dimensions;
+	}
+
+	/**
+	 The dimensions of noises without a 4D variant.
+	 */
+	@State(Scope.Benchmark)
+	public static class UpTo3D
+	{
+		@Param(
+		{
+			"2", "3"
+		})
+		public int dimensions;
+	}
+
+	private OpenSimplexNoise openSimplex;
+	private OpenSimplexNoiseF openSimplexF;
+	private PerlinNoise perlin;
+
+	@Setup
+	public void setup()
+	{
+		openSimplex = new OpenSimplexNoise(0);
+		openSimplexF = new OpenSimplexNoiseF(0);
+		perlin = new PerlinNoise(0);
+	}
+
+	@Benchmark
+	public double openSimplex(UpTo4D state)
+	{
+		double sum = 0;
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			double t = i * 0.173;
+			switch (state.dimensions)
+			{
+				case 2:
+					sum += openSimplex.eval(t, t * 0.61);
+					break;
+				case 3:
+					sum += openSimplex.eval(t, t * 0.61, t * 0.37);
+					break;
+				default:
+					sum += openSimplex.eval(t, t * 0.61, t * 0.37, t * 0.23);
+					break;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 The single precision variant, which has no 4D noise.
+	 */
+	@Benchmark
+	public float openSimplexF(UpTo3D state)
+	{
+		float sum = 0;
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			float t = i * 0.173f;
+			sum += state.dimensions == 2 ? openSimplexF.eval(t, t * 0.61f) : openSimplexF.eval(t, t * 0.61f, t * 0.37f);
+		}
+		return sum;
+	}
+
+	/**
+	 Perlin noise is 3D only; 2D samples the z = 0 plane.
+	 */
+	@Benchmark
+	public float perlinNormedNoise(UpTo3D state)
+	{
+		float sum = 0;
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			float t = i * 0.173f;
+			sum += PerlinUtils.normedNoise(t, t * 0.61f, state.dimensions == 2 ? 0 : t * 0.37f);
+		}
+		return sum;
+	}
+
+	/**
+	 The sum of 3 octaves of Perlin noise, in 3D.
+	 */
+	@Benchmark
+	public float perlinAltitude()
+	{
+		float sum = 0;
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			float t = i * 0.173f;
+			sum += PerlinUtils.altitude(t, t * 0.61f, t * 0.37f);
+		}
+		return sum;
+	}
+
+	/**
+	 Perlin noise over a permutation of its own; 2D samples the z = 0 plane.
+	 */
+	@Benchmark
+	public float seededPerlinNormedNoise(UpTo3D state)
+	{
+		float sum = 0;
+		for (int i = 0; i < SAMPLES; i++)
+		{
+			float t = i * 0.173f;
+			sum += perlin.normedNoise(t, t * 0.61f, state.dimensions == 2 ? 0 : t * 0.37f);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,89 @@
+package org.saucistophe.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ Compares the scalar noise kernels with the vectorised ones. Without the vector module, both run the scalar kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NoiseKernelsBenchmark
+{
+	@Param(
+	{
+		"false", "true"
+	})
+	public boolean vectorised;
+
+	@Param(
+	{
+		"4096"
+	})
+	public int count;
+
+	private NoiseKernels kernels;
+	private int[] perm;
+	private float[] xs;
+	private float[] ys;
+	private float[] zs;
+	private float[] values;
+	private double[] row;
+
+	@Setup
+	public void setup()
+	{
+		kernels = vectorised && NoiseKernels.VECTOR != null ? NoiseKernels.VECTOR : NoiseKernels.SCALAR;
+		perm = new int[512];
+		short[] permutation = OpenSimplexNoise.permutation(0);
+		for (int i = 0; i < 512; i++)
+		{
+			perm[i] = permutation[i & 0xFF];
+		}
+
+		Random random = new Random(0);
+		xs = new float[count];
+		ys = new float[count];
+		zs = new float[count];
+		for (int i = 0; i < count; i++)
+		{
+			xs[i] = random.nextFloat() * 256;
+			ys[i] = random.nextFloat() * 256;
+			zs[i] = random.nextFloat() * 256;
+		}
+		values = new float[count];
+		row = new double[count];
+	}
+
+	@Benchmark
+	public float[] perlinNoise()
+	{
+		kernels.perlinNoise(perm, xs, ys, zs, values, count);
+		return values;
+	}
+
+	/**
+	 A vertex's contribution to a row of samples 0.001 apart, as OpenSimplexNoise.fill does at fine steps.
+	 */
+	@Benchmark
+	public double[] scatterRow()
+	{
+		kernels.scatterRow(row, 0, count, -2, 0.001, 0.6, 0.7, -0.2);
+		return row;
+	}
+}
@@ -0,0 +1,96 @@
+package org.saucistophe.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ Compares filling a grid with the single precision OpenSimplexNoiseF against the double precision OpenSimplexNoise,
+ sample by sample, in 2D and 3D slices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenSimplexNoiseFBenchmark
+{
+	@Param(
+	{
+		"1024"
+	})
+	public int size;
+
+	/**
+	 The distance between two samples; features are about 1/step samples wide.
+	 */
+	@Param(
+	{
+		"0.01"
+	})
+	public float step;
+
+	private OpenSimplexNoise doubleNoise;
+	private OpenSimplexNoiseF floatNoise;
+	private double[] doubleValues;
+	private float[] floatValues;
+
+	@Setup
+	public void setup()
+	{
+		doubleNoise = new OpenSimplexNoise(0);
+		floatNoise = new OpenSimplexNoiseF(0);
+		doubleValues = new double[size * size];
+		floatValues = new float[size * size];
+	}
+
+	@Benchmark
+	public double[] double2D()
+	{
+		for (int j = 0; j < size; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				doubleValues[j * size + i] = doubleNoise.eval(i * step, j * step);
+			}
+		}
+		return doubleValues;
+	}
+
+	@Benchmark
+	public float[] float2D()
+	{
+		floatNoise.fill(floatValues, 0, 0, step, step, size, size);
+		return floatValues;
+	}
+
+	@Benchmark
+	public double[] double3D()
+	{
+		for (int j = 0; j < size; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				doubleValues[j * size + i] = doubleNoise.eval(i * step, j * step, 0.5);
+			}
+		}
+		return doubleValues;
+	}
+
+	@Benchmark
+	public float[] float3D()
+	{
+		floatNoise.fill(floatValues, 0, 0, 0.5f, step, step, size, size);
+		return floatValues;
+	}
+}
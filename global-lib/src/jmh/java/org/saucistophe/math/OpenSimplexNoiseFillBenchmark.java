@@ -0,0 +1,111 @@
+package org.saucistophe.math;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ Compares filling a grid with OpenSimplexNoise.fill against calling eval for every sample, in 2D, 3D and 4D slices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenSimplexNoiseFillBenchmark
+{
+	@Param(
+	{
+		"1024"
+	})
+	public int size;
+
+	/**
+	 The distance between two samples; features are about 1/step samples wide.
+	 */
+	@Param(
+	{
+		"0.01", "0.1"
+	})
+	public double step;
+
+	private OpenSimplexNoise noise;
+	private double[] values;
+
+	@Setup
+	public void setup()
+	{
+		noise = new OpenSimplexNoise(0);
+		values = new double[size * size];
+	}
+
+	@Benchmark
+	public double[] eval2D()
+	{
+		for (int j = 0; j < size; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				values[j * size + i] = noise.eval(i * step, j * step);
+			}
+		}
+		return values;
+	}
+
+	@Benchmark
+	public double[] fill2D()
+	{
+		noise.fill(values, 0, 0, step, step, size, size);
+		return values;
+	}
+
+	@Benchmark
+	public double[] eval3D()
+	{
+		for (int j = 0; j < size; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				values[j * size + i] = noise.eval(i * step, j * step, 0.5);
+			}
+		}
+		return values;
+	}
+
+	@Benchmark
+	public double[] fill3D()
+	{
+		noise.fill(values, 0, 0, 0.5, step, step, size, size);
+		return values;
+	}
+
+	@Benchmark
+	public double[] eval4D()
+	{
+		for (int j = 0; j < size; j++)
+		{
+			for (int i = 0; i < size; i++)
+			{
+				values[j * size + i] = noise.eval(i * step, j * step, 0.5, 1.5);
+			}
+		}
+		return values;
+	}
+
+	@Benchmark
+	public double[] fill4D()
+	{
+		noise.fill(values, 0, 0, 0.5, 1.5, step, step, size, size);
+		return values;
+	}
+}
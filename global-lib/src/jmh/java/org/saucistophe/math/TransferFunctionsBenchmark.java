@@ -0,0 +1,68 @@
+package org.saucistophe.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ Measures the transfer functions over an array of values, part of them outside [0, 1].
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransferFunctionsBenchmark
+{
+	@Param(
+	{
+		"4096"
+	})
+	public int size;
+
+	private float[] values;
+
+	@Setup
+	public void setup()
+	{
+		Random random = new Random(0);
+		values = new float[size];
+		for (int i = 0; i < size; i++)
+		{
+			values[i] = random.nextFloat() * 1.2f - 0.1f;
+		}
+	}
+
+	@Benchmark
+	public float smoothstep()
+	{
+		float sum = 0;
+		for (float value : values)
+		{
+			sum += TransferFunctions.smoothstep(value);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public float smootherstep()
+	{
+		float sum = 0;
+		for (float value : values)
+		{
+			sum += TransferFunctions.smootherstep(value);
+		}
+		return sum;
+	}
+}
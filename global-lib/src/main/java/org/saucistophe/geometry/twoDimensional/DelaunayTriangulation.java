@@ -0,0 +1,730 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.saucistophe.geometry.threeDimensional.Vector3i;
+
+/**
+ A Delaunay triangulation of a set of 2D points, built by incremental insertion and edge flips.
+ The points are inserted by increasing distance to a seed triangle, so that each new point lies outside the current
+ convex hull: it is linked to the hull edges it sees, and the new triangles are then flipped until they satisfy the
+ Delaunay condition. The visible hull edges are located through a hash of the hull vertices by angle around the seed.
+ Triangles are packed as in Vector3i.toArray: triangle t is made of the vertices 3t, 3t+1 and 3t+2 of the triangles
+ array, counter-clockwise (with Y upwards). Half-edge 3t+i goes from vertex 3t+i to vertex 3t+(i+1)%3 of that
+ triangle, and its opposite half-edge, in the neighbouring triangle, is stored in the halfedges array, or -1 on the
+ hull. Duplicate points are left out of the triangulation; if all points are collinear, there are no triangles.
+ */
+public class DelaunayTriangulation
+{
+	/**
+	 The points' coordinates.
+	 */
+	private final float[] xs;
+	private final float[] ys;
+
+	/**
+	 The vertices of each triangle, 3 by 3, as indices into the source points.
+	 */
+	public final int[] triangles;
+
+	/**
+	 For each half-edge, the opposite half-edge in the adjacent triangle, or -1 if it is on the hull.
+	 */
+	public final int[] halfedges;
+
+	/**
+	 The convex hull of the points, as indices of the source points, counter-clockwise.
+	 */
+	public final int[] hull;
+
+	/**
+	 For each point, a half-edge starting from it, or -1 if the point is not in the triangulation.
+	 */
+	private final int[] vertexEdges;
+
+	/**
+	 The grid used to locate points, built on the first call to findTriangle.
+	 */
+	private volatile SpatialGrid locationGrid;
+
+	/**
+	 Triangulates the given coordinates.
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 */
+	private DelaunayTriangulation(float[] xs, float[] ys)
+	{
+		this.xs = xs;
+		this.ys = ys;
+
+		Builder builder = new Builder(xs, ys);
+		builder.build();
+		triangles = Arrays.copyOf(builder.triangles, builder.triangleEdgeCount);
+		halfedges = Arrays.copyOf(builder.halfedges, builder.triangleEdgeCount);
+		hull = builder.hull;
+
+		vertexEdges = new int[xs.length];
+		Arrays.fill(vertexEdges, -1);
+		for (int edge = 0; edge < triangles.length; edge++)
+		{
+			vertexEdges[triangles[edge]] = edge;
+		}
+	}
+
+	/**
+	 Triangulates the given points. Their coordinates are copied.
+
+	 @param points The points to triangulate.
+	 @return The resulting triangulation, whose indices refer to the given list.
+	 */
+	public static DelaunayTriangulation triangulate(List<? extends Point2F> points)
+	{
+		int size = points.size();
+		float[] xs = new float[size];
+		float[] ys = new float[size];
+		for (int i = 0; i < size; i++)
+		{
+			Point2F point = points.get(i);
+			xs[i] = point.x;
+			ys[i] = point.y;
+		}
+
+		return new DelaunayTriangulation(xs, ys);
+	}
+
+	/**
+	 Triangulates the given coordinates. The arrays are copied.
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @return The resulting triangulation, whose indices refer to the given arrays.
+	 */
+	public static DelaunayTriangulation triangulate(float[] xs, float[] ys)
+	{
+		assert (xs.length == ys.length);
+		return new DelaunayTriangulation(xs.clone(), ys.clone());
+	}
+
+	/**
+	 @return The number of triangles.
+	 */
+	public int getTriangleCount()
+	{
+		return triangles.length / 3;
+	}
+
+	/**
+	 @param triangle The index of a triangle.
+	 @return The vertices of that triangle.
+	 */
+	public Vector3i getTriangle(int triangle)
+	{
+		return new Vector3i(triangles[3 * triangle], triangles[3 * triangle + 1], triangles[3 * triangle + 2]);
+	}
+
+	/**
+	 @return All the triangles, as vectors of vertex indices.
+	 */
+	public List<Vector3i> getTriangles()
+	{
+		List<Vector3i> result = new ArrayList<>(getTriangleCount());
+		for (int triangle = 0; triangle < getTriangleCount(); triangle++)
+		{
+			result.add(getTriangle(triangle));
+		}
+		return result;
+	}
+
+	/**
+	 @param triangle The index of a triangle.
+	 @param edge The edge of that triangle, from 0 to 2; edge i starts from its i-th vertex.
+	 @return The index of the triangle across that edge, or -1 if it is on the hull.
+	 */
+	public int getAdjacentTriangle(int triangle, int edge)
+	{
+		int opposite = halfedges[3 * triangle + edge];
+		return opposite < 0 ? -1 : opposite / 3;
+	}
+
+	/**
+	 Finds the triangle containing the given coordinates. The closest vertex is located through a grid, then the
+	 triangles are walked from that vertex towards the target.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @return The index of a triangle containing the point, or -1 if it lies outside the hull.
+	 */
+	public int findTriangle(float x, float y)
+	{
+		if (triangles.length == 0)
+		{
+			return -1;
+		}
+
+		SpatialGrid grid = locationGrid;
+		if (grid == null)
+		{
+			grid = SpatialGrid.buildGrid(xs, ys, null, 0);
+			locationGrid = grid;
+		}
+
+		// Duplicates are not part of the triangulation, but share the position of a vertex that is.
+		int closest = grid.getClosestPoint(x, y, 0);
+		int edge = vertexEdges[closest];
+		if (edge < 0)
+		{
+			edge = vertexEdges[triangles[0]];
+			for (int vertex = 0; vertex < vertexEdges.length; vertex++)
+			{
+				if (vertexEdges[vertex] >= 0 && xs[vertex] == xs[closest] && ys[vertex] == ys[closest])
+				{
+					edge = vertexEdges[vertex];
+					break;
+				}
+			}
+		}
+
+		// Walk across any edge the target lies beyond; on a Delaunay triangulation, this cannot loop.
+		int triangle = edge / 3;
+		while (true)
+		{
+			int next = -1;
+			for (int i = 0; i < 3 && next < 0; i++)
+			{
+				int start = triangles[3 * triangle + i];
+				int end = triangles[3 * triangle + (i + 1) % 3];
+				if (orientation(xs[start], ys[start], xs[end], ys[end], x, y) < 0)
+				{
+					int opposite = halfedges[3 * triangle + i];
+					if (opposite < 0)
+					{
+						return -1;
+					}
+					next = opposite / 3;
+				}
+			}
+			if (next < 0)
+			{
+				return triangle;
+			}
+			triangle = next;
+		}
+	}
+
+	/**
+	 @return Twice the signed area of the triangle abc: positive if it is counter-clockwise, 0 if it is flat.
+	 */
+	static double orientation(double ax, double ay, double bx, double by, double cx, double cy)
+	{
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	/**
+	 @return A value positive if d lies inside the circumcircle of the counter-clockwise triangle abc, negative if it
+	 lies outside, and 0 if the four points are cocircular.
+	 */
+	static double inCircle(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy)
+	{
+		double adx = ax - dx, ady = ay - dy;
+		double bdx = bx - dx, bdy = by - dy;
+		double cdx = cx - dx, cdy = cy - dy;
+		return (adx * adx + ady * ady) * (bdx * cdy - cdx * bdy)
+			+ (bdx * bdx + bdy * bdy) * (cdx * ady - adx * cdy)
+			+ (cdx * cdx + cdy * cdy) * (adx * bdy - bdx * ady);
+	}
+
+	/**
+	 The working state of a triangulation being built.
+	 */
+	private static class Builder
+	{
+		private final float[] xs;
+		private final float[] ys;
+
+		private final int[] triangles;
+		private final int[] halfedges;
+		private int triangleEdgeCount = 0;
+		private int[] hull;
+
+		/**
+		 The hull, as a doubly linked list of vertices. A vertex removed from the hull points to itself.
+		 */
+		private final int[] hullPrevious;
+		private final int[] hullNext;
+
+		/**
+		 For each hull vertex, the half-edge going from it along the hull.
+		 */
+		private final int[] hullEdges;
+
+		/**
+		 Hull vertices, hashed by their angle around the center.
+		 */
+		private final int[] hullHash;
+
+		/**
+		 The center the points are sorted around.
+		 */
+		private double centerX;
+		private double centerY;
+
+		/**
+		 The half-edges left to legalize.
+		 */
+		private int[] edgeStack = new int[512];
+
+		private Builder(float[] xs, float[] ys)
+		{
+			this.xs = xs;
+			this.ys = ys;
+
+			int size = xs.length;
+			int maxTriangles = Math.max(2 * size - 5, 0);
+			triangles = new int[3 * maxTriangles];
+			halfedges = new int[3 * maxTriangles];
+			hullPrevious = new int[size];
+			hullNext = new int[size];
+			hullEdges = new int[size];
+			hullHash = new int[Math.max((int) Math.ceil(Math.sqrt(size)), 1)];
+		}
+
+		private void build()
+		{
+			int size = xs.length;
+
+			// Seed with the point closest to the center of the bounding box.
+			float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+			float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+			for (int i = 0; i < size; i++)
+			{
+				minX = Math.min(minX, xs[i]);
+				minY = Math.min(minY, ys[i]);
+				maxX = Math.max(maxX, xs[i]);
+				maxY = Math.max(maxY, ys[i]);
+			}
+			double boxCenterX = ((double) minX + maxX) / 2;
+			double boxCenterY = ((double) minY + maxY) / 2;
+
+			int i0 = -1;
+			double bestDistance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < size; i++)
+			{
+				double distance = squaredDistance(xs[i], ys[i], boxCenterX, boxCenterY);
+				if (distance < bestDistance)
+				{
+					i0 = i;
+					bestDistance = distance;
+				}
+			}
+
+			// Then with the point closest to it, and the one making the smallest circumcircle with both.
+			int i1 = -1;
+			bestDistance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < size; i++)
+			{
+				double distance = squaredDistance(xs[i], ys[i], xs[i0], ys[i0]);
+				if (distance > 0 && distance < bestDistance)
+				{
+					i1 = i;
+					bestDistance = distance;
+				}
+			}
+
+			int i2 = -1;
+			double bestRadius = Double.POSITIVE_INFINITY;
+			for (int i = 0; i1 >= 0 && i < size; i++)
+			{
+				double radius = circumradius(i0, i1, i);
+				if (radius < bestRadius)
+				{
+					i2 = i;
+					bestRadius = radius;
+				}
+			}
+
+			if (i2 < 0)
+			{
+				buildCollinearHull(i0);
+				return;
+			}
+
+			if (orientation(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]) < 0)
+			{
+				int swap = i1;
+				i1 = i2;
+				i2 = swap;
+			}
+			computeCircumcenter(i0, i1, i2);
+
+			// Sort the points by distance to the seed's circumcenter: each one is then outside the hull of the previous.
+			int[] ids = new int[size];
+			double[] distances = new double[size];
+			for (int i = 0; i < size; i++)
+			{
+				ids[i] = i;
+				distances[i] = squaredDistance(xs[i], ys[i], centerX, centerY);
+			}
+			sort(ids, distances, 0, size - 1);
+
+			// Start the hull with the seed triangle.
+			Arrays.fill(hullHash, -1);
+			hullNext[i0] = hullPrevious[i2] = i1;
+			hullNext[i1] = hullPrevious[i0] = i2;
+			hullNext[i2] = hullPrevious[i1] = i0;
+			hullHash[hashKey(xs[i0], ys[i0])] = i0;
+			hullHash[hashKey(xs[i1], ys[i1])] = i1;
+			hullHash[hashKey(xs[i2], ys[i2])] = i2;
+			addTriangle(i0, i1, i2, -1, -1, -1);
+			int hullStart = i0;
+
+			float previousX = Float.NaN, previousY = Float.NaN;
+			for (int k = 0; k < size; k++)
+			{
+				int i = ids[k];
+				float x = xs[i], y = ys[i];
+
+				// Skip the seeds, and duplicates, which come in a row.
+				if (i == i0 || i == i1 || i == i2 || (x == previousX && y == previousY))
+				{
+					continue;
+				}
+				previousX = x;
+				previousY = y;
+
+				// Find a hull edge visible from the point, starting from the vertices at about the same angle.
+				int start = 0;
+				int key = hashKey(x, y);
+				for (int j = 0; j < hullHash.length; j++)
+				{
+					start = hullHash[(key + j) % hullHash.length];
+					if (start >= 0 && start != hullNext[start])
+					{
+						break;
+					}
+				}
+				start = hullPrevious[start];
+				int e = start;
+				while (orientation(xs[e], ys[e], xs[hullNext[e]], ys[hullNext[e]], x, y) >= 0)
+				{
+					e = hullNext[e];
+					if (e == start)
+					{
+						e = -1;
+						break;
+					}
+				}
+
+				// Not strictly outside the hull: a duplicate of a point further in the order.
+				if (e < 0)
+				{
+					continue;
+				}
+
+				// Link the point to the first visible edge, then to the next ones, forwards.
+				int triangle = addTriangle(e, i, hullNext[e], -1, -1, hullEdges[e]);
+				legalize(triangle + 2);
+
+				int n = hullNext[e];
+				while (true)
+				{
+					int q = hullNext[n];
+					if (orientation(xs[n], ys[n], xs[q], ys[q], x, y) >= 0)
+					{
+						break;
+					}
+					triangle = addTriangle(n, i, q, hullEdges[i], -1, hullEdges[n]);
+					legalize(triangle + 2);
+					hullNext[n] = n;
+					n = q;
+				}
+
+				// And backwards, unless the edges before the first one were already known to be hidden.
+				if (e == start)
+				{
+					while (true)
+					{
+						int q = hullPrevious[e];
+						if (orientation(xs[q], ys[q], xs[e], ys[e], x, y) >= 0)
+						{
+							break;
+						}
+						triangle = addTriangle(q, i, e, -1, hullEdges[e], hullEdges[q]);
+						legalize(triangle + 2);
+						hullNext[e] = e;
+						e = q;
+					}
+				}
+
+				// Insert the point in the hull, between the last vertices it sees.
+				hullStart = e;
+				hullPrevious[i] = e;
+				hullNext[e] = i;
+				hullPrevious[n] = i;
+				hullNext[i] = n;
+				hullHash[key] = i;
+				hullHash[hashKey(xs[e], ys[e])] = e;
+			}
+
+			int hullSize = 0;
+			int vertex = hullStart;
+			do
+			{
+				hullSize++;
+				vertex = hullNext[vertex];
+			} while (vertex != hullStart);
+			hull = new int[hullSize];
+			for (int j = 0; j < hullSize; j++)
+			{
+				hull[j] = vertex;
+				vertex = hullNext[vertex];
+			}
+		}
+
+		/**
+		 Handles the case of collinear points: there are no triangles, and the hull is made of the distinct points, in
+		 order along their line.
+
+		 @param origin Any of the points.
+		 */
+		private void buildCollinearHull(int origin)
+		{
+			int size = xs.length;
+			int[] ids = new int[size];
+			double[] positions = new double[size];
+			for (int i = 0; i < size; i++)
+			{
+				ids[i] = i;
+				positions[i] = xs[i] != xs[origin] ? xs[i] - xs[origin] : ys[i] - ys[origin];
+			}
+			sort(ids, positions, 0, size - 1);
+
+			int distinct = 0;
+			for (int k = 0; k < size; k++)
+			{
+				if (k == 0 || positions[ids[k]] != positions[ids[distinct - 1]])
+				{
+					ids[distinct++] = ids[k];
+				}
+			}
+			hull = Arrays.copyOf(ids, distinct);
+		}
+
+		private static double squaredDistance(double ax, double ay, double bx, double by)
+		{
+			return (ax - bx) * (ax - bx) + (ay - by) * (ay - by);
+		}
+
+		/**
+		 @return The squared circumradius of the triangle, or infinity if it is flat.
+		 */
+		private double circumradius(int a, int b, int c)
+		{
+			double bx = xs[b] - xs[a], by = ys[b] - ys[a];
+			double cx = xs[c] - xs[a], cy = ys[c] - ys[a];
+			double bl = bx * bx + by * by;
+			double cl = cx * cx + cy * cy;
+			double d = 2 * (bx * cy - by * cx);
+			if (d == 0)
+			{
+				return Double.POSITIVE_INFINITY;
+			}
+			double x = (cy * bl - by * cl) / d;
+			double y = (bx * cl - cx * bl) / d;
+			return x * x + y * y;
+		}
+
+		private void computeCircumcenter(int a, int b, int c)
+		{
+			double bx = xs[b] - xs[a], by = ys[b] - ys[a];
+			double cx = xs[c] - xs[a], cy = ys[c] - ys[a];
+			double bl = bx * bx + by * by;
+			double cl = cx * cx + cy * cy;
+			double d = 2 * (bx * cy - by * cx);
+			centerX = xs[a] + (cy * bl - by * cl) / d;
+			centerY = ys[a] + (bx * cl - cx * bl) / d;
+		}
+
+		/**
+		 @return The hash bucket of a point, from its angle around the center.
+		 */
+		private int hashKey(float x, float y)
+		{
+			// A monotonic substitute for the angle, in [0, 1).
+			double dx = x - centerX, dy = y - centerY;
+			double p = dx / (Math.abs(dx) + Math.abs(dy));
+			double angle = (dy > 0 ? 3 - p : 1 + p) / 4;
+			return (int) Math.floor(angle * hullHash.length) % hullHash.length;
+		}
+
+		/**
+		 Adds a triangle, linking its edges to the given opposite half-edges.
+
+		 @return The first half-edge of the new triangle.
+		 */
+		private int addTriangle(int a, int b, int c, int ab, int bc, int ca)
+		{
+			int t = triangleEdgeCount;
+			triangles[t] = a;
+			triangles[t + 1] = b;
+			triangles[t + 2] = c;
+			link(t, ab);
+			link(t + 1, bc);
+			link(t + 2, ca);
+			triangleEdgeCount += 3;
+			return t;
+		}
+
+		/**
+		 Makes two half-edges opposite. If the second is -1, the first is on the hull, and becomes the hull edge of its
+		 starting vertex.
+		 */
+		private void link(int a, int b)
+		{
+			halfedges[a] = b;
+			if (b >= 0)
+			{
+				halfedges[b] = a;
+			} else
+			{
+				hullEdges[triangles[a]] = a;
+			}
+		}
+
+		/**
+		 Flips edges until the triangles around the given half-edge satisfy the Delaunay condition. The vertex opposite
+		 that half-edge is the point just inserted; every flip makes two more edges opposite it, to be checked in turn.
+
+		 @param edge The half-edge to check.
+		 */
+		private void legalize(int edge)
+		{
+			int stackSize = 0;
+			int a = edge;
+			while (true)
+			{
+				int b = halfedges[a];
+				if (b >= 0)
+				{
+					/*
+					 Triangle A is (pr, pl, p0) and triangle B (pl, pr, p1): if p1 lies in the circumcircle of A, the
+					 shared edge is replaced by p0-p1, making A (p1, pl, p0) and B (p0, pr, p1).
+					 */
+					int a0 = a - a % 3;
+					int b0 = b - b % 3;
+					int al = a0 + (a + 1) % 3;
+					int ar = a0 + (a + 2) % 3;
+					int bl = b0 + (b + 2) % 3;
+					int br = b0 + (b + 1) % 3;
+					int p0 = triangles[ar];
+					int pr = triangles[a];
+					int pl = triangles[al];
+					int p1 = triangles[bl];
+
+					if (inCircle(xs[pr], ys[pr], xs[pl], ys[pl], xs[p0], ys[p0], xs[p1], ys[p1]) > 0)
+					{
+						triangles[a] = p1;
+						triangles[b] = p0;
+						int outerB = halfedges[bl];
+						int outerA = halfedges[ar];
+						link(a, outerB);
+						link(b, outerA);
+						link(ar, bl);
+
+						if (stackSize == edgeStack.length)
+						{
+							edgeStack = Arrays.copyOf(edgeStack, 2 * stackSize);
+						}
+						edgeStack[stackSize++] = br;
+						continue;
+					}
+				}
+
+				if (stackSize == 0)
+				{
+					return;
+				}
+				a = edgeStack[--stackSize];
+			}
+		}
+
+		/**
+		 Sorts ids by increasing key, with a quicksort.
+
+		 @param ids The ids to sort.
+		 @param keys The key of each id.
+		 @param lo The first position to sort.
+		 @param hi The last position to sort.
+		 */
+		private static void sort(int[] ids, double[] keys, int lo, int hi)
+		{
+			while (hi - lo > 16)
+			{
+				// Median of three pivot.
+				int middle = (lo + hi) >>> 1;
+				if (keys[ids[middle]] < keys[ids[lo]])
+				{
+					swap(ids, middle, lo);
+				}
+				if (keys[ids[hi]] < keys[ids[lo]])
+				{
+					swap(ids, hi, lo);
+				}
+				if (keys[ids[hi]] < keys[ids[middle]])
+				{
+					swap(ids, hi, middle);
+				}
+				double pivot = keys[ids[middle]];
+
+				int i = lo, j = hi;
+				while (i <= j)
+				{
+					while (keys[ids[i]] < pivot)
+					{
+						i++;
+					}
+					while (keys[ids[j]] > pivot)
+					{
+						j--;
+					}
+					if (i <= j)
+					{
+						swap(ids, i++, j--);
+					}
+				}
+
+				// Recurse on the smaller side, loop on the larger one.
+				if (j - lo < hi - i)
+				{
+					sort(ids, keys, lo, j);
+					lo = i;
+				} else
+				{
+					sort(ids, keys, i, hi);
+					hi = j;
+				}
+			}
+
+			for (int i = lo + 1; i <= hi; i++)
+			{
+				int id = ids[i];
+				double key = keys[id];
+				int j = i - 1;
+				while (j >= lo && keys[ids[j]] > key)
+				{
+					ids[j + 1] = ids[j];
+					j--;
+				}
+				ids[j + 1] = id;
+			}
+		}
+
+		private static void swap(int[] ids, int i, int j)
+		{
+			int swap = ids[i];
+			ids[i] = ids[j];
+			ids[j] = swap;
+		}
+	}
+}
@@ -0,0 +1,697 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.Arrays;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ A 2-D tree supporting insertions, removals and moves, as a scapegoat tree: every node holds a point, insertions go
+ down to a new leaf, and the topmost subtree that becomes too unbalanced is rebuilt around its medians. Removals are
+ lazy: removed nodes stay in the tree as routing nodes until their subtree is rebuilt, and the whole tree is rebuilt
+ once they outnumber the live points.
+ Nodes are stored in primitive arrays. Points are designated by ids, that stay valid when points move; the id of a
+ removed point may be handed out again by a later insertion. Several points may share the same X or Y.
+ This class is not thread-safe: queries may run concurrently, but not alongside modifications.
+ */
+public class DynamicKdTree
+{
+	/**
+	 The maximum share of a subtree's nodes that one of its children may hold before the subtree is rebuilt.
+	 */
+	private static final float BALANCE_FACTOR = 0.7f;
+
+	/**
+	 The number of coordinates considered when splitting: 2, or 3 if the Zs are relevant.
+	 */
+	private final int dimensions;
+
+	/**
+	 The coordinates of the nodes. The first index is the coordinate (0 x, 1 y, 2 z), the second the node.
+	 */
+	private float[][] coordinates = new float[3][16];
+
+	/**
+	 The left child of each node, or -1.
+	 */
+	private int[] leftChildren = new int[16];
+
+	/**
+	 The right child of each node, or -1.
+	 */
+	private int[] rightChildren = new int[16];
+
+	/**
+	 The coordinate on which each node splits. If 0, x, 1 y and 2 z.
+	 */
+	private int[] splitCoordinates = new int[16];
+
+	/**
+	 The number of nodes, removed ones included, in the subtree of each node.
+	 */
+	private int[] subtreeSizes = new int[16];
+
+	/**
+	 The id of the point held by each node, or -1 if that point was removed.
+	 */
+	private int[] pointIds = new int[16];
+
+	/**
+	 The number of nodes ever allocated, free ones included.
+	 */
+	private int nodeCount = 0;
+
+	/**
+	 The nodes that can be reused, as a stack.
+	 */
+	private int[] freeNodes = new int[16];
+	private int freeNodeCount = 0;
+
+	/**
+	 The node of each point id, or -1 if that id is not in use.
+	 */
+	private int[] nodesById = new int[16];
+
+	/**
+	 The number of ids ever allocated, free ones included.
+	 */
+	private int idCount = 0;
+
+	/**
+	 The ids that can be reused, as a stack.
+	 */
+	private int[] freeIds = new int[16];
+	private int freeIdCount = 0;
+
+	/**
+	 The root node, or -1 if the tree is empty.
+	 */
+	private int root = -1;
+
+	/**
+	 The number of live points.
+	 */
+	private int size = 0;
+
+	/**
+	 The number of removed nodes still in the tree.
+	 */
+	private int removedCount = 0;
+
+	/**
+	 A buffer holding the path followed by the last insertion, from the root.
+	 */
+	private int[] path = new int[64];
+
+	/**
+	 A buffer holding the nodes of a subtree being rebuilt.
+	 */
+	private int[] rebuiltNodes = new int[16];
+
+	/**
+	 Constructor for points in a plane; their Zs are ignored when splitting.
+	 */
+	public DynamicKdTree()
+	{
+		this(false);
+	}
+
+	/**
+	 Constructor.
+
+	 @param considerZs Boolean indicating if the Z value is relevant, or dismissed since it's constant.
+	 */
+	public DynamicKdTree(boolean considerZs)
+	{
+		dimensions = considerZs ? 3 : 2;
+	}
+
+	/**
+	 @return The number of points in this tree.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 Inserts a point.
+
+	 @param point The point to insert. It is copied, so later changes to it are not reflected.
+	 @return The id of the point.
+	 */
+	public int insert(Point3F point)
+	{
+		return insert(point.x, point.y, point.z);
+	}
+
+	/**
+	 Inserts a point.
+
+	 @param x The point's X value.
+	 @param y The point's Y value.
+	 @param z The point's Z value.
+	 @return The id of the point.
+	 */
+	public int insert(float x, float y, float z)
+	{
+		int id;
+		if (freeIdCount > 0)
+		{
+			id = freeIds[--freeIdCount];
+		} else
+		{
+			if (idCount == nodesById.length)
+			{
+				nodesById = Arrays.copyOf(nodesById, idCount * 2);
+			}
+			id = idCount++;
+		}
+
+		insertNode(id, x, y, z);
+		return id;
+	}
+
+	/**
+	 Removes a point.
+
+	 @param id The id of the point to remove.
+	 @return True if the point was removed, false if there was no such point.
+	 */
+	public boolean remove(int id)
+	{
+		if (!detach(id))
+		{
+			return false;
+		}
+
+		nodesById[id] = -1;
+		if (freeIdCount == freeIds.length)
+		{
+			freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+		}
+		freeIds[freeIdCount++] = id;
+
+		rebuildIfSparse();
+		return true;
+	}
+
+	/**
+	 Moves a point, keeping its id.
+
+	 @param id The id of the point to move.
+	 @param x The point's new X value.
+	 @param y The point's new Y value.
+	 @param z The point's new Z value.
+	 */
+	public void move(int id, float x, float y, float z)
+	{
+		if (!detach(id))
+		{
+			throw new IllegalArgumentException("No point with id " + id);
+		}
+
+		insertNode(id, x, y, z);
+		rebuildIfSparse();
+	}
+
+	/**
+	 Returns the current position of a point.
+
+	 @param id The id of the point.
+	 @return A copy of the point's coordinates.
+	 */
+	public Point3F getPoint(int id)
+	{
+		if (id < 0 || id >= idCount || nodesById[id] < 0)
+		{
+			throw new IllegalArgumentException("No point with id " + id);
+		}
+
+		int node = nodesById[id];
+		return new Point3F(coordinates[0][node], coordinates[1][node], coordinates[2][node]);
+	}
+
+	/**
+	 Marks the node of a point as removed, leaving it in the tree as a routing node.
+
+	 @param id The id of the point.
+	 @return True if the point existed.
+	 */
+	private boolean detach(int id)
+	{
+		if (id < 0 || id >= idCount || nodesById[id] < 0)
+		{
+			return false;
+		}
+
+		pointIds[nodesById[id]] = -1;
+		size--;
+		removedCount++;
+		return true;
+	}
+
+	/**
+	 Rebuilds the whole tree if removed nodes outnumber the live ones.
+	 */
+	private void rebuildIfSparse()
+	{
+		if (removedCount > size)
+		{
+			rebuild(0);
+		}
+	}
+
+	/**
+	 Allocates a new node.
+
+	 @param id The id of the point it holds.
+	 @param x The point's X value.
+	 @param y The point's Y value.
+	 @param z The point's Z value.
+	 @return The new node.
+	 */
+	private int allocateNode(int id, float x, float y, float z)
+	{
+		int node;
+		if (freeNodeCount > 0)
+		{
+			node = freeNodes[--freeNodeCount];
+		} else
+		{
+			if (nodeCount == pointIds.length)
+			{
+				int capacity = nodeCount * 2;
+				for (int i = 0; i < coordinates.length; i++)
+				{
+					coordinates[i] = Arrays.copyOf(coordinates[i], capacity);
+				}
+				leftChildren = Arrays.copyOf(leftChildren, capacity);
+				rightChildren = Arrays.copyOf(rightChildren, capacity);
+				splitCoordinates = Arrays.copyOf(splitCoordinates, capacity);
+				subtreeSizes = Arrays.copyOf(subtreeSizes, capacity);
+				pointIds = Arrays.copyOf(pointIds, capacity);
+			}
+			node = nodeCount++;
+		}
+
+		coordinates[0][node] = x;
+		coordinates[1][node] = y;
+		coordinates[2][node] = z;
+		leftChildren[node] = -1;
+		rightChildren[node] = -1;
+		subtreeSizes[node] = 1;
+		pointIds[node] = id;
+		return node;
+	}
+
+	/**
+	 Inserts a new node for the given point, then rebuilds the topmost unbalanced subtree on its path, if any.
+
+	 @param id The id of the point.
+	 @param x The point's X value.
+	 @param y The point's Y value.
+	 @param z The point's Z value.
+	 */
+	private void insertNode(int id, float x, float y, float z)
+	{
+		int node = allocateNode(id, x, y, z);
+		nodesById[id] = node;
+		size++;
+
+		if (root < 0)
+		{
+			root = node;
+			splitCoordinates[node] = 0;
+			return;
+		}
+
+		// Go down to a free leaf, recording the path.
+		int depth = 0;
+		int current = root;
+		while (true)
+		{
+			if (depth == path.length)
+			{
+				path = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth++] = current;
+			subtreeSizes[current]++;
+
+			int splitCoordinate = splitCoordinates[current];
+			float value = splitCoordinate == 0 ? x : splitCoordinate == 1 ? y : z;
+			boolean goLeft = value < coordinates[splitCoordinate][current];
+			int child = goLeft ? leftChildren[current] : rightChildren[current];
+
+			if (child < 0)
+			{
+				if (goLeft)
+				{
+					leftChildren[current] = node;
+				} else
+				{
+					rightChildren[current] = node;
+				}
+				splitCoordinates[node] = (splitCoordinate + 1) % dimensions;
+				break;
+			}
+			current = child;
+		}
+
+		// Find the topmost ancestor with a child too heavy (the scapegoat), and rebuild its subtree.
+		for (int i = 0; i < depth; i++)
+		{
+			int ancestor = path[i];
+			float limit = BALANCE_FACTOR * subtreeSizes[ancestor];
+			if (subtreeSize(leftChildren[ancestor]) > limit || subtreeSize(rightChildren[ancestor]) > limit)
+			{
+				rebuild(i);
+				break;
+			}
+		}
+	}
+
+	/**
+	 @param node A node, or -1.
+	 @return The size of the node's subtree, or 0 for -1.
+	 */
+	private int subtreeSize(int node)
+	{
+		return node < 0 ? 0 : subtreeSizes[node];
+	}
+
+	/**
+	 Rebuilds a subtree into a balanced one, dropping its removed nodes.
+
+	 @param depth The depth, in the last insertion path, of the subtree's root. If 0, the whole tree is rebuilt.
+	 */
+	private void rebuild(int depth)
+	{
+		int subtreeRoot = depth == 0 ? root : path[depth];
+		if (subtreeRoot < 0)
+		{
+			return;
+		}
+
+		int oldSize = subtreeSizes[subtreeRoot];
+		if (rebuiltNodes.length < oldSize)
+		{
+			rebuiltNodes = new int[Math.max(oldSize, rebuiltNodes.length * 2)];
+		}
+		int liveCount = collectLiveNodes(subtreeRoot, 0);
+		int newRoot = buildBalanced(0, liveCount, splitCoordinates[subtreeRoot]);
+
+		// Relink the new subtree, and forget the dropped nodes in the ancestors' sizes.
+		int droppedCount = oldSize - liveCount;
+		removedCount -= droppedCount;
+		if (depth == 0)
+		{
+			root = newRoot;
+		} else
+		{
+			int parent = path[depth - 1];
+			if (leftChildren[parent] == subtreeRoot)
+			{
+				leftChildren[parent] = newRoot;
+			} else
+			{
+				rightChildren[parent] = newRoot;
+			}
+
+			for (int i = 0; i < depth; i++)
+			{
+				subtreeSizes[path[i]] -= droppedCount;
+			}
+		}
+	}
+
+	/**
+	 Gathers the live nodes of a subtree into the rebuild buffer, and frees the removed ones.
+
+	 @param node The root of the subtree, or -1.
+	 @param count The number of nodes gathered so far.
+	 @return The number of nodes gathered, including this subtree.
+	 */
+	private int collectLiveNodes(int node, int count)
+	{
+		if (node < 0)
+		{
+			return count;
+		}
+
+		count = collectLiveNodes(leftChildren[node], count);
+		if (pointIds[node] >= 0)
+		{
+			rebuiltNodes[count++] = node;
+		} else
+		{
+			if (freeNodeCount == freeNodes.length)
+			{
+				freeNodes = Arrays.copyOf(freeNodes, freeNodeCount * 2);
+			}
+			freeNodes[freeNodeCount++] = node;
+		}
+		return collectLiveNodes(rightChildren[node], count);
+	}
+
+	/**
+	 Recursively links a range of the rebuild buffer into a balanced tree, each node being the median of its range.
+
+	 @param lo The first node of the range, inclusive.
+	 @param hi The last node of the range, exclusive.
+	 @param splitCoordinate The coordinate on which to split this range.
+	 @return The root of the built subtree, or -1 if the range is empty.
+	 */
+	private int buildBalanced(int lo, int hi, int splitCoordinate)
+	{
+		if (lo >= hi)
+		{
+			return -1;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		selectNode(lo, hi - 1, mid, coordinates[splitCoordinate]);
+
+		int node = rebuiltNodes[mid];
+		int nextCoordinate = (splitCoordinate + 1) % dimensions;
+		splitCoordinates[node] = splitCoordinate;
+		subtreeSizes[node] = hi - lo;
+		leftChildren[node] = buildBalanced(lo, mid, nextCoordinate);
+		rightChildren[node] = buildBalanced(mid + 1, hi, nextCoordinate);
+
+		return node;
+	}
+
+	/**
+	 Moves the node with the k-th smallest value to position k of the rebuild buffer, with smaller or equal values
+	 before it and greater or equal ones after it (Hoare's selection).
+
+	 @param left The first position of the range, inclusive.
+	 @param right The last position of the range, inclusive.
+	 @param k The position to settle.
+	 @param values The coordinate to compare, by node.
+	 */
+	private void selectNode(int left, int right, int k, float[] values)
+	{
+		int[] nodes = rebuiltNodes;
+		while (left < right)
+		{
+			float pivot = values[nodes[(left + right) >>> 1]];
+
+			int i = left;
+			int j = right;
+			while (i <= j)
+			{
+				while (values[nodes[i]] < pivot)
+				{
+					i++;
+				}
+				while (values[nodes[j]] > pivot)
+				{
+					j--;
+				}
+				if (i <= j)
+				{
+					int node = nodes[i];
+					nodes[i] = nodes[j];
+					nodes[j] = node;
+					i++;
+					j--;
+				}
+			}
+
+			if (k <= j)
+			{
+				right = j;
+			} else if (k >= i)
+			{
+				left = i;
+			} else
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 Returns the squared distance from a node to the given coordinates.
+
+	 @param node The node.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The squared distance.
+	 */
+	private float squaredDistance(int node, float x, float y, float z)
+	{
+		float dx = coordinates[0][node] - x;
+		float dy = coordinates[1][node] - y;
+		float dz = coordinates[2][node] - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 Returns the signed distance from the given coordinates to the split plane of a node.
+
+	 @param node The node.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The target coordinate minus the node's one; negative if the target lies on the left side.
+	 */
+	private float distanceToSplit(int node, float x, float y, float z)
+	{
+		int splitCoordinate = splitCoordinates[node];
+		float target = splitCoordinate == 0 ? x : splitCoordinate == 1 ? y : z;
+		return target - coordinates[splitCoordinate][node];
+	}
+
+	/**
+	 Finds the point of the tree closest to the given point.
+
+	 @param targetPoint The targeted point.
+	 @return The id of the closest point; or -1 if the tree is empty.
+	 */
+	public int getClosestPoint(Point3F targetPoint)
+	{
+		return getClosestPoint(targetPoint.x, targetPoint.y, targetPoint.z);
+	}
+
+	/**
+	 Finds the point of the tree closest to the given coordinates.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The id of the closest point; or -1 if the tree is empty.
+	 */
+	public int getClosestPoint(float x, float y, float z)
+	{
+		int bestNode = findClosestNode(root, x, y, z, -1, Float.POSITIVE_INFINITY);
+		return bestNode < 0 ? -1 : pointIds[bestNode];
+	}
+
+	/**
+	 Recursively finds the live node closest to the target, within the given subtree.
+
+	 @param node The root of the subtree, or -1.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param bestNode The best candidate so far, or -1.
+	 @param bestSquaredDistance The squared distance of the best candidate to the target.
+	 @return The best candidate, either the given one or a better one from this subtree.
+	 */
+	private int findClosestNode(int node, float x, float y, float z, int bestNode, float bestSquaredDistance)
+	{
+		if (node < 0)
+		{
+			return bestNode;
+		}
+
+		// Removed nodes still route the search, but are not candidates.
+		if (pointIds[node] >= 0)
+		{
+			float squaredDistance = squaredDistance(node, x, y, z);
+			if (squaredDistance < bestSquaredDistance)
+			{
+				bestNode = node;
+				bestSquaredDistance = squaredDistance;
+			}
+		}
+
+		float distanceToSplit = distanceToSplit(node, x, y, z);
+		int nearChild = distanceToSplit < 0 ? leftChildren[node] : rightChildren[node];
+		int farChild = distanceToSplit < 0 ? rightChildren[node] : leftChildren[node];
+
+		// Descend into the side of the target first, then into the other if it may hide a better point.
+		int candidate = findClosestNode(nearChild, x, y, z, bestNode, bestSquaredDistance);
+		if (candidate != bestNode)
+		{
+			bestNode = candidate;
+			bestSquaredDistance = squaredDistance(bestNode, x, y, z);
+		}
+
+		if (distanceToSplit * distanceToSplit < bestSquaredDistance)
+		{
+			bestNode = findClosestNode(farChild, x, y, z, bestNode, bestSquaredDistance);
+		}
+
+		return bestNode;
+	}
+
+	/**
+	 Finds the points of the tree close enough to the given point.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the ids of the points found. If it is too small, the extra points are counted
+	 but not stored.
+	 @return The number of points within the given range of the given point.
+	 */
+	public int rangeSearch(Point3F targetPoint, float squaredRange, int[] result)
+	{
+		return rangeSearch(root, targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, result, 0);
+	}
+
+	/**
+	 Recursively finds the points close enough to the target, within the given subtree.
+
+	 @param node The root of the subtree, or -1.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the ids found.
+	 @param count The number of points found so far.
+	 @return The number of points found so far, including this subtree.
+	 */
+	private int rangeSearch(int node, float x, float y, float z, float squaredRange, int[] result, int count)
+	{
+		while (node >= 0)
+		{
+			if (pointIds[node] >= 0 && squaredDistance(node, x, y, z) < squaredRange)
+			{
+				if (count < result.length)
+				{
+					result[count] = pointIds[node];
+				}
+				count++;
+			}
+
+			float distanceToSplit = distanceToSplit(node, x, y, z);
+			boolean bothSides = distanceToSplit * distanceToSplit < squaredRange;
+
+			// Recurse into the left side if needed, and loop on the right one if needed.
+			if (distanceToSplit < 0 || bothSides)
+			{
+				count = rangeSearch(leftChildren[node], x, y, z, squaredRange, result, count);
+			}
+			if (distanceToSplit < 0 && !bothSides)
+			{
+				break;
+			}
+			node = rightChildren[node];
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,754 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ An immutable 2-D tree, stored in flat primitive arrays instead of linked nodes.
+ The points are reordered so that each node is the median element of its own slot range: the root is the middle
+ slot, its left subtree the slots before it, and its right subtree the slots after it. The split coordinate is implied
+ by the depth, as in KdTreeNode. Ranges of at most bucketSize slots are not split further: they are leaf buckets,
+ scanned linearly over contiguous coordinates, which is cheaper than descending the last levels of the tree.
+ Queries return indices into the list the tree was built from, and allocate nothing. Unlike KdTreeNode, several points
+ may share the same X or Y.
+ */
+public class FlatKdTree implements SpatialIndex
+{
+	/**
+	 The default number of points per leaf bucket.
+	 */
+	public static final int DEFAULT_BUCKET_SIZE = 16;
+
+	/**
+	 The number of queries under which a batch is always processed sequentially, by a single task.
+	 */
+	private static final int BATCH_THRESHOLD = 1 << 12;
+
+	/**
+	 The coordinates of the points, in tree order. The first index is the coordinate (0 x, 1 y, 2 z), the second the
+	 slot.
+	 */
+	private final float[][] coordinates;
+
+	/**
+	 For each slot of the tree, the index of its point in the source list.
+	 */
+	private final int[] indices;
+
+	/**
+	 The number of coordinates considered when splitting: 2, or 3 if the Zs are not constant.
+	 */
+	private final int dimensions;
+
+	/**
+	 The maximum number of points in a leaf bucket.
+	 */
+	private final int bucketSize;
+
+	/**
+	 Constructor using fields. The arrays must already be laid out as a tree.
+
+	 @param coordinates The coordinates of the points, in tree order.
+	 @param indices The source index of each slot.
+	 @param dimensions The number of coordinates considered when splitting.
+	 @param bucketSize The maximum number of points in a leaf bucket.
+	 */
+	private FlatKdTree(float[][] coordinates, int[] indices, int dimensions, int bucketSize)
+	{
+		this.coordinates = coordinates;
+		this.indices = indices;
+		this.dimensions = dimensions;
+		this.bucketSize = bucketSize;
+	}
+
+	/**
+	 Builds a tree out of the given points. The points are copied, so later changes to them are not reflected.
+
+	 @param points The points to represent in this tree.
+	 @return The resulting tree.
+	 */
+	public static FlatKdTree buildTree(List<? extends Point3F> points)
+	{
+		return buildTree(points, false);
+	}
+
+	/**
+	 Builds a tree out of the given points, in O(n log n). The points are copied, so later changes to them are not
+	 reflected.
+
+	 @param points The points to represent in this tree.
+	 @param parallel True to build big subtrees in parallel, on the common fork/join pool.
+	 @return The resulting tree.
+	 */
+	public static FlatKdTree buildTree(List<? extends Point3F> points, boolean parallel)
+	{
+		return buildTree(points, parallel, DEFAULT_BUCKET_SIZE);
+	}
+
+	/**
+	 Builds a tree out of the given points, in O(n log n). The points are copied, so later changes to them are not
+	 reflected.
+
+	 @param points The points to represent in this tree.
+	 @param parallel True to build big subtrees in parallel, on the common fork/join pool.
+	 @param bucketSize The maximum number of points in a leaf bucket. Small buckets suit sparse queries such as closest
+	 points, bigger ones (up to 64) dense range queries. 1 makes every point a node.
+	 @return The resulting tree.
+	 */
+	public static FlatKdTree buildTree(List<? extends Point3F> points, boolean parallel, int bucketSize)
+	{
+		if (bucketSize < 1)
+		{
+			throw new IllegalArgumentException("Bucket size must be at least 1, not " + bucketSize);
+		}
+
+		int size = points.size();
+		float[][] coordinates = new float[3][size];
+		int[] indices = new int[size];
+		int dimensions = KdTreeBuilder.copyPoints(points, coordinates, indices);
+
+		KdTreeBuilder.run(new KdTreeBuilder.FlatLayoutTask(coordinates, indices, 0, size, 0, dimensions, bucketSize, parallel), size, parallel);
+
+		return new FlatKdTree(coordinates, indices, dimensions, bucketSize);
+	}
+
+	/**
+	 @return The number of points in this tree.
+	 */
+	@Override
+	public int size()
+	{
+		return indices.length;
+	}
+
+	/**
+	 Returns the squared distance from a slot to the given coordinates.
+
+	 @param slot The slot of the tree.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The squared distance.
+	 */
+	private float squaredDistance(int slot, float x, float y, float z)
+	{
+		float dx = coordinates[0][slot] - x;
+		float dy = coordinates[1][slot] - y;
+		float dz = coordinates[2][slot] - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 Returns the signed distance from the given coordinates to the split plane of a node.
+
+	 @param slot The slot of the node.
+	 @param splitCoordinate The coordinate on which the node splits.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The target coordinate minus the node's one; negative if the target lies on the left side.
+	 */
+	private float distanceToSplit(int slot, int splitCoordinate, float x, float y, float z)
+	{
+		float target = splitCoordinate == 0 ? x : splitCoordinate == 1 ? y : z;
+		return target - coordinates[splitCoordinate][slot];
+	}
+
+	/**
+	 Finds the point of the tree closest to the given point.
+
+	 @param targetPoint The targeted point.
+	 @return The index, in the source list, of the closest point; or -1 if the tree is empty.
+	 */
+	@Override
+	public int getClosestPoint(Point3F targetPoint)
+	{
+		return getClosestPoint(targetPoint.x, targetPoint.y, targetPoint.z);
+	}
+
+	/**
+	 Finds the point of the tree closest to the given coordinates.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The index, in the source list, of the closest point; or -1 if the tree is empty.
+	 */
+	@Override
+	public int getClosestPoint(float x, float y, float z)
+	{
+		if (indices.length == 0)
+		{
+			return -1;
+		}
+
+		int bestSlot = findClosestSlot(0, indices.length, 0, x, y, z, -1, Float.POSITIVE_INFINITY);
+		return indices[bestSlot];
+	}
+
+	/**
+	 Scans a leaf bucket for a slot closer to the target than the best candidate so far.
+	 The distances are first reduced to their minimum in a branchless loop the JIT can vectorise; the slot itself is
+	 only looked for when that minimum beats the best candidate.
+
+	 @param lo The first slot of the bucket, inclusive.
+	 @param hi The last slot of the bucket, exclusive.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param bestSlot The best candidate so far.
+	 @param bestSquaredDistance The squared distance of the best candidate to the target.
+	 @return The best candidate, either the given one or a better one from this bucket.
+	 */
+	private int findClosestSlotInBucket(int lo, int hi, float x, float y, float z, int bestSlot, float bestSquaredDistance)
+	{
+		float[] xs = coordinates[0];
+		float[] ys = coordinates[1];
+		float[] zs = coordinates[2];
+
+		float minimum = bestSquaredDistance;
+		for (int i = lo; i < hi; i++)
+		{
+			float dx = xs[i] - x;
+			float dy = ys[i] - y;
+			float dz = zs[i] - z;
+			minimum = Math.min(minimum, dx * dx + dy * dy + dz * dz);
+		}
+
+		if (minimum < bestSquaredDistance)
+		{
+			for (int i = lo; i < hi; i++)
+			{
+				if (squaredDistance(i, x, y, z) == minimum)
+				{
+					return i;
+				}
+			}
+		}
+
+		return bestSlot;
+	}
+
+	/**
+	 Finds the points of the tree closest to each of the given coordinates. Consecutive queries are expected to be close
+	 to each other, as the pixels of a row are: each search is seeded with the previous result, so that it can prune
+	 from the start.
+
+	 @param xs The targets' xs.
+	 @param ys The targets' ys.
+	 @param zs The targets' zs, or null if they are all 0.
+	 @param result The buffer receiving, for each target, the index in the source list of its closest point; or -1 if
+	 the tree is empty.
+	 @param parallel True to split the batch into chunks processed on the common fork/join pool.
+	 */
+	public void getClosestPoints(float[] xs, float[] ys, float[] zs, int[] result, boolean parallel)
+	{
+		assert (xs.length == ys.length && (zs == null || zs.length == xs.length) && result.length >= xs.length);
+
+		ClosestPointsTask task = new ClosestPointsTask(xs, ys, zs, result, 0, xs.length, parallel);
+		if (parallel && xs.length > BATCH_THRESHOLD)
+		{
+			ForkJoinPool.commonPool().invoke(task);
+		} else
+		{
+			task.compute();
+		}
+	}
+
+	/**
+	 A task finding the closest points of a range of queries.
+	 */
+	private class ClosestPointsTask extends RecursiveAction
+	{
+		private final float[] xs;
+		private final float[] ys;
+		private final float[] zs;
+		private final int[] result;
+		private final int from;
+		private final int to;
+		private final boolean parallel;
+
+		/**
+		 @param xs The targets' xs.
+		 @param ys The targets' ys.
+		 @param zs The targets' zs, or null if they are all 0.
+		 @param result The buffer receiving the closest points' indices.
+		 @param from The first query of the range, inclusive.
+		 @param to The last query of the range, exclusive.
+		 @param parallel True if the range may be split into parallel chunks.
+		 */
+		ClosestPointsTask(float[] xs, float[] ys, float[] zs, int[] result, int from, int to, boolean parallel)
+		{
+			this.xs = xs;
+			this.ys = ys;
+			this.zs = zs;
+			this.result = result;
+			this.from = from;
+			this.to = to;
+			this.parallel = parallel;
+		}
+
+		@Override
+		protected void compute()
+		{
+			// Split big ranges in two contiguous halves, to keep the queries of a chunk close to each other.
+			if (parallel && to - from > BATCH_THRESHOLD)
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new ClosestPointsTask(xs, ys, zs, result, from, mid, true), new ClosestPointsTask(xs, ys, zs, result, mid, to, true));
+				return;
+			}
+
+			if (indices.length == 0)
+			{
+				for (int i = from; i < to; i++)
+				{
+					result[i] = -1;
+				}
+				return;
+			}
+
+			int previousSlot = -1;
+			float previousSquaredDistance = Float.POSITIVE_INFINITY;
+			for (int i = from; i < to; i++)
+			{
+				float z = zs == null ? 0 : zs[i];
+				if (previousSlot >= 0)
+				{
+					previousSquaredDistance = squaredDistance(previousSlot, xs[i], ys[i], z);
+				}
+
+				previousSlot = findClosestSlot(0, indices.length, 0, xs[i], ys[i], z, previousSlot, previousSquaredDistance);
+				result[i] = indices[previousSlot];
+			}
+		}
+	}
+
+	/**
+	 Recursively finds the slot closest to the target, within the given range.
+
+	 @param lo The first slot of the range, inclusive.
+	 @param hi The last slot of the range, exclusive.
+	 @param splitCoordinate The coordinate on which this range splits.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param bestSlot The best candidate so far.
+	 @param bestSquaredDistance The squared distance of the best candidate to the target.
+	 @return The best candidate, either the given one or a better one from this range.
+	 */
+	private int findClosestSlot(int lo, int hi, int splitCoordinate, float x, float y, float z, int bestSlot, float bestSquaredDistance)
+	{
+		if (hi - lo <= bucketSize)
+		{
+			return findClosestSlotInBucket(lo, hi, x, y, z, bestSlot, bestSquaredDistance);
+		}
+
+		int mid = (lo + hi) >>> 1;
+		float squaredDistance = squaredDistance(mid, x, y, z);
+		if (squaredDistance < bestSquaredDistance)
+		{
+			bestSlot = mid;
+			bestSquaredDistance = squaredDistance;
+		}
+
+		float distanceToSplit = distanceToSplit(mid, splitCoordinate, x, y, z);
+		int nextCoordinate = (splitCoordinate + 1) % dimensions;
+
+		// Descend into the side of the target first, then into the other if it may hide a better point.
+		int candidate;
+		if (distanceToSplit < 0)
+		{
+			candidate = findClosestSlot(lo, mid, nextCoordinate, x, y, z, bestSlot, bestSquaredDistance);
+		} else
+		{
+			candidate = findClosestSlot(mid + 1, hi, nextCoordinate, x, y, z, bestSlot, bestSquaredDistance);
+		}
+		if (candidate != bestSlot)
+		{
+			bestSlot = candidate;
+			bestSquaredDistance = squaredDistance(bestSlot, x, y, z);
+		}
+
+		if (distanceToSplit * distanceToSplit < bestSquaredDistance)
+		{
+			if (distanceToSplit < 0)
+			{
+				bestSlot = findClosestSlot(mid + 1, hi, nextCoordinate, x, y, z, bestSlot, bestSquaredDistance);
+			} else
+			{
+				bestSlot = findClosestSlot(lo, mid, nextCoordinate, x, y, z, bestSlot, bestSquaredDistance);
+			}
+		}
+
+		return bestSlot;
+	}
+
+	/**
+	 Finds the k points of the tree closest to the given point.
+
+	 @param targetPoint The targeted point.
+	 @param k The number of neighbours wanted, strictly positive.
+	 @return The indices, in the source list, of the k closest points by increasing distance; fewer if the tree is
+	 smaller.
+	 */
+	public int[] kNearest(Point3F targetPoint, int k)
+	{
+		if (k <= 0)
+		{
+			throw new IllegalArgumentException("Non positive number of neighbours: " + k);
+		}
+		int capacity = Math.min(k, indices.length);
+		int[] resultIndices = new int[capacity];
+		kNearest(targetPoint.x, targetPoint.y, targetPoint.z, capacity, resultIndices, new float[capacity]);
+		return resultIndices;
+	}
+
+	/**
+	 Finds the k points of the tree closest to the given coordinates, and writes them into the given buffers.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param k The number of neighbours wanted. The buffers must hold at least k values.
+	 @param resultIndices The buffer receiving the indices, in the source list, of the closest points by increasing
+	 distance.
+	 @param resultSquaredDistances The buffer receiving their squared distances to the target.
+	 @return The number of neighbours found: k, or the size of the tree if smaller.
+	 */
+	public int kNearest(float x, float y, float z, int k, int[] resultIndices, float[] resultSquaredDistances)
+	{
+		assert (resultIndices.length >= k && resultSquaredDistances.length >= k);
+
+		// Gather the slots into a bounded max-heap, then sort it and resolve the slots to source indices.
+		int count = findNearestSlots(0, indices.length, 0, x, y, z, k, resultIndices, resultSquaredDistances, 0);
+		NeighbourHeap.sort(resultSquaredDistances, resultIndices, count);
+		for (int i = 0; i < count; i++)
+		{
+			resultIndices[i] = indices[resultIndices[i]];
+		}
+
+		return count;
+	}
+
+	/**
+	 Recursively gathers the slots closest to the target within the given range, into a bounded max-heap.
+
+	 @param lo The first slot of the range, inclusive.
+	 @param hi The last slot of the range, exclusive.
+	 @param splitCoordinate The coordinate on which this range splits.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param k The capacity of the heap.
+	 @param heapSlots The heap's slots.
+	 @param heapSquaredDistances The heap's squared distances.
+	 @param count The current size of the heap.
+	 @return The new size of the heap.
+	 */
+	private int findNearestSlots(int lo, int hi, int splitCoordinate, float x, float y, float z, int k, int[] heapSlots, float[] heapSquaredDistances, int count)
+	{
+		if (k == 0)
+		{
+			return count;
+		}
+		if (hi - lo <= bucketSize)
+		{
+			for (int i = lo; i < hi; i++)
+			{
+				count = NeighbourHeap.offer(heapSquaredDistances, heapSlots, count, k, squaredDistance(i, x, y, z), i);
+			}
+			return count;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		count = NeighbourHeap.offer(heapSquaredDistances, heapSlots, count, k, squaredDistance(mid, x, y, z), mid);
+
+		float distanceToSplit = distanceToSplit(mid, splitCoordinate, x, y, z);
+		int nextCoordinate = (splitCoordinate + 1) % dimensions;
+
+		// Descend into the side of the target first, then into the other if it may hide closer points.
+		if (distanceToSplit < 0)
+		{
+			count = findNearestSlots(lo, mid, nextCoordinate, x, y, z, k, heapSlots, heapSquaredDistances, count);
+		} else
+		{
+			count = findNearestSlots(mid + 1, hi, nextCoordinate, x, y, z, k, heapSlots, heapSquaredDistances, count);
+		}
+
+		if (count < k || distanceToSplit * distanceToSplit < heapSquaredDistances[0])
+		{
+			if (distanceToSplit < 0)
+			{
+				count = findNearestSlots(mid + 1, hi, nextCoordinate, x, y, z, k, heapSlots, heapSquaredDistances, count);
+			} else
+			{
+				count = findNearestSlots(lo, mid, nextCoordinate, x, y, z, k, heapSlots, heapSquaredDistances, count);
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 Finds the points of the tree close enough to the given point.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the indices, in the source list, of the points found. If it is too small, the
+	 extra points are counted but not stored.
+	 @return The number of points within the given range of the given point.
+	 */
+	@Override
+	public int rangeSearch(Point3F targetPoint, float squaredRange, int[] result)
+	{
+		return rangeSearch(0, indices.length, 0, targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, result, null, 0);
+	}
+
+	/**
+	 Finds the points of the tree close enough to the given point, and streams them to a consumer.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @param consumer The consumer receiving the indices, in the source list, of the points found.
+	 @return The number of points within the given range of the given point.
+	 */
+	@Override
+	public int rangeSearch(Point3F targetPoint, float squaredRange, IntConsumer consumer)
+	{
+		return rangeSearch(0, indices.length, 0, targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, null, consumer, 0);
+	}
+
+	/**
+	 Counts the points of the tree close enough to the given point, without gathering them.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @return The number of points within the given range of the given point.
+	 */
+	@Override
+	public int rangeCount(Point3F targetPoint, float squaredRange)
+	{
+		return rangeSearch(0, indices.length, 0, targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, null, null, 0);
+	}
+
+	/**
+	 Recursively finds the points close enough to the target, within the given range of slots.
+
+	 @param lo The first slot of the range, inclusive.
+	 @param hi The last slot of the range, exclusive.
+	 @param splitCoordinate The coordinate on which this range splits.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the indices found, or null.
+	 @param consumer The consumer receiving the indices found, or null.
+	 @param count The number of points found so far.
+	 @return The number of points found so far, including this range.
+	 */
+	private int rangeSearch(int lo, int hi, int splitCoordinate, float x, float y, float z, float squaredRange, int[] result, IntConsumer consumer, int count)
+	{
+		while (hi - lo > bucketSize)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (squaredDistance(mid, x, y, z) < squaredRange)
+			{
+				count = accept(mid, result, consumer, count);
+			}
+
+			float distanceToSplit = distanceToSplit(mid, splitCoordinate, x, y, z);
+			int nextCoordinate = (splitCoordinate + 1) % dimensions;
+			boolean bothSides = distanceToSplit * distanceToSplit < squaredRange;
+
+			// Recurse into the left side if needed, and loop on the right one if needed.
+			if (distanceToSplit < 0 || bothSides)
+			{
+				count = rangeSearch(lo, mid, nextCoordinate, x, y, z, squaredRange, result, consumer, count);
+			}
+			if (distanceToSplit < 0 && !bothSides)
+			{
+				break;
+			}
+			lo = mid + 1;
+			splitCoordinate = nextCoordinate;
+		}
+
+		if (hi - lo <= bucketSize)
+		{
+			count = rangeSearchInBucket(lo, hi, x, y, z, squaredRange, result, consumer, count);
+		}
+
+		return count;
+	}
+
+	/**
+	 Scans a leaf bucket for the points close enough to the target. When only counting, the loop is branchless so that
+	 the JIT can vectorise it.
+
+	 @param lo The first slot of the bucket, inclusive.
+	 @param hi The last slot of the bucket, exclusive.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the indices found, or null.
+	 @param consumer The consumer receiving the indices found, or null.
+	 @param count The number of points found so far.
+	 @return The number of points found so far, including this bucket.
+	 */
+	private int rangeSearchInBucket(int lo, int hi, float x, float y, float z, float squaredRange, int[] result, IntConsumer consumer, int count)
+	{
+		float[] xs = coordinates[0];
+		float[] ys = coordinates[1];
+		float[] zs = coordinates[2];
+
+		if (result == null && consumer == null)
+		{
+			for (int i = lo; i < hi; i++)
+			{
+				float dx = xs[i] - x;
+				float dy = ys[i] - y;
+				float dz = zs[i] - z;
+				count += dx * dx + dy * dy + dz * dz < squaredRange ? 1 : 0;
+			}
+			return count;
+		}
+
+		for (int i = lo; i < hi; i++)
+		{
+			if (squaredDistance(i, x, y, z) < squaredRange)
+			{
+				count = accept(i, result, consumer, count);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 Finds the points of the tree within the given axis-aligned box, bounds included.
+
+	 @param min The lower corner of the box.
+	 @param max The upper corner of the box.
+	 @param result The buffer receiving the indices, in the source list, of the points found. If it is too small, the
+	 extra points are counted but not stored.
+	 @return The number of points within the box.
+	 */
+	public int boxSearch(Point3F min, Point3F max, int[] result)
+	{
+		return boxSearch(0, indices.length, 0, min, max, result, null, 0);
+	}
+
+	/**
+	 Finds the points of the tree within the given axis-aligned box, bounds included, and streams them to a consumer.
+
+	 @param min The lower corner of the box.
+	 @param max The upper corner of the box.
+	 @param consumer The consumer receiving the indices, in the source list, of the points found.
+	 @return The number of points within the box.
+	 */
+	public int boxSearch(Point3F min, Point3F max, IntConsumer consumer)
+	{
+		return boxSearch(0, indices.length, 0, min, max, null, consumer, 0);
+	}
+
+	/**
+	 Counts the points of the tree within the given axis-aligned box, bounds included, without gathering them.
+
+	 @param min The lower corner of the box.
+	 @param max The upper corner of the box.
+	 @return The number of points within the box.
+	 */
+	public int boxCount(Point3F min, Point3F max)
+	{
+		return boxSearch(0, indices.length, 0, min, max, null, null, 0);
+	}
+
+	/**
+	 Recursively finds the points within the given box, within the given range of slots.
+
+	 @param lo The first slot of the range, inclusive.
+	 @param hi The last slot of the range, exclusive.
+	 @param splitCoordinate The coordinate on which this range splits.
+	 @param min The lower corner of the box.
+	 @param max The upper corner of the box.
+	 @param result The buffer receiving the indices found, or null.
+	 @param consumer The consumer receiving the indices found, or null.
+	 @param count The number of points found so far.
+	 @return The number of points found so far, including this range.
+	 */
+	private int boxSearch(int lo, int hi, int splitCoordinate, Point3F min, Point3F max, int[] result, IntConsumer consumer, int count)
+	{
+		float[] xs = coordinates[0];
+		float[] ys = coordinates[1];
+		float[] zs = coordinates[2];
+
+		while (hi - lo > bucketSize)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (xs[mid] >= min.x && xs[mid] <= max.x
+					&& ys[mid] >= min.y && ys[mid] <= max.y
+					&& zs[mid] >= min.z && zs[mid] <= max.z)
+			{
+				count = accept(mid, result, consumer, count);
+			}
+
+			// The left side holds values lesser or equal to the node's, the right side greater or equal ones.
+			float value = coordinates[splitCoordinate][mid];
+			float lowerBound = splitCoordinate == 0 ? min.x : splitCoordinate == 1 ? min.y : min.z;
+			float upperBound = splitCoordinate == 0 ? max.x : splitCoordinate == 1 ? max.y : max.z;
+			int nextCoordinate = (splitCoordinate + 1) % dimensions;
+
+			if (lowerBound <= value)
+			{
+				count = boxSearch(lo, mid, nextCoordinate, min, max, result, consumer, count);
+			}
+			if (upperBound < value)
+			{
+				break;
+			}
+			lo = mid + 1;
+			splitCoordinate = nextCoordinate;
+		}
+
+		if (hi - lo <= bucketSize)
+		{
+			for (int i = lo; i < hi; i++)
+			{
+				if (xs[i] >= min.x && xs[i] <= max.x
+						&& ys[i] >= min.y && ys[i] <= max.y
+						&& zs[i] >= min.z && zs[i] <= max.z)
+				{
+					count = accept(i, result, consumer, count);
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 Hands a found slot to the buffer and the consumer, whichever are present.
+
+	 @param slot The slot found.
+	 @param result The buffer receiving the indices found, or null.
+	 @param consumer The consumer receiving the indices found, or null.
+	 @param count The number of points found so far.
+	 @return The number of points found, including this one.
+	 */
+	private int accept(int slot, int[] result, IntConsumer consumer, int count)
+	{
+		if (result != null && count < result.length)
+		{
+			result[count] = indices[slot];
+		}
+		if (consumer != null)
+		{
+			consumer.accept(indices[slot]);
+		}
+		return count + 1;
+	}
+}
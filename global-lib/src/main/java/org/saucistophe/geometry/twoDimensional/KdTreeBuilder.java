@@ -0,0 +1,340 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ Builds KD-trees in O(n log n), by partitioning primitive coordinate arrays in place around their median
+ (quickselect) instead of sorting every level. Above a size threshold, both subtrees can be built in parallel on
+ the common fork/join pool.
+ */
+final class KdTreeBuilder
+{
+	/**
+	 The number of points under which a subtree is always built sequentially, since forking would cost more than it
+	 saves.
+	 */
+	static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	private KdTreeBuilder()
+	{
+	}
+
+	/**
+	 Copies the given points into primitive arrays.
+
+	 @param points The points to copy.
+	 @param coordinates The arrays receiving the coordinates, one per coordinate (x, y, z).
+	 @param indices The array receiving the identity permutation.
+	 @return The number of coordinates to consider when splitting: 2, or 3 if the Zs are not constant.
+	 */
+	static int copyPoints(List<? extends Point3F> points, float[][] coordinates, int[] indices)
+	{
+		boolean considerZs = false;
+		for (int i = 0; i < indices.length; i++)
+		{
+			Point3F point = points.get(i);
+			coordinates[0][i] = point.x;
+			coordinates[1][i] = point.y;
+			coordinates[2][i] = point.z;
+			indices[i] = i;
+
+			if (point.z != coordinates[2][0])
+			{
+				considerZs = true;
+			}
+		}
+
+		return considerZs ? 3 : 2;
+	}
+
+	/**
+	 Moves the k-th smallest value of the given coordinate to slot k, with smaller or equal values before it and greater
+	 or equal ones after it (Hoare's selection).
+
+	 @param coordinates The coordinates to reorder.
+	 @param indices The source indices to reorder alongside.
+	 @param left The first slot of the range, inclusive.
+	 @param right The last slot of the range, inclusive.
+	 @param k The slot to settle.
+	 @param splitCoordinate The coordinate to compare.
+	 */
+	static void select(float[][] coordinates, int[] indices, int left, int right, int k, int splitCoordinate)
+	{
+		float[] values = coordinates[splitCoordinate];
+		while (left < right)
+		{
+			// Use the median of three as a pivot, to avoid degenerate cases on presorted inputs.
+			int mid = (left + right) >>> 1;
+			float a = values[left], b = values[mid], c = values[right];
+			float pivot = a < b ? (b < c ? b : (a < c ? c : a)) : (a < c ? a : (b < c ? c : b));
+
+			int i = left;
+			int j = right;
+			while (i <= j)
+			{
+				while (values[i] < pivot)
+				{
+					i++;
+				}
+				while (values[j] > pivot)
+				{
+					j--;
+				}
+				if (i <= j)
+				{
+					swap(coordinates, indices, i, j);
+					i++;
+					j--;
+				}
+			}
+
+			if (k <= j)
+			{
+				right = j;
+			} else if (k >= i)
+			{
+				left = i;
+			} else
+			{
+				return;
+			}
+		}
+	}
+
+	/**
+	 Swaps two slots.
+
+	 @param coordinates The coordinates to swap.
+	 @param indices The source indices to swap.
+	 @param i The first slot.
+	 @param j The second slot.
+	 */
+	private static void swap(float[][] coordinates, int[] indices, int i, int j)
+	{
+		for (float[] values : coordinates)
+		{
+			float value = values[i];
+			values[i] = values[j];
+			values[j] = value;
+		}
+
+		int index = indices[i];
+		indices[i] = indices[j];
+		indices[j] = index;
+	}
+
+	/**
+	 Runs the given task, on the common pool if parallelism is wanted and worth it, in the current thread otherwise.
+
+	 @param task The task to run.
+	 @param size The number of points the task handles.
+	 @param parallel True if the task may run in parallel.
+	 @return The result of the task.
+	 */
+	static <T> T run(ForkJoinTask<T> task, int size, boolean parallel)
+	{
+		if (parallel && size > PARALLEL_THRESHOLD)
+		{
+			return ForkJoinPool.commonPool().invoke(task);
+		}
+		return task.invoke();
+	}
+
+	/**
+	 A task reordering a slot range of flat arrays so that it forms a tree, as described in FlatKdTree.
+	 */
+	static class FlatLayoutTask extends RecursiveAction
+	{
+		private final float[][] coordinates;
+		private final int[] indices;
+		private final int lo;
+		private final int hi;
+		private final int splitCoordinate;
+		private final int dimensions;
+		private final int bucketSize;
+		private final boolean parallel;
+
+		/**
+		 @param coordinates The coordinates to reorder.
+		 @param indices The source indices to reorder alongside.
+		 @param lo The first slot of the range, inclusive.
+		 @param hi The last slot of the range, exclusive.
+		 @param splitCoordinate The coordinate on which to split this range.
+		 @param dimensions The number of coordinates considered.
+		 @param bucketSize The size under which ranges are left as leaf buckets.
+		 @param parallel True if the subtrees may be built in parallel.
+		 */
+		FlatLayoutTask(float[][] coordinates, int[] indices, int lo, int hi, int splitCoordinate, int dimensions, int bucketSize, boolean parallel)
+		{
+			this.coordinates = coordinates;
+			this.indices = indices;
+			this.lo = lo;
+			this.hi = hi;
+			this.splitCoordinate = splitCoordinate;
+			this.dimensions = dimensions;
+			this.bucketSize = bucketSize;
+			this.parallel = parallel;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (!parallel || hi - lo <= PARALLEL_THRESHOLD)
+			{
+				layout(coordinates, indices, lo, hi, splitCoordinate, dimensions, bucketSize);
+				return;
+			}
+
+			int mid = (lo + hi) >>> 1;
+			select(coordinates, indices, lo, hi - 1, mid, splitCoordinate);
+
+			int nextCoordinate = (splitCoordinate + 1) % dimensions;
+			invokeAll(new FlatLayoutTask(coordinates, indices, lo, mid, nextCoordinate, dimensions, bucketSize, true),
+					new FlatLayoutTask(coordinates, indices, mid + 1, hi, nextCoordinate, dimensions, bucketSize, true));
+		}
+
+		/**
+		 Sequentially reorders the given slot range so that it forms a tree.
+
+		 @param coordinates The coordinates to reorder.
+		 @param indices The source indices to reorder alongside.
+		 @param lo The first slot of the range, inclusive.
+		 @param hi The last slot of the range, exclusive.
+		 @param splitCoordinate The coordinate on which to split this range.
+		 @param dimensions The number of coordinates considered.
+		 @param bucketSize The size under which ranges are left as leaf buckets.
+		 */
+		private static void layout(float[][] coordinates, int[] indices, int lo, int hi, int splitCoordinate, int dimensions, int bucketSize)
+		{
+			while (hi - lo > bucketSize)
+			{
+				int mid = (lo + hi) >>> 1;
+				select(coordinates, indices, lo, hi - 1, mid, splitCoordinate);
+
+				int nextCoordinate = (splitCoordinate + 1) % dimensions;
+				layout(coordinates, indices, lo, mid, nextCoordinate, dimensions, bucketSize);
+
+				// Loop on the right side rather than recursing.
+				lo = mid + 1;
+				splitCoordinate = nextCoordinate;
+			}
+		}
+	}
+
+	/**
+	 A task building a linked KdTreeNode out of a slot range, with the same medians and halves as
+	 KdTreeNode.buildTree(int, List, boolean) would get by sorting.
+	 */
+	static class NodeBuildTask extends RecursiveTask<KdTreeNode>
+	{
+		private final List<? extends Point3F> points;
+		private final float[][] coordinates;
+		private final int[] indices;
+		private final int lo;
+		private final int hi;
+		private final int splitCoordinate;
+		private final int dimensions;
+		private final boolean parallel;
+
+		/**
+		 @param points The source points, referenced by the leaves.
+		 @param coordinates The coordinates to reorder.
+		 @param indices The source indices to reorder alongside.
+		 @param lo The first slot of the range, inclusive.
+		 @param hi The last slot of the range, exclusive.
+		 @param splitCoordinate The coordinate on which to split this range.
+		 @param dimensions The number of coordinates considered.
+		 @param parallel True if the subtrees may be built in parallel.
+		 */
+		NodeBuildTask(List<? extends Point3F> points, float[][] coordinates, int[] indices, int lo, int hi, int splitCoordinate, int dimensions, boolean parallel)
+		{
+			this.points = points;
+			this.coordinates = coordinates;
+			this.indices = indices;
+			this.lo = lo;
+			this.hi = hi;
+			this.splitCoordinate = splitCoordinate;
+			this.dimensions = dimensions;
+			this.parallel = parallel;
+		}
+
+		@Override
+		protected KdTreeNode compute()
+		{
+			return build(lo, hi, splitCoordinate);
+		}
+
+		/**
+		 Recursively builds the tree of a slot range.
+
+		 @param lo The first slot of the range, inclusive.
+		 @param hi The last slot of the range, exclusive.
+		 @param splitCoordinate The coordinate on which to split this range.
+		 @return The root node of the range, or null if it is empty.
+		 */
+		private KdTreeNode build(int lo, int hi, int splitCoordinate)
+		{
+			// If there is no point left, bail out.
+			if (lo >= hi)
+			{
+				return null;
+			}
+
+			KdTreeNode result = new KdTreeNode();
+
+			// If only one point is left, it's a leaf.
+			if (hi - lo == 1)
+			{
+				result.leafPoint = points.get(indices[lo]);
+				return result;
+			}
+
+			// Put the upper middle point in place; the lower half ends up before it.
+			int size = hi - lo;
+			int middle = lo + size / 2;
+			select(coordinates, indices, lo, hi - 1, middle, splitCoordinate);
+
+			float[] values = coordinates[splitCoordinate];
+			if (size % 2 == 1)
+			{
+				result.medianValue = values[middle];
+			} else
+			{
+				// The lower middle value is the biggest of the lower half.
+				float lowerValue = values[lo];
+				for (int i = lo + 1; i < middle; i++)
+				{
+					lowerValue = Math.max(lowerValue, values[i]);
+				}
+				result.medianValue = (lowerValue + values[middle]) / 2;
+			}
+
+			result.splitCoordinate = splitCoordinate;
+			int nextCoordinate = (splitCoordinate + 1) % dimensions;
+
+			// Create the subtrees with points below and above the median.
+			if (parallel && size > PARALLEL_THRESHOLD)
+			{
+				NodeBuildTask leftTask = new NodeBuildTask(points, coordinates, indices, lo, middle, nextCoordinate, dimensions, true);
+				leftTask.fork();
+				result.rightSubTree = build(middle, hi, nextCoordinate);
+				result.leftSubTree = leftTask.join();
+			} else
+			{
+				result.leftSubTree = build(lo, middle, nextCoordinate);
+				result.rightSubTree = build(middle, hi, nextCoordinate);
+			}
+
+			// Save the parent as such.
+			result.leftSubTree.parent = result;
+			result.rightSubTree.parent = result;
+
+			return result;
+		}
+	}
+}
@@ -1,7 +1,10 @@
 package org.saucistophe.geometry.twoDimensional;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.saucistophe.geometry.threeDimensional.Point3F;
@@ -45,27 +48,42 @@ public class KdTreeNode
 	/**
 	 Recursively builds a KD tree out of the given points.
 
-	 @param points The points to represent in this tree.
+	 @param points The points to represent in this tree, at least one.
 	 @return The root node of the resulting tree.
+	 @throws IllegalArgumentException If there is no point.
 	 */
 	public static KdTreeNode buildTree(List<? extends Point3F> points)
 	{
-		// First check if the z-coordinate is relevant.
-		boolean considerZs = false;
-		float initialZ = points.get(0).z;
-		for (Point3F point : points)
+		return buildTree(points, false);
+	}
+
+	/**
+	 Builds a KD tree out of the given points in O(n log n), by selecting the medians in place over primitive copies of
+	 the coordinates. The resulting tree is the same as the one built by sorting.
+
+	 @param points The points to represent in this tree, at least one.
+	 @param parallel True to build big subtrees in parallel, on the common fork/join pool.
+	 @return The root node of the resulting tree.
+	 @throws IllegalArgumentException If there is no point.
+	 */
+	public static KdTreeNode buildTree(List<? extends Point3F> points, boolean parallel)
+	{
+		if (points.isEmpty())
 		{
-			if (point.z != initialZ)
-			{
-				considerZs = true;
-			}
+			throw new IllegalArgumentException("A KD tree needs at least one point");
 		}
 
-		return buildTree(0, points, considerZs);
+		int size = points.size();
+		float[][] coordinates = new float[3][size];
+		int[] indices = new int[size];
+		int dimensions = KdTreeBuilder.copyPoints(points, coordinates, indices);
+
+		return KdTreeBuilder.run(new KdTreeBuilder.NodeBuildTask(points, coordinates, indices, 0, size, 0, dimensions, parallel), size, parallel);
 	}
 
 	/**
-	 Recursively builds a KD tree out of the given points.
+	 Recursively builds a KD tree out of the given points, by sorting them at every level. Kept as a reference for
+	 buildTree(List, boolean), which builds the same tree faster.
 
 	 @param splitCoordinate The coordinate on which to split. If 0, x, 1 y and 2 z.
 	 @param points The points to represent in this tree.
@@ -241,6 +259,94 @@ public class KdTreeNode
 		return bestPoint;
 	}
 
+	/**
+	 Finds the k points of the tree closest to the given point.
+
+	 @param targetPoint The targeted point.
+	 @param k The number of neighbours wanted, strictly positive.
+	 @return The k closest points, by increasing distance; fewer if the tree is smaller.
+	 */
+	public List<Point3F> kNearest(Point3F targetPoint, int k)
+	{
+		if (k <= 0)
+		{
+			throw new IllegalArgumentException("Non positive number of neighbours: " + k);
+		}
+
+		Comparator<Point3F> byDistance = Comparator.comparingDouble(p -> p.squaredDistanceTo(targetPoint));
+
+		// Keep the k best candidates in a max-heap, so that the worst one can be dismissed at once. The node does not know
+		// the size of its tree, so the heap grows as needed rather than being sized for k.
+		PriorityQueue<Point3F> heap = new PriorityQueue<>(Math.min(k, 64), byDistance.reversed());
+		findNearestPoints(targetPoint, k, heap);
+
+		List<Point3F> result = new ArrayList<>(heap);
+		result.sort(byDistance);
+		return result;
+	}
+
+	/**
+	 Recursively gathers the points closest to the target into a bounded max-heap.
+
+	 @param targetPoint The targeted point.
+	 @param k The capacity of the heap.
+	 @param heap The heap of the best candidates so far, farthest first.
+	 */
+	private void findNearestPoints(Point3F targetPoint, int k, PriorityQueue<Point3F> heap)
+	{
+		// If we're at a leaf, keep the point if it beats the farthest candidate.
+		if (leafPoint != null)
+		{
+			if (heap.size() < k)
+			{
+				heap.add(leafPoint);
+			} else if (leafPoint.squaredDistanceTo(targetPoint) < heap.peek().squaredDistanceTo(targetPoint))
+			{
+				heap.poll();
+				heap.add(leafPoint);
+			}
+			return;
+		}
+
+		// Descend into the side of the target first, then into the other if it may hide closer points.
+		boolean leftIsBest = isOnLeftSide(targetPoint);
+		(leftIsBest ? leftSubTree : rightSubTree).findNearestPoints(targetPoint, k, heap);
+
+		float distanceToMedian = distanceToMedian(targetPoint);
+		if (heap.size() < k || distanceToMedian * distanceToMedian < heap.peek().squaredDistanceTo(targetPoint))
+		{
+			(leftIsBest ? rightSubTree : leftSubTree).findNearestPoints(targetPoint, k, heap);
+		}
+	}
+
+	/**
+	 @param targetPoint The targeted point.
+	 @return True if the given point lies on the left side of this node's median.
+	 */
+	private boolean isOnLeftSide(Point3F targetPoint)
+	{
+		return splitCoordinate == 0 && targetPoint.x < medianValue
+				|| splitCoordinate == 1 && targetPoint.y < medianValue
+				|| splitCoordinate == 2 && targetPoint.z < medianValue;
+	}
+
+	/**
+	 @param targetPoint The targeted point.
+	 @return The signed distance from this node's median to the given point, along the split coordinate.
+	 */
+	private float distanceToMedian(Point3F targetPoint)
+	{
+		switch (splitCoordinate)
+		{
+			case 0:
+				return targetPoint.x - medianValue;
+			case 1:
+				return targetPoint.y - medianValue;
+			default:
+				return targetPoint.z - medianValue;
+		}
+	}
+
 	/**
 	 Finds the points of the tree close enough to the given point.
 
@@ -251,62 +357,110 @@ public class KdTreeNode
 	public List<Point3F> rangeSearch(Point3F targetPoint, float squaredRange)
 	{
 		List<Point3F> result = new ArrayList<>();
+		rangeSearch(targetPoint, squaredRange, result::add);
+		return result;
+	}
+
+	/**
+	 Finds the points of the tree close enough to the given point, and streams them to a consumer.
 
-		// If we're at a leaf, return the point if it's OK.
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @param consumer The consumer receiving the points found, or null to only count them.
+	 @return The number of points within the given range of the given point.
+	 */
+	public int rangeSearch(Point3F targetPoint, float squaredRange, Consumer<? super Point3F> consumer)
+	{
+		// If we're at a leaf, accept the point if it's OK.
 		if (leafPoint != null)
 		{
 			assert (leftSubTree == null && rightSubTree == null);
 			if (leafPoint.squaredDistanceTo(targetPoint) < squaredRange)
 			{
-				result.add(leafPoint);
+				if (consumer != null)
+				{
+					consumer.accept(leafPoint);
+				}
+				return 1;
 			}
-			return result;
+			return 0;
 		}
 
 		// If it's not a leaf, descend into the correct side, and the other if candidate.
-		// TODO to a function, and use it in this whole file.
-		boolean leftIsBest = (splitCoordinate == 0 && targetPoint.x < medianValue
-				|| splitCoordinate == 1 && targetPoint.y < medianValue
-				|| splitCoordinate == 2 && targetPoint.z < medianValue);
+		boolean leftIsBest = isOnLeftSide(targetPoint);
+		int count = (leftIsBest ? leftSubTree : rightSubTree).rangeSearch(targetPoint, squaredRange, consumer);
 
-		if (leftIsBest)
+		float distanceToMedian = distanceToMedian(targetPoint);
+		if (distanceToMedian * distanceToMedian < squaredRange)
 		{
-			result.addAll(leftSubTree.rangeSearch(targetPoint, squaredRange));
-		} else
-		{
-			result.addAll(rightSubTree.rangeSearch(targetPoint, squaredRange));
+			count += (leftIsBest ? rightSubTree : leftSubTree).rangeSearch(targetPoint, squaredRange, consumer);
 		}
 
-		float squaredDistanceToMedian;
-		switch (splitCoordinate)
-		{
-			case 0:
-				squaredDistanceToMedian = targetPoint.x - medianValue;
-				break;
-			case 1:
-				squaredDistanceToMedian = targetPoint.y - medianValue;
-				break;
-			case 2:
-				squaredDistanceToMedian = targetPoint.z - medianValue;
-				break;
-			default:
-				squaredDistanceToMedian = 0f;
-		}
-		squaredDistanceToMedian *= squaredDistanceToMedian;
+		return count;
+	}
 
-		if (squaredDistanceToMedian < squaredRange)
+	/**
+	 Counts the points of the tree close enough to the given point, without gathering them.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @return The number of points within the given range of the given point.
+	 */
+	public int rangeCount(Point3F targetPoint, float squaredRange)
+	{
+		return rangeSearch(targetPoint, squaredRange, null);
+	}
+
+	/**
+	 Finds the points of the tree within the given axis-aligned box, bounds included, and streams them to a consumer.
+
+	 @param min The lower corner of the box.
+	 @param max The upper corner of the box.
+	 @param consumer The consumer receiving the points found, or null to only count them.
+	 @return The number of points within the box.
+	 */
+	public int boxSearch(Point3F min, Point3F max, Consumer<? super Point3F> consumer)
+	{
+		// If we're at a leaf, accept the point if it's OK.
+		if (leafPoint != null)
 		{
-			if (leftIsBest)
-			{
-				result.addAll(rightSubTree.rangeSearch(targetPoint, squaredRange));
-			} else
+			if (leafPoint.x >= min.x && leafPoint.x <= max.x
+					&& leafPoint.y >= min.y && leafPoint.y <= max.y
+					&& leafPoint.z >= min.z && leafPoint.z <= max.z)
 			{
-				result.addAll(leftSubTree.rangeSearch(targetPoint, squaredRange));
+				if (consumer != null)
+				{
+					consumer.accept(leafPoint);
+				}
+				return 1;
 			}
+			return 0;
 		}
 
-		return result;
+		// The left subtree holds values lesser or equal to the median, the right one greater or equal ones.
+		int count = 0;
+		if (distanceToMedian(min) <= 0)
+		{
+			count += leftSubTree.boxSearch(min, max, consumer);
+		}
+		if (distanceToMedian(max) >= 0)
+		{
+			count += rightSubTree.boxSearch(min, max, consumer);
+		}
 
+		return count;
+	}
+
+	/**
+	 Counts the points of the tree within the given axis-aligned box, bounds included, without gathering them.
+
+	 @param min The lower corner of the box.
+	 @param max The upper corner of the box.
+	 @return The number of points within the box.
+	 */
+	public int boxCount(Point3F min, Point3F max)
+	{
+		return boxSearch(min, max, null);
 	}
 
 	/**
@@ -0,0 +1,108 @@
+package org.saucistophe.geometry.twoDimensional;
+
+/**
+ A bounded max-heap of (squared distance, index) pairs, stored in caller-supplied parallel arrays so that k-nearest
+ queries allocate nothing. The farthest neighbour kept so far is always at position 0.
+ */
+final class NeighbourHeap
+{
+	private NeighbourHeap()
+	{
+	}
+
+	/**
+	 Offers a candidate to the heap. It is kept if the heap is not full yet, or if it is closer than the farthest
+	 neighbour kept, which it then replaces.
+
+	 @param squaredDistances The heap's keys.
+	 @param indices The heap's values.
+	 @param size The current size of the heap.
+	 @param capacity The maximum size of the heap.
+	 @param squaredDistance The candidate's squared distance.
+	 @param index The candidate's index.
+	 @return The new size of the heap.
+	 */
+	static int offer(float[] squaredDistances, int[] indices, int size, int capacity, float squaredDistance, int index)
+	{
+		if (size < capacity)
+		{
+			// Append the candidate, and sift it up.
+			int child = size;
+			while (child > 0)
+			{
+				int parent = (child - 1) >>> 1;
+				if (squaredDistances[parent] >= squaredDistance)
+				{
+					break;
+				}
+				squaredDistances[child] = squaredDistances[parent];
+				indices[child] = indices[parent];
+				child = parent;
+			}
+			squaredDistances[child] = squaredDistance;
+			indices[child] = index;
+			return size + 1;
+		}
+
+		if (capacity > 0 && squaredDistance < squaredDistances[0])
+		{
+			siftDown(squaredDistances, indices, size, squaredDistance, index);
+		}
+		return size;
+	}
+
+	/**
+	 Replaces the root of the heap with the given pair, and sifts it down to its place.
+
+	 @param squaredDistances The heap's keys.
+	 @param indices The heap's values.
+	 @param size The current size of the heap.
+	 @param squaredDistance The new pair's squared distance.
+	 @param index The new pair's index.
+	 */
+	private static void siftDown(float[] squaredDistances, int[] indices, int size, float squaredDistance, int index)
+	{
+		int parent = 0;
+		while (true)
+		{
+			int child = 2 * parent + 1;
+			if (child >= size)
+			{
+				break;
+			}
+			if (child + 1 < size && squaredDistances[child + 1] > squaredDistances[child])
+			{
+				child++;
+			}
+			if (squaredDistances[child] <= squaredDistance)
+			{
+				break;
+			}
+			squaredDistances[parent] = squaredDistances[child];
+			indices[parent] = indices[child];
+			parent = child;
+		}
+		squaredDistances[parent] = squaredDistance;
+		indices[parent] = index;
+	}
+
+	/**
+	 Sorts the heap in place, by increasing distance. The arrays are no longer a heap afterwards.
+
+	 @param squaredDistances The heap's keys.
+	 @param indices The heap's values.
+	 @param size The current size of the heap.
+	 */
+	static void sort(float[] squaredDistances, int[] indices, int size)
+	{
+		for (int last = size - 1; last > 0; last--)
+		{
+			// Move the farthest neighbour at the end, and restore the heap on the remaining ones.
+			float squaredDistance = squaredDistances[last];
+			int index = indices[last];
+			squaredDistances[last] = squaredDistances[0];
+			indices[last] = indices[0];
+			siftDown(squaredDistances, indices, last, squaredDistance, index);
+		}
+	}
+}
@@ -0,0 +1,465 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ An immutable uniform grid over a list of points, keyed by cell coordinates. It is built in linear time, by counting
+ sort of the points into their cells, and is faster than a KD-tree on roughly uniform point clouds.
+ The grid covers the bounding box of the points; it is planar if all Zs are equal, and has layers of cells otherwise.
+ The coordinates are stored by cell, in primitive arrays, and queries return indices into the source list without
+ allocating anything.
+ */
+public class SpatialGrid implements SpatialIndex
+{
+	/**
+	 The average number of points per cell aimed for when the cell size is chosen automatically.
+	 */
+	private static final double POINTS_PER_CELL = 2;
+
+	/**
+	 The maximum number of cells per point. Bigger grids get their cell size enlarged, to bound their memory use.
+	 */
+	private static final long MAX_CELLS_PER_POINT = 4;
+
+	/**
+	 The coordinates of the points, sorted by cell.
+	 */
+	private final float[] xs;
+	private final float[] ys;
+	private final float[] zs;
+
+	/**
+	 For each sorted point, its index in the source list.
+	 */
+	private final int[] indices;
+
+	/**
+	 For each cell, the position of its first point in the sorted arrays. The last value is the number of points.
+	 */
+	private final int[] cellStarts;
+
+	/**
+	 The lower corner of the grid.
+	 */
+	private final float minX;
+	private final float minY;
+	private final float minZ;
+
+	/**
+	 The size of a cell's side, and its inverse.
+	 */
+	private final float cellSize;
+	private final float inverseCellSize;
+
+	/**
+	 The number of cells along x, y and z.
+	 */
+	private final int columns;
+	private final int rows;
+	private final int layers;
+
+	/**
+	 Builds a grid, sorting the given coordinates by cell.
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @param zs The points' zs.
+	 @param cellSize The size of a cell's side, or 0 to choose it from the points' density.
+	 */
+	private SpatialGrid(float[] xs, float[] ys, float[] zs, float cellSize)
+	{
+		int size = xs.length;
+
+		// Compute the bounding box.
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++)
+		{
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			minZ = Math.min(minZ, zs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+			maxZ = Math.max(maxZ, zs[i]);
+		}
+		if (size == 0)
+		{
+			minX = minY = minZ = maxX = maxY = maxZ = 0;
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+
+		// Choose the cell size if needed, so that cells hold a few points each.
+		int dimensions = maxZ > minZ ? 3 : 2;
+		float maxExtent = Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+		if (cellSize <= 0)
+		{
+			double cellsPerSide = Math.max(1, Math.ceil(Math.pow(size / POINTS_PER_CELL, 1.0 / dimensions)));
+			cellSize = (float) (maxExtent / cellsPerSide);
+		}
+		if (!(cellSize > 0))
+		{
+			cellSize = 1;
+		}
+
+		// Enlarge the cells if there would be too many of them.
+		while (cellCount(maxX - minX, cellSize) * cellCount(maxY - minY, cellSize) * cellCount(maxZ - minZ, cellSize) > MAX_CELLS_PER_POINT * size + 1)
+		{
+			cellSize *= 2;
+		}
+		this.cellSize = cellSize;
+		inverseCellSize = 1 / cellSize;
+		columns = (int) cellCount(maxX - minX, cellSize);
+		rows = (int) cellCount(maxY - minY, cellSize);
+		layers = (int) cellCount(maxZ - minZ, cellSize);
+
+		// Count the points of each cell, shifted by one so that the prefix sum gives the starts.
+		cellStarts = new int[columns * rows * layers + 1];
+		int[] cells = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			cells[i] = cellOf(xs[i], ys[i], zs[i]);
+			cellStarts[cells[i] + 1]++;
+		}
+		for (int cell = 1; cell < cellStarts.length; cell++)
+		{
+			cellStarts[cell] += cellStarts[cell - 1];
+		}
+
+		// Place the points, using the counts as cursors, then shift them back to the starts.
+		this.xs = new float[size];
+		this.ys = new float[size];
+		this.zs = new float[size];
+		indices = new int[size];
+		for (int i = 0; i < size; i++)
+		{
+			int position = cellStarts[cells[i]]++;
+			this.xs[position] = xs[i];
+			this.ys[position] = ys[i];
+			this.zs[position] = zs[i];
+			indices[position] = i;
+		}
+		System.arraycopy(cellStarts, 0, cellStarts, 1, cellStarts.length - 1);
+		cellStarts[0] = 0;
+	}
+
+	/**
+	 @param extent The extent of the points along an axis.
+	 @param cellSize The size of a cell's side.
+	 @return The number of cells needed along that axis.
+	 */
+	private static long cellCount(float extent, float cellSize)
+	{
+		return (long) (extent / cellSize) + 1;
+	}
+
+	/**
+	 Builds a grid out of the given points, with a cell size chosen from their density.
+
+	 @param points The points to represent in this grid.
+	 @return The resulting grid.
+	 */
+	public static SpatialGrid buildGrid(List<? extends Point3F> points)
+	{
+		return buildGrid(points, 0);
+	}
+
+	/**
+	 Builds a grid out of the given points. The points are copied, so later changes to them are not reflected.
+
+	 @param points The points to represent in this grid.
+	 @param cellSize The size of a cell's side, typically the usual search range; or 0 to choose it from the points'
+	 density. It is enlarged if the grid would hold more than 4 cells per point.
+	 @return The resulting grid.
+	 */
+	public static SpatialGrid buildGrid(List<? extends Point3F> points, float cellSize)
+	{
+		int size = points.size();
+		float[] xs = new float[size];
+		float[] ys = new float[size];
+		float[] zs = new float[size];
+		for (int i = 0; i < size; i++)
+		{
+			Point3F point = points.get(i);
+			xs[i] = point.x;
+			ys[i] = point.y;
+			zs[i] = point.z;
+		}
+
+		return new SpatialGrid(xs, ys, zs, cellSize);
+	}
+
+	/**
+	 Builds a planar grid out of the given points; queries must then use a Z of 0.
+
+	 @param points The points to represent in this grid.
+	 @param cellSize The size of a cell's side, or 0 to choose it from the points' density.
+	 @return The resulting grid.
+	 */
+	public static SpatialGrid buildPlanarGrid(List<? extends Point2F> points, float cellSize)
+	{
+		int size = points.size();
+		float[] xs = new float[size];
+		float[] ys = new float[size];
+		for (int i = 0; i < size; i++)
+		{
+			Point2F point = points.get(i);
+			xs[i] = point.x;
+			ys[i] = point.y;
+		}
+
+		return new SpatialGrid(xs, ys, new float[size], cellSize);
+	}
+
+	/**
+	 Builds a grid out of the given coordinates. The arrays are copied.
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @param zs The points' zs, or null if they are all 0.
+	 @param cellSize The size of a cell's side, or 0 to choose it from the points' density.
+	 @return The resulting grid.
+	 */
+	public static SpatialGrid buildGrid(float[] xs, float[] ys, float[] zs, float cellSize)
+	{
+		assert (xs.length == ys.length && (zs == null || zs.length == xs.length));
+		return new SpatialGrid(xs, ys, zs == null ? new float[xs.length] : zs, cellSize);
+	}
+
+	@Override
+	public int size()
+	{
+		return indices.length;
+	}
+
+	/**
+	 @return The size of a cell's side.
+	 */
+	public float getCellSize()
+	{
+		return cellSize;
+	}
+
+	/**
+	 Returns the cell coordinate of a value, clamped to the grid.
+
+	 @param value The value.
+	 @param min The lower bound of the grid along that axis.
+	 @param count The number of cells along that axis.
+	 @return The cell coordinate.
+	 */
+	private int cellCoordinate(float value, float min, int count)
+	{
+		float cell = (value - min) * inverseCellSize;
+		if (!(cell >= 0))
+		{
+			return 0;
+		}
+		return cell >= count ? count - 1 : (int) cell;
+	}
+
+	/**
+	 @param x The point's x
+	 @param y The point's y
+	 @param z The point's z
+	 @return The cell containing the point, or the closest one if it lies outside the grid.
+	 */
+	private int cellOf(float x, float y, float z)
+	{
+		return (cellCoordinate(z, minZ, layers) * rows + cellCoordinate(y, minY, rows)) * columns + cellCoordinate(x, minX, columns);
+	}
+
+	@Override
+	public int getClosestPoint(Point3F targetPoint)
+	{
+		return getClosestPoint(targetPoint.x, targetPoint.y, targetPoint.z);
+	}
+
+	/**
+	 Finds the point of the grid closest to the given coordinates. The cells are browsed by growing rings around the
+	 target's cell, until the next ring is farther than the best candidate.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The index, in the source list, of the closest point; or -1 if the grid is empty.
+	 */
+	@Override
+	public int getClosestPoint(float x, float y, float z)
+	{
+		if (indices.length == 0)
+		{
+			return -1;
+		}
+
+		int column = cellCoordinate(x, minX, columns);
+		int row = cellCoordinate(y, minY, rows);
+		int layer = cellCoordinate(z, minZ, layers);
+		int maxRing = Math.max(Math.max(Math.max(column, columns - 1 - column), Math.max(row, rows - 1 - row)), Math.max(layer, layers - 1 - layer));
+
+		int bestPosition = -1;
+		float bestSquaredDistance = Float.POSITIVE_INFINITY;
+		for (int ring = 0; ring <= maxRing; ring++)
+		{
+			// Points beyond the previous rings are at least that far.
+			float ringDistance = (ring - 1) * cellSize;
+			if (ring > 0 && bestSquaredDistance <= ringDistance * ringDistance)
+			{
+				break;
+			}
+
+			int fromLayer = Math.max(layer - ring, 0), toLayer = Math.min(layer + ring, layers - 1);
+			int fromRow = Math.max(row - ring, 0), toRow = Math.min(row + ring, rows - 1);
+			for (int l = fromLayer; l <= toLayer; l++)
+			{
+				for (int r = fromRow; r <= toRow; r++)
+				{
+					int rowStart = (l * rows + r) * columns;
+
+					// On the ring's faces, browse the whole row; inside, only its two ends.
+					if (Math.abs(l - layer) == ring || Math.abs(r - row) == ring)
+					{
+						for (int c = Math.max(column - ring, 0); c <= Math.min(column + ring, columns - 1); c++)
+						{
+							bestPosition = findClosestInCell(rowStart + c, x, y, z, bestPosition);
+						}
+					} else
+					{
+						if (column - ring >= 0)
+						{
+							bestPosition = findClosestInCell(rowStart + column - ring, x, y, z, bestPosition);
+						}
+						if (column + ring < columns)
+						{
+							bestPosition = findClosestInCell(rowStart + column + ring, x, y, z, bestPosition);
+						}
+					}
+				}
+			}
+
+			if (bestPosition >= 0)
+			{
+				bestSquaredDistance = squaredDistance(bestPosition, x, y, z);
+			}
+		}
+
+		return indices[bestPosition];
+	}
+
+	/**
+	 Returns the squared distance from a sorted point to the given coordinates.
+
+	 @param position The position of the point in the sorted arrays.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The squared distance.
+	 */
+	private float squaredDistance(int position, float x, float y, float z)
+	{
+		float dx = xs[position] - x;
+		float dy = ys[position] - y;
+		float dz = zs[position] - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 Scans a cell for a point closer to the target than the best candidate so far.
+
+	 @param cell The cell to scan.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param bestPosition The position of the best candidate so far, or -1.
+	 @return The best candidate, either the given one or a better one from this cell.
+	 */
+	private int findClosestInCell(int cell, float x, float y, float z, int bestPosition)
+	{
+		float bestSquaredDistance = bestPosition < 0 ? Float.POSITIVE_INFINITY : squaredDistance(bestPosition, x, y, z);
+		for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++)
+		{
+			float squaredDistance = squaredDistance(i, x, y, z);
+			if (squaredDistance < bestSquaredDistance)
+			{
+				bestSquaredDistance = squaredDistance;
+				bestPosition = i;
+			}
+		}
+		return bestPosition;
+	}
+
+	@Override
+	public int rangeSearch(Point3F targetPoint, float squaredRange, int[] result)
+	{
+		return rangeSearch(targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, result, null);
+	}
+
+	@Override
+	public int rangeSearch(Point3F targetPoint, float squaredRange, IntConsumer consumer)
+	{
+		return rangeSearch(targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, null, consumer);
+	}
+
+	@Override
+	public int rangeCount(Point3F targetPoint, float squaredRange)
+	{
+		return rangeSearch(targetPoint.x, targetPoint.y, targetPoint.z, squaredRange, null, null);
+	}
+
+	/**
+	 Finds the points close enough to the target, by scanning the cells overlapping the bounding box of the search
+	 sphere.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the indices found, or null.
+	 @param consumer The consumer receiving the indices found, or null.
+	 @return The number of points found.
+	 */
+	private int rangeSearch(float x, float y, float z, float squaredRange, int[] result, IntConsumer consumer)
+	{
+		if (!(squaredRange > 0))
+		{
+			return 0;
+		}
+
+		float range = (float) Math.sqrt(squaredRange);
+		int fromColumn = cellCoordinate(x - range, minX, columns), toColumn = cellCoordinate(x + range, minX, columns);
+		int fromRow = cellCoordinate(y - range, minY, rows), toRow = cellCoordinate(y + range, minY, rows);
+		int fromLayer = cellCoordinate(z - range, minZ, layers), toLayer = cellCoordinate(z + range, minZ, layers);
+
+		int count = 0;
+		for (int l = fromLayer; l <= toLayer; l++)
+		{
+			for (int r = fromRow; r <= toRow; r++)
+			{
+				// The cells of a row are contiguous, and so are their points.
+				int rowStart = (l * rows + r) * columns;
+				int from = cellStarts[rowStart + fromColumn];
+				int to = cellStarts[rowStart + toColumn + 1];
+				for (int i = from; i < to; i++)
+				{
+					if (squaredDistance(i, x, y, z) < squaredRange)
+					{
+						if (result != null && count < result.length)
+						{
+							result[count] = indices[i];
+						}
+						if (consumer != null)
+						{
+							consumer.accept(indices[i]);
+						}
+						count++;
+					}
+				}
+			}
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,65 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.util.function.IntConsumer;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+
+/**
+ A static index over a list of points, answering proximity queries with indices into that list.
+ Implementations can be swapped depending on the point distribution: FlatKdTree adapts to any distribution, while
+ SpatialGrid is faster on roughly uniform ones.
+ */
+public interface SpatialIndex
+{
+	/**
+	 @return The number of points in this index.
+	 */
+	public int size();
+
+	/**
+	 Finds the point of the index closest to the given point.
+
+	 @param targetPoint The targeted point.
+	 @return The index, in the source list, of the closest point; or -1 if the index is empty.
+	 */
+	public int getClosestPoint(Point3F targetPoint);
+
+	/**
+	 Finds the point of the index closest to the given coordinates.
+
+	 @param x The target point's x
+	 @param y The target point's y
+	 @param z The target point's z
+	 @return The index, in the source list, of the closest point; or -1 if the index is empty.
+	 */
+	public int getClosestPoint(float x, float y, float z);
+
+	/**
+	 Finds the points of the index close enough to the given point.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @param result The buffer receiving the indices, in the source list, of the points found. If it is too small, the
+	 extra points are counted but not stored.
+	 @return The number of points within the given range of the given point.
+	 */
+	public int rangeSearch(Point3F targetPoint, float squaredRange, int[] result);
+
+	/**
+	 Finds the points of the index close enough to the given point, and streams them to a consumer.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @param consumer The consumer receiving the indices, in the source list, of the points found.
+	 @return The number of points within the given range of the given point.
+	 */
+	public int rangeSearch(Point3F targetPoint, float squaredRange, IntConsumer consumer);
+
+	/**
+	 Counts the points of the index close enough to the given point, without gathering them.
+
+	 @param targetPoint The targeted point.
+	 @param squaredRange The square of the search range.
+	 @return The number of points within the given range of the given point.
+	 */
+	public int rangeCount(Point3F targetPoint, float squaredRange);
+}
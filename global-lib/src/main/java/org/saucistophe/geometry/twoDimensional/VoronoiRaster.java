@@ -0,0 +1,361 @@
+package org.saucistophe.geometry.twoDimensional;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ Paints the Voronoi diagram of a set of sites into raster images: each pixel gets the index, or the colour, of the
+ site closest to it.
+ Rows are painted as runs: the cell of a site crosses a row along a single interval, which ends where the row meets
+ the bisector with one of its Delaunay neighbours. Each run thus costs a few bisector computations, instead of a
+ closest-point query per pixel. The first site of each row is found by walking the Delaunay graph from the first site
+ of the previous row. Bands of rows can be painted in parallel.
+ */
+public class VoronoiRaster
+{
+	/**
+	 The minimum number of pixels of a band of rows painted in parallel.
+	 */
+	private static final int BAND_THRESHOLD = 1 << 14;
+
+	/**
+	 The sites' coordinates.
+	 */
+	private final float[] xs;
+	private final float[] ys;
+
+	/**
+	 The Delaunay neighbours of each site, in compressed rows: those of site i are stored from neighbourStarts[i],
+	 inclusive, to neighbourStarts[i + 1], exclusive.
+	 */
+	private final int[] neighbourStarts;
+	private final int[] neighbours;
+
+	/**
+	 A site taking part in the triangulation, duplicates being left out, from which the walks start.
+	 */
+	private final int firstSite;
+
+	/**
+	 Builds a raster generator for the given sites. Their coordinates are copied.
+
+	 @param sites The sites of the diagram.
+	 */
+	public VoronoiRaster(List<? extends Point2F> sites)
+	{
+		this(toXs(sites), toYs(sites));
+	}
+
+	/**
+	 Builds a raster generator for the given sites. The arrays must not be modified afterwards.
+
+	 @param xs The sites' xs.
+	 @param ys The sites' ys.
+	 */
+	public VoronoiRaster(float[] xs, float[] ys)
+	{
+		if (xs.length == 0)
+		{
+			throw new IllegalArgumentException("A Voronoi diagram needs at least one site");
+		}
+		this.xs = xs;
+		this.ys = ys;
+
+		DelaunayTriangulation triangulation = DelaunayTriangulation.triangulate(xs, ys);
+		int[] triangles = triangulation.triangles;
+		int[] halfedges = triangulation.halfedges;
+		int[] hull = triangulation.hull;
+		firstSite = hull[0];
+
+		// Count the neighbours of each site, then fill them in. Hull edges have no opposite half-edge to account for
+		// the neighbourhood in the other direction; collinear sites have no triangles, only their line.
+		neighbourStarts = new int[xs.length + 1];
+		for (int edge = 0; edge < triangles.length; edge++)
+		{
+			neighbourStarts[triangles[edge] + 1]++;
+			if (halfedges[edge] < 0)
+			{
+				neighbourStarts[triangles[nextEdge(edge)] + 1]++;
+			}
+		}
+		for (int i = 0; triangles.length == 0 && i < hull.length - 1; i++)
+		{
+			neighbourStarts[hull[i] + 1]++;
+			neighbourStarts[hull[i + 1] + 1]++;
+		}
+		for (int i = 0; i < xs.length; i++)
+		{
+			neighbourStarts[i + 1] += neighbourStarts[i];
+		}
+
+		neighbours = new int[neighbourStarts[xs.length]];
+		int[] cursors = new int[xs.length];
+		System.arraycopy(neighbourStarts, 0, cursors, 0, xs.length);
+		for (int edge = 0; edge < triangles.length; edge++)
+		{
+			int start = triangles[edge];
+			int end = triangles[nextEdge(edge)];
+			neighbours[cursors[start]++] = end;
+			if (halfedges[edge] < 0)
+			{
+				neighbours[cursors[end]++] = start;
+			}
+		}
+		for (int i = 0; triangles.length == 0 && i < hull.length - 1; i++)
+		{
+			neighbours[cursors[hull[i]]++] = hull[i + 1];
+			neighbours[cursors[hull[i + 1]]++] = hull[i];
+		}
+	}
+
+	private static float[] toXs(List<? extends Point2F> sites)
+	{
+		float[] xs = new float[sites.size()];
+		for (int i = 0; i < xs.length; i++)
+		{
+			xs[i] = sites.get(i).x;
+		}
+		return xs;
+	}
+
+	private static float[] toYs(List<? extends Point2F> sites)
+	{
+		float[] ys = new float[sites.size()];
+		for (int i = 0; i < ys.length; i++)
+		{
+			ys[i] = sites.get(i).y;
+		}
+		return ys;
+	}
+
+	private static int nextEdge(int edge)
+	{
+		return edge % 3 == 2 ? edge - 2 : edge + 1;
+	}
+
+	/**
+	 Fills a raster with the index of the site closest to each pixel.
+
+	 @param raster The raster to fill, row by row; pixel (i, j) is at index j * width + i.
+	 @param width The width of the raster, in pixels.
+	 @param height The height of the raster, in pixels.
+	 @param x0 The x of the pixel (0, 0).
+	 @param y0 The y of the pixel (0, 0).
+	 @param pixelSize The distance between two neighbouring pixels.
+	 @param parallel True if bands of rows may be painted in parallel.
+	 */
+	public void fillSiteIndices(int[] raster, int width, int height, float x0, float y0, float pixelSize, boolean parallel)
+	{
+		fill(raster, width, height, x0, y0, pixelSize, null, parallel);
+	}
+
+	/**
+	 Fills a raster with the colour of the site closest to each pixel.
+
+	 @param raster The raster to fill, row by row; pixel (i, j) is at index j * width + i.
+	 @param width The width of the raster, in pixels.
+	 @param height The height of the raster, in pixels.
+	 @param x0 The x of the pixel (0, 0).
+	 @param y0 The y of the pixel (0, 0).
+	 @param pixelSize The distance between two neighbouring pixels.
+	 @param siteColors The ARGB colour of each site.
+	 @param parallel True if bands of rows may be painted in parallel.
+	 */
+	public void fillColors(int[] raster, int width, int height, float x0, float y0, float pixelSize, int[] siteColors, boolean parallel)
+	{
+		fill(raster, width, height, x0, y0, pixelSize, siteColors, parallel);
+	}
+
+	/**
+	 Paints the diagram into a new image, pixel (i, j) standing for the point (i, j).
+
+	 @param width The width of the image, in pixels.
+	 @param height The height of the image, in pixels.
+	 @param siteColors The ARGB colour of each site.
+	 @return The resulting image.
+	 */
+	public BufferedImage toImage(int width, int height, int[] siteColors)
+	{
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		int[] raster = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		fill(raster, width, height, 0, 0, 1, siteColors, true);
+		return image;
+	}
+
+	private void fill(int[] raster, int width, int height, float x0, float y0, float pixelSize, int[] siteColors, boolean parallel)
+	{
+		assert (raster.length >= width * height);
+		BandTask task = new BandTask(raster, width, 0, height, x0, y0, pixelSize, siteColors, parallel);
+		if (parallel && (long) width * height > BAND_THRESHOLD)
+		{
+			ForkJoinPool.commonPool().invoke(task);
+		} else
+		{
+			task.invoke();
+		}
+	}
+
+	/**
+	 @return The squared distance from a site to the given coordinates.
+	 */
+	private double squaredDistance(int site, double x, double y)
+	{
+		double dx = xs[site] - x;
+		double dy = ys[site] - y;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 Finds the site closest to the given coordinates, by walking the Delaunay graph from the given site: unless a site
+	 is the closest, one of its neighbours is closer.
+
+	 @param site The site to start from.
+	 @param x The target point's x
+	 @param y The target point's y
+	 @return The closest site.
+	 */
+	private int walkToClosest(int site, double x, double y)
+	{
+		double bestSquaredDistance = squaredDistance(site, x, y);
+		while (true)
+		{
+			int bestNeighbour = -1;
+			for (int i = neighbourStarts[site]; i < neighbourStarts[site + 1]; i++)
+			{
+				double squaredDistance = squaredDistance(neighbours[i], x, y);
+				if (squaredDistance < bestSquaredDistance)
+				{
+					bestSquaredDistance = squaredDistance;
+					bestNeighbour = neighbours[i];
+				}
+			}
+			if (bestNeighbour < 0)
+			{
+				return site;
+			}
+			site = bestNeighbour;
+		}
+	}
+
+	/**
+	 Paints a row, run by run.
+
+	 @param raster The raster to fill.
+	 @param width The width of the raster, in pixels.
+	 @param row The row to paint.
+	 @param x0 The x of the row's first pixel.
+	 @param y The y of the row.
+	 @param pixelSize The distance between two neighbouring pixels.
+	 @param siteColors The colour of each site, or null to paint the sites' indices.
+	 @param site The site closest to the row's first pixel.
+	 */
+	private void fillRow(int[] raster, int width, int row, float x0, double y, float pixelSize, int[] siteColors, int site)
+	{
+		int offset = row * width;
+		int pixel = 0;
+		while (pixel < width)
+		{
+			// The cell ends at the nearest bisector with a neighbour further right. On a tie, at a Voronoi vertex, the
+			// neighbour furthest right is the one getting closer fastest.
+			double siteX = xs[site];
+			double siteLift = siteX * siteX + (y - ys[site]) * (y - ys[site]);
+			double boundary = Double.POSITIVE_INFINITY;
+			int next = -1;
+			for (int i = neighbourStarts[site]; i < neighbourStarts[site + 1]; i++)
+			{
+				int neighbour = neighbours[i];
+				double neighbourX = xs[neighbour];
+				if (neighbourX > siteX)
+				{
+					double neighbourLift = neighbourX * neighbourX + (y - ys[neighbour]) * (y - ys[neighbour]);
+					double bisector = (neighbourLift - siteLift) / (2 * (neighbourX - siteX));
+					if (bisector < boundary || (bisector == boundary && neighbourX > xs[next]))
+					{
+						boundary = bisector;
+						next = neighbour;
+					}
+				}
+			}
+
+			int end = width;
+			if (next >= 0)
+			{
+				double lastPixel = Math.floor((boundary - x0) / pixelSize);
+				if (lastPixel < width - 1)
+				{
+					end = (int) Math.max(lastPixel + 1, pixel);
+				}
+			}
+
+			int value = siteColors == null ? site : siteColors[site];
+			for (; pixel < end; pixel++)
+			{
+				raster[offset + pixel] = value;
+			}
+			site = next;
+		}
+	}
+
+	/**
+	 A task painting a band of rows, split in two while it is big enough.
+	 */
+	private class BandTask extends RecursiveAction
+	{
+		private final int[] raster;
+		private final int width;
+		private final int fromRow;
+		private final int toRow;
+		private final float x0;
+		private final float y0;
+		private final float pixelSize;
+		private final int[] siteColors;
+		private final boolean parallel;
+
+		/**
+		 @param raster The raster to fill.
+		 @param width The width of the raster, in pixels.
+		 @param fromRow The first row of the band, inclusive.
+		 @param toRow The last row of the band, exclusive.
+		 @param x0 The x of the pixel (0, 0).
+		 @param y0 The y of the pixel (0, 0).
+		 @param pixelSize The distance between two neighbouring pixels.
+		 @param siteColors The colour of each site, or null to paint the sites' indices.
+		 @param parallel True if the band may be split into parallel bands.
+		 */
+		BandTask(int[] raster, int width, int fromRow, int toRow, float x0, float y0, float pixelSize, int[] siteColors, boolean parallel)
+		{
+			this.raster = raster;
+			this.width = width;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.pixelSize = pixelSize;
+			this.siteColors = siteColors;
+			this.parallel = parallel;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (parallel && toRow - fromRow > 1 && (long) (toRow - fromRow) * width > BAND_THRESHOLD)
+			{
+				int mid = (fromRow + toRow) >>> 1;
+				invokeAll(new BandTask(raster, width, fromRow, mid, x0, y0, pixelSize, siteColors, true),
+					new BandTask(raster, width, mid, toRow, x0, y0, pixelSize, siteColors, true));
+				return;
+			}
+
+			int site = firstSite;
+			for (int row = fromRow; row < toRow; row++)
+			{
+				double y = y0 + (double) row * pixelSize;
+				site = walkToClosest(site, x0, y);
+				fillRow(raster, width, row, x0, y, pixelSize, siteColors, site);
+			}
+		}
+	}
+}
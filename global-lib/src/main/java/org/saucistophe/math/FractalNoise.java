@@ -0,0 +1,419 @@
+package org.saucistophe.math;
+
+import java.util.Arrays;
+
+/**
+ Composes several octaves of a noise source into fractal noise: each octave samples the source at a frequency
+ multiplied by the lacunarity, with an amplitude multiplied by the gain, and the octaves are combined according to a
+ mode. The coordinates may first be displaced by the noise source itself (domain warping).
+ Grids are computed octave by octave: each octave fills the whole grid in a single call to the source, which can use
+ a bulk evaluation such as OpenSimplexNoise.fill, then is accumulated into the result. Large grids are split into
+ tiles with a NoiseFieldGenerator, to stay in cache and to run in parallel.
+ */
+public class FractalNoise
+{
+	/**
+	 The ways octaves are combined, n being an octave's noise, in [-1, 1].
+	 */
+	public enum Mode
+	{
+		/**
+		 Fractional Brownian motion, the sum of n. Results are in [-1, 1].
+		 */
+		FBM,
+		/**
+		 The sum of 2|n| - 1, rounder hills with creases between them. Results are in [-1, 1].
+		 */
+		BILLOW,
+		/**
+		 The sum of |n|. Results are in [0, 1].
+		 */
+		TURBULENCE,
+		/**
+		 The sum of (1 - |n|) squared, each octave being weighted by the previous one, giving sharp ridges with smooth valleys.
+		 Results are in [0, 1].
+		 */
+		RIDGED;
+	}
+
+	/**
+	 A source of noise, ranging in [-1, 1]. It must be thread-safe.
+	 */
+	@FunctionalInterface
+	public interface Source extends NoiseFieldGenerator.Noise3D
+	{
+		/**
+		 Fills a grid with a slice of noise: sample (i, j), at index j * width + i, receives
+		 eval(x0 + i * dx, y0 + j * dy, z).
+		 The default implementation calls eval for every sample; sources having a faster bulk evaluation should
+		 override it.
+
+		 @param out The array receiving the grid, of at least width * height values.
+		 @param x0 The x of the first sample.
+		 @param y0 The y of the first sample.
+		 @param z The z of the slice.
+		 @param dx The x step between two samples of a row.
+		 @param dy The y step between two rows.
+		 @param width The number of samples per row.
+		 @param height The number of rows.
+		 */
+		default void fill(double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+		{
+			for (int j = 0; j < height; j++)
+			{
+				double y = y0 + j * dy;
+				for (int i = 0; i < width; i++)
+				{
+					out[j * width + i] = eval(x0 + i * dx, y, z);
+				}
+			}
+		}
+	}
+
+	/**
+	 The source of noise.
+	 */
+	public final Source source;
+
+	/**
+	 The number of octaves.
+	 */
+	public int octaves = 6;
+
+	/**
+	 The frequency of the first octave.
+	 */
+	public double frequency = 1;
+
+	/**
+	 The frequency ratio between two successive octaves.
+	 */
+	public double lacunarity = 2;
+
+	/**
+	 The amplitude ratio between two successive octaves.
+	 */
+	public double gain = 0.5;
+
+	/**
+	 The way octaves are combined.
+	 */
+	public Mode mode = Mode.FBM;
+
+	/**
+	 The largest displacement of the coordinates by domain warping, or 0 to disable it.
+	 */
+	public double warpStrength = 0;
+
+	/**
+	 The frequency of the noise displacing the coordinates.
+	 */
+	public double warpFrequency = 1;
+
+	/**
+	 Offsets between the noise displacing x, the one displacing y, and the sampled noise, decorrelating them.
+	 */
+	private static final double WARP_OFFSET = 71.3;
+
+	/**
+	 @param source The source of noise.
+	 */
+	public FractalNoise(Source source)
+	{
+		this.source = source;
+	}
+
+	/**
+	 @param noise The noise to sample.
+	 @return A source sampling 2D OpenSimplex noise, the z coordinate being ignored.
+	 */
+	public static Source openSimplex2D(OpenSimplexNoise noise)
+	{
+		return new Source()
+		{
+			@Override
+			public double eval(double x, double y, double z)
+			{
+				return noise.eval(x, y);
+			}
+
+			@Override
+			public void fill(double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+			{
+				noise.fill(out, x0, y0, dx, dy, width, height);
+			}
+		};
+	}
+
+	/**
+	 @param noise The noise to sample.
+	 @return A source sampling 3D OpenSimplex noise as OpenSimplexNoise.fill does, including for single samples, so that
+	 a point has the same value whether it is sampled alone or within a grid, whatever its steps.
+	 */
+	public static Source openSimplex3D(OpenSimplexNoise noise)
+	{
+		return new Source()
+		{
+			@Override
+			public double eval(double x, double y, double z)
+			{
+				// The steps of a single sample grid do not matter, but the fill expects positive ones.
+				double[] value = new double[1];
+				noise.fill(value, x, y, z, 1, 1, 1, 1);
+				return value[0];
+			}
+
+			@Override
+			public void fill(double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+			{
+				noise.fill(out, x0, y0, z, dx, dy, width, height);
+			}
+		};
+	}
+
+	/**
+	 A source sampling Perlin noise, rescaled to [-1, 1], whose bulk evaluation computes each row in a single batch.
+	 */
+	private abstract static class PerlinSource implements Source
+	{
+		/**
+		 @see PerlinNoise#normedNoise(float, float, float)
+		 */
+		abstract float normedNoise(float x, float y, float z);
+
+		/**
+		 @see PerlinNoise#normedNoise(float[], float[], float[], float[], int)
+		 */
+		abstract void normedNoise(float[] xs, float[] ys, float[] zs, float[] out, int count);
+
+		@Override
+		public double eval(double x, double y, double z)
+		{
+			return normedNoise((float) x, (float) y, (float) z) * 2 - 1;
+		}
+
+		@Override
+		public void fill(double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+		{
+			float[] xs = new float[width];
+			float[] ys = new float[width];
+			float[] zs = new float[width];
+			float[] row = new float[width];
+			for (int i = 0; i < width; i++)
+			{
+				xs[i] = (float) (x0 + i * dx);
+			}
+			Arrays.fill(zs, (float) z);
+			for (int j = 0; j < height; j++)
+			{
+				Arrays.fill(ys, (float) (y0 + j * dy));
+				normedNoise(xs, ys, zs, row, width);
+				for (int i = 0; i < width; i++)
+				{
+					out[j * width + i] = row[i] * 2 - 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 @return A source sampling PerlinUtils' noise, rescaled to [-1, 1].
+	 */
+	public static Source perlin()
+	{
+		return new PerlinSource()
+		{
+			@Override
+			float normedNoise(float x, float y, float z)
+			{
+				return PerlinUtils.normedNoise(x, y, z);
+			}
+
+			@Override
+			void normedNoise(float[] xs, float[] ys, float[] zs, float[] out, int count)
+			{
+				PerlinUtils.normedNoise(xs, ys, zs, out, count);
+			}
+		};
+	}
+
+	/**
+	 @param noise The noise to sample.
+	 @return A source sampling Perlin noise, rescaled to [-1, 1].
+	 */
+	public static Source perlin(PerlinNoise noise)
+	{
+		return new PerlinSource()
+		{
+			@Override
+			float normedNoise(float x, float y, float z)
+			{
+				return noise.normedNoise(x, y, z);
+			}
+
+			@Override
+			void normedNoise(float[] xs, float[] ys, float[] zs, float[] out, int count)
+			{
+				noise.normedNoise(xs, ys, zs, out, count);
+			}
+		};
+	}
+
+	/**
+	 Computes the fractal noise at the given coordinates.
+
+	 @param x The point's x.
+	 @param y The point's y.
+	 @param z The point's z.
+	 @return The fractal noise, in the range of the mode.
+	 */
+	public double eval(double x, double y, double z)
+	{
+		// The steps of a single sample grid do not matter, but bulk evaluations expect positive ones.
+		double[] value = new double[1];
+		fill(value, x, y, z, 1, 1, 1, 1);
+		return value[0];
+	}
+
+	/**
+	 Fills a grid with a slice of fractal noise, octave by octave: sample (i, j), at index j * width + i, receives
+	 eval(x0 + i * dx, y0 + j * dy, z).
+
+	 @param out The array receiving the grid, of at least width * height values.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param z The z of the slice.
+	 @param dx The x step between two samples of a row.
+	 @param dy The y step between two rows.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void fill(double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+	{
+		int size = width * height;
+		double[] octave = new double[size];
+		double[] weights = mode == Mode.RIDGED ? new double[size] : null;
+		Arrays.fill(out, 0, size, 0);
+		if (weights != null)
+		{
+			Arrays.fill(weights, 1);
+		}
+
+		// Warped coordinates no longer lie on a grid, and are sampled one by one.
+		double[] xs = null;
+		double[] ys = null;
+		if (warpStrength != 0)
+		{
+			xs = new double[size];
+			ys = new double[size];
+			double f = warpFrequency;
+			source.fill(xs, x0 * f + WARP_OFFSET, y0 * f, z * f, dx * f, dy * f, width, height);
+			source.fill(ys, x0 * f, y0 * f + WARP_OFFSET, z * f, dx * f, dy * f, width, height);
+			for (int j = 0; j < height; j++)
+			{
+				for (int i = 0; i < width; i++)
+				{
+					int index = j * width + i;
+					xs[index] = x0 + i * dx + warpStrength * xs[index];
+					ys[index] = y0 + j * dy + warpStrength * ys[index];
+				}
+			}
+		}
+
+		double f = frequency;
+		double amplitude = 1;
+		double amplitudeSum = 0;
+		for (int o = 0; o < octaves; o++)
+		{
+			if (xs == null)
+			{
+				source.fill(octave, x0 * f, y0 * f, z * f, dx * f, dy * f, width, height);
+			}
+			else
+			{
+				for (int index = 0; index < size; index++)
+				{
+					octave[index] = source.eval(xs[index] * f, ys[index] * f, z * f);
+				}
+			}
+			accumulate(out, octave, weights, size, amplitude);
+
+			amplitudeSum += amplitude;
+			f *= lacunarity;
+			amplitude *= gain;
+		}
+
+		if (amplitudeSum > 0)
+		{
+			double normalization = 1 / amplitudeSum;
+			for (int index = 0; index < size; index++)
+			{
+				out[index] *= normalization;
+			}
+		}
+	}
+
+	/**
+	 Adds an octave to the result, according to the mode.
+
+	 @param out The result.
+	 @param octave The octave's noise.
+	 @param weights The weights of the samples in the ridged mode, or null.
+	 @param size The number of samples.
+	 @param amplitude The amplitude of the octave.
+	 */
+	private void accumulate(double[] out, double[] octave, double[] weights, int size, double amplitude)
+	{
+		switch (mode)
+		{
+			case FBM:
+				for (int index = 0; index < size; index++)
+				{
+					out[index] += amplitude * octave[index];
+				}
+				break;
+			case BILLOW:
+				for (int index = 0; index < size; index++)
+				{
+					out[index] += amplitude * (2 * Math.abs(octave[index]) - 1);
+				}
+				break;
+			case TURBULENCE:
+				for (int index = 0; index < size; index++)
+				{
+					out[index] += amplitude * Math.abs(octave[index]);
+				}
+				break;
+			case RIDGED:
+				for (int index = 0; index < size; index++)
+				{
+					double ridge = 1 - Math.abs(octave[index]);
+					ridge *= ridge;
+					out[index] += amplitude * ridge * weights[index];
+					weights[index] = ridge;
+				}
+				break;
+		}
+	}
+
+	/**
+	 Fills a grid with a slice of fractal noise, tile by tile, in parallel.
+
+	 @param generator The generator running the tiles.
+	 @see #fill(double[], double, double, double, double, double, int, int)
+	 */
+	public void generate(NoiseFieldGenerator generator, double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+	{
+		generator.forEachTile(width, height, 1, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			int tileWidth = toColumn - fromColumn;
+			int tileHeight = toRow - fromRow;
+			double[] tile = new double[tileWidth * tileHeight];
+			fill(tile, x0 + fromColumn * dx, y0 + fromRow * dy, z, dx, dy, tileWidth, tileHeight);
+			for (int j = 0; j < tileHeight; j++)
+			{
+				System.arraycopy(tile, j * tileWidth, out, (fromRow + j) * width + fromColumn, tileWidth);
+			}
+		});
+	}
+}
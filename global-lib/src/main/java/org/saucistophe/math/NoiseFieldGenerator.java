@@ -0,0 +1,266 @@
+package org.saucistophe.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ Generates noise fields in parallel: the field is split into square tiles of each of its layers, small enough to stay
+ in cache, and the tiles are spread over a ForkJoinPool.
+ Every sample is computed from its own coordinates only, as origin + index * step, so the output does not depend on
+ the number of threads, nor on the order the tiles are processed in: it is bit-identical to a sequential loop.
+ Fields are stored in preallocated arrays, layer by layer, then row by row: sample (i, j, k) is at index
+ (k * height + j) * width + i.
+ */
+public class NoiseFieldGenerator
+{
+	/**
+	 The side of a tile, in samples.
+	 */
+	public static final int TILE_SIZE = 64;
+
+	/**
+	 A 2D noise function, such as OpenSimplexNoise::eval. It must be thread-safe.
+	 */
+	@FunctionalInterface
+	public interface Noise2D
+	{
+		double eval(double x, double y);
+	}
+
+	/**
+	 A 3D noise function, such as OpenSimplexNoise::eval or (x, y, z) -> PerlinUtils.altitude((float) x, (float) y, (float) z).
+	 It must be thread-safe.
+	 */
+	@FunctionalInterface
+	public interface Noise3D
+	{
+		double eval(double x, double y, double z);
+	}
+
+	/**
+	 A 4D noise function, such as OpenSimplexNoise::eval. It must be thread-safe.
+	 */
+	@FunctionalInterface
+	public interface Noise4D
+	{
+		double eval(double x, double y, double z, double w);
+	}
+
+	/**
+	 Fills a tile of a field.
+	 */
+	@FunctionalInterface
+	public interface TileFiller
+	{
+		/**
+		 @param fromColumn The first column of the tile, inclusive.
+		 @param toColumn The last column of the tile, exclusive.
+		 @param fromRow The first row of the tile, inclusive.
+		 @param toRow The last row of the tile, exclusive.
+		 @param layer The layer of the tile.
+		 */
+		void fillTile(int fromColumn, int toColumn, int fromRow, int toRow, int layer);
+	}
+
+	/**
+	 The pool running the tiles.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 Builds a generator running on the common pool.
+	 */
+	public NoiseFieldGenerator()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 Builds a generator running on the given pool.
+
+	 @param pool The pool running the tiles, whose parallelism sets the number of threads used.
+	 */
+	public NoiseFieldGenerator(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
+	/**
+	 Fills a 2D field with noise: sample (i, j) receives noise(x0 + i * dx, y0 + j * dy).
+
+	 @param noise The noise function.
+	 @param out The array receiving the field, of at least width * height values.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param dx The x step between two samples.
+	 @param dy The y step between two samples.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void generate(Noise2D noise, double[] out, double x0, double y0, double dx, double dy, int width, int height)
+	{
+		forEachTile(width, height, 1, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			for (int j = fromRow; j < toRow; j++)
+			{
+				double y = y0 + j * dy;
+				for (int i = fromColumn; i < toColumn; i++)
+				{
+					out[j * width + i] = noise.eval(x0 + i * dx, y);
+				}
+			}
+		});
+	}
+
+	/**
+	 Fills a 2D field with noise, in single precision.
+
+	 @see #generate(Noise2D, double[], double, double, double, double, int, int)
+	 */
+	public void generate(Noise2D noise, float[] out, double x0, double y0, double dx, double dy, int width, int height)
+	{
+		forEachTile(width, height, 1, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			for (int j = fromRow; j < toRow; j++)
+			{
+				double y = y0 + j * dy;
+				for (int i = fromColumn; i < toColumn; i++)
+				{
+					out[j * width + i] = (float) noise.eval(x0 + i * dx, y);
+				}
+			}
+		});
+	}
+
+	/**
+	 Fills a 3D field with noise: sample (i, j, k) receives noise(x0 + i * dx, y0 + j * dy, z0 + k * dz).
+
+	 @param noise The noise function.
+	 @param out The array receiving the field, of at least width * height * depth values.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param z0 The z of the first sample.
+	 @param dx The x step between two samples.
+	 @param dy The y step between two samples.
+	 @param dz The z step between two samples.
+	 @param width The number of samples per row.
+	 @param height The number of rows per layer.
+	 @param depth The number of layers.
+	 */
+	public void generate(Noise3D noise, double[] out, double x0, double y0, double z0, double dx, double dy, double dz, int width, int height, int depth)
+	{
+		forEachTile(width, height, depth, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			double z = z0 + layer * dz;
+			for (int j = fromRow; j < toRow; j++)
+			{
+				double y = y0 + j * dy;
+				int offset = (layer * height + j) * width;
+				for (int i = fromColumn; i < toColumn; i++)
+				{
+					out[offset + i] = noise.eval(x0 + i * dx, y, z);
+				}
+			}
+		});
+	}
+
+	/**
+	 Fills a 3D field with noise, in single precision.
+
+	 @see #generate(Noise3D, double[], double, double, double, double, double, double, int, int, int)
+	 */
+	public void generate(Noise3D noise, float[] out, double x0, double y0, double z0, double dx, double dy, double dz, int width, int height, int depth)
+	{
+		forEachTile(width, height, depth, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			double z = z0 + layer * dz;
+			for (int j = fromRow; j < toRow; j++)
+			{
+				double y = y0 + j * dy;
+				int offset = (layer * height + j) * width;
+				for (int i = fromColumn; i < toColumn; i++)
+				{
+					out[offset + i] = (float) noise.eval(x0 + i * dx, y, z);
+				}
+			}
+		});
+	}
+
+	/**
+	 Runs a filler on every tile of a field, in parallel, and waits for all of them.
+
+	 @param width The number of samples per row.
+	 @param height The number of rows per layer.
+	 @param depth The number of layers.
+	 @param filler The code filling a tile. Tiles do not overlap, so it may write to a shared array without
+	 synchronization.
+	 */
+	public void forEachTile(int width, int height, int depth, TileFiller filler)
+	{
+		int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+		int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+		long tileCount = (long) columns * rows * Math.max(depth, 0);
+		if (tileCount == 0)
+		{
+			return;
+		}
+		if (tileCount > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Too many tiles: " + tileCount);
+		}
+
+		pool.invoke(new TilesTask(filler, width, height, columns, rows, 0, (int) tileCount));
+	}
+
+	/**
+	 A task filling a range of tiles, numbered layer by layer, then row by row. The range is split in halves until
+	 a single tile is left.
+	 */
+	private static class TilesTask extends RecursiveAction
+	{
+		private final TileFiller filler;
+		private final int width;
+		private final int height;
+		private final int columns;
+		private final int rows;
+		private final int from;
+		private final int to;
+
+		/**
+		 @param filler The code filling a tile.
+		 @param width The number of samples per row.
+		 @param height The number of rows per layer.
+		 @param columns The number of tiles per row of tiles.
+		 @param rows The number of rows of tiles per layer.
+		 @param from The first tile of the range, inclusive.
+		 @param to The last tile of the range, exclusive.
+		 */
+		TilesTask(TileFiller filler, int width, int height, int columns, int rows, int from, int to)
+		{
+			this.filler = filler;
+			this.width = width;
+			this.height = height;
+			this.columns = columns;
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from > 1)
+			{
+				int mid = (from + to) >>> 1;
+				invokeAll(new TilesTask(filler, width, height, columns, rows, from, mid), new TilesTask(filler, width, height, columns, rows, mid, to));
+				return;
+			}
+
+			int column = from % columns;
+			int row = from / columns % rows;
+			int layer = from / columns / rows;
+			filler.fillTile(column * TILE_SIZE, Math.min((column + 1) * TILE_SIZE, width),
+				row * TILE_SIZE, Math.min((row + 1) * TILE_SIZE, height), layer);
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package org.saucistophe.math;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ The innermost loops of the noise functions, evaluating many samples at once.
+ This scalar implementation works everywhere. On a JDK 17+ started with --add-modules jdk.incubator.vector, a
+ vectorised implementation, VectorNoiseKernels, is selected instead; it gives the same results, within the tolerances
+ documented by each kernel. Setting the system property org.saucistophe.math.vector to false forces the scalar
+ implementation.
+ */
+class NoiseKernels
+{
+	private static final Logger logger = Logger.getLogger(NoiseKernels.class.getName());
+
+	/**
+	 The scalar implementation.
+	 */
+	static final NoiseKernels SCALAR = new NoiseKernels();
+
+	/**
+	 The vectorised implementation, or null if it is not available.
+	 */
+	static final NoiseKernels VECTOR = loadVectorKernels();
+
+	/**
+	 The implementation used by the noise functions.
+	 */
+	static final NoiseKernels SELECTED = VECTOR != null && Boolean.parseBoolean(System.getProperty("org.saucistophe.math.vector", "true")) ? VECTOR : SCALAR;
+
+	private static NoiseKernels loadVectorKernels()
+	{
+		try
+		{
+			return (NoiseKernels) Class.forName("org.saucistophe.math.VectorNoiseKernels").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError ex)
+		{
+			// Missing classes, an older JDK, or the module not being added: stay scalar.
+			logger.log(Level.FINE, "Vectorised noise kernels unavailable", ex);
+			return null;
+		}
+	}
+
+	/**
+	 Adds the contribution of an OpenSimplex lattice vertex to a run of samples of a row: sample k receives
+	 a^4 * (xGradient * o + rowGradient), where o = xOffset + k * dx and a = max(remaining - o^2, 0).
+	 The vectorised implementation computes the offsets by multiplication rather than by accumulation: results differ
+	 by a few ulps of the contributions.
+
+	 @param out The samples.
+	 @param from The index of the run's first sample.
+	 @param count The number of samples of the run.
+	 @param xOffset The x offset from the vertex to the first sample.
+	 @param dx The x step between two samples.
+	 @param remaining The attenuation left once the squared distance along the other coordinates is subtracted.
+	 @param xGradient The x of the vertex's gradient.
+	 @param rowGradient The dot product of the vertex's gradient and offset along the other coordinates.
+	 */
+	void scatterRow(double[] out, int from, int count, double xOffset, double dx, double remaining, double xGradient, double rowGradient)
+	{
+		for (int i = from; i < from + count; i++, xOffset += dx)
+		{
+			double attenuation = Math.max(remaining - xOffset * xOffset, 0);
+			attenuation *= attenuation;
+			out[i] += attenuation * attenuation * (xGradient * xOffset + rowGradient);
+		}
+	}
+
+	/**
+	 Evaluates raw Perlin noise at many points. The vectorised implementation gives the same results, for coordinates
+	 within the range of ints.
+
+	 @param perm The permutation, repeated twice.
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @param zs The points' zs.
+	 @param out The array receiving the noise of each point.
+	 @param count The number of points.
+	 */
+	void perlinNoise(int[] perm, float[] xs, float[] ys, float[] zs, float[] out, int count)
+	{
+		for (int i = 0; i < count; i++)
+		{
+			out[i] = perlinNoise(perm, xs[i], ys[i], zs[i]);
+		}
+	}
+
+	/**
+	 Evaluates raw Perlin noise at a point.
+
+	 @see PerlinNoise#noise(float, float, float)
+	 */
+	static float perlinNoise(int[] perm, float x, float y, float z)
+	{
+		// Find the unit cube containing the point, and the point's position in it.
+		float floorX = (float) Math.floor(x);
+		float floorY = (float) Math.floor(y);
+		float floorZ = (float) Math.floor(z);
+		int X = (int) floorX & 255;
+		int Y = (int) floorY & 255;
+		int Z = (int) floorZ & 255;
+		x -= floorX;
+		y -= floorY;
+		z -= floorZ;
+
+		float u = fade(x);
+		float v = fade(y);
+		float w = fade(z);
+
+		// Hash the coordinates of the cube's 8 corners, and blend their gradients.
+		int A = perm[X] + Y;
+		int AA = perm[A] + Z;
+		int AB = perm[A + 1] + Z;
+		int B = perm[X + 1] + Y;
+		int BA = perm[B] + Z;
+		int BB = perm[B + 1] + Z;
+
+		return lerp(w, lerp(v, lerp(u, grad(perm[AA], x, y, z),
+			grad(perm[BA], x - 1, y, z)),
+			lerp(u, grad(perm[AB], x, y - 1, z),
+				grad(perm[BB], x - 1, y - 1, z))),
+			lerp(v, lerp(u, grad(perm[AA + 1], x, y, z - 1),
+				grad(perm[BA + 1], x - 1, y, z - 1)),
+				lerp(u, grad(perm[AB + 1], x, y - 1, z - 1),
+					grad(perm[BB + 1], x - 1, y - 1, z - 1))));
+	}
+
+	private static float fade(float t)
+	{
+		return t * t * t * (t * (t * 6 - 15) + 10);
+	}
+
+	private static float lerp(float t, float a, float b)
+	{
+		return a + t * (b - a);
+	}
+
+	private static float grad(int hash, float x, float y, float z)
+	{
+		// Convert the low 4 bits of the hash code into 12 gradient directions.
+		int h = hash & 15;
+		float u = h < 8 ? x : y;
+		float v = h < 4 ? y : h == 12 || h == 14 ? x : z;
+
+		return ((h & 1) != 0 ? -u : u) + ((h & 2) != 0 ? -v : v);
+	}
+}
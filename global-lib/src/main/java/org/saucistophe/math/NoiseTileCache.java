@@ -0,0 +1,367 @@
+package org.saucistophe.math;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.saucistophe.files.CacheStrategy;
+
+/**
+ A cache of noise tiles, so that panning over a procedural world does not compute the same tiles again.
+ Tiles are kept in memory up to a given number of bytes, the least recently used ones being evicted first. If a
+ CacheStrategy is given, generated tiles are also written to disk, and tiles missing from memory are read back from
+ there before being generated again.
+ The cache can be shared between threads. A tile missed by several threads at once may be generated more than once,
+ but only one copy is kept.
+ */
+public class NoiseTileCache
+{
+	/**
+	 The identification of a tile: the noise that generates it, and its position and resolution.
+	 */
+	public static final class TileKey
+	{
+		/**
+		 The seed of the noise.
+		 */
+		public final long seed;
+
+		/**
+		 A description of the noise's configuration, such as its octaves, usable as a file name.
+		 */
+		public final String configuration;
+
+		/**
+		 The tile's coordinates, in tiles.
+		 */
+		public final int x;
+		public final int y;
+		public final int z;
+
+		/**
+		 The number of samples per side of the tile.
+		 */
+		public final int resolution;
+
+		public TileKey(long seed, String configuration, int x, int y, int z, int resolution)
+		{
+			this.seed = seed;
+			this.configuration = configuration;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.resolution = resolution;
+		}
+
+		/**
+		 @return The number of samples of the tile.
+		 */
+		public int getSampleCount()
+		{
+			return resolution * resolution;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			int hash = Long.hashCode(seed);
+			hash = 31 * hash + configuration.hashCode();
+			hash = 31 * hash + x;
+			hash = 31 * hash + y;
+			hash = 31 * hash + z;
+			return 31 * hash + resolution;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof TileKey))
+			{
+				return false;
+			}
+			TileKey other = (TileKey) o;
+			return seed == other.seed && configuration.equals(other.configuration)
+				&& x == other.x && y == other.y && z == other.z && resolution == other.resolution;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "[" + seed + ", " + configuration + ", " + x + ", " + y + ", " + z + ", " + resolution + "]";
+		}
+	}
+
+	/**
+	 Generates a tile.
+	 */
+	@FunctionalInterface
+	public interface TileGenerator
+	{
+		/**
+		 @param key The tile to generate.
+		 @return The tile's samples, key.getSampleCount() of them, row by row.
+		 */
+		double[] generate(TileKey key);
+	}
+
+	/**
+	 The generator of missing tiles.
+	 */
+	private final TileGenerator generator;
+
+	/**
+	 The tiles in memory, from the least recently used.
+	 */
+	private final LinkedHashMap<TileKey, double[]> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 The largest number of bytes of the tiles kept in memory.
+	 */
+	private final long maxBytes;
+
+	/**
+	 The number of bytes of the tiles in memory.
+	 */
+	private long bytes;
+
+	/**
+	 The disk cache, or null to keep tiles in memory only.
+	 */
+	private final CacheStrategy diskCache;
+
+	/**
+	 Statistics: the tiles found in memory, the tiles read from disk, the tiles generated, and the tiles evicted from
+	 memory.
+	 */
+	private long hits;
+	private long diskHits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 Builds a cache keeping tiles in memory only.
+
+	 @param generator The generator of missing tiles.
+	 @param maxBytes The largest number of bytes of the tiles kept in memory.
+	 */
+	public NoiseTileCache(TileGenerator generator, long maxBytes)
+	{
+		this(generator, maxBytes, null);
+	}
+
+	/**
+	 Builds a cache keeping tiles in memory, and on disk.
+
+	 @param generator The generator of missing tiles.
+	 @param maxBytes The largest number of bytes of the tiles kept in memory.
+	 @param diskCache The disk cache tiles are written to, or null to keep tiles in memory only.
+	 */
+	public NoiseTileCache(TileGenerator generator, long maxBytes, CacheStrategy diskCache)
+	{
+		this.generator = generator;
+		this.maxBytes = maxBytes;
+		this.diskCache = diskCache;
+	}
+
+	/**
+	 Gets a tile, from memory, from disk, or by generating it.
+
+	 @param key The tile.
+	 @return The tile's samples, row by row. They are shared, and must not be modified.
+	 */
+	public double[] get(TileKey key)
+	{
+		synchronized (this)
+		{
+			double[] tile = tiles.get(key);
+			if (tile != null)
+			{
+				hits++;
+				return tile;
+			}
+		}
+
+		double[] tile = diskCache == null ? generate(key) : load(key);
+
+		synchronized (this)
+		{
+			// Another thread may have brought the same tile meanwhile.
+			double[] existingTile = tiles.get(key);
+			if (existingTile != null)
+			{
+				return existingTile;
+			}
+			tiles.put(key, tile);
+			bytes += (long) tile.length * Double.BYTES;
+			evict();
+		}
+		return tile;
+	}
+
+	private double[] generate(TileKey key)
+	{
+		double[] tile = generator.generate(key);
+		synchronized (this)
+		{
+			misses++;
+		}
+		return tile;
+	}
+
+	/**
+	 Reads a tile from disk, generating and writing it first if needed.
+	 */
+	private double[] load(TileKey key)
+	{
+		double[][] generatedTile = new double[1][];
+		try
+		{
+			File file = diskCache.getFile(newFile -> generatedTile[0] = write(newFile, generate(key)),
+				key.seed, key.configuration, key.resolution, key.z, key.y, key.x);
+			if (generatedTile[0] != null)
+			{
+				return generatedTile[0];
+			}
+
+			byte[] content = Files.readAllBytes(file.toPath());
+			if (content.length != key.getSampleCount() * Double.BYTES)
+			{
+				// An incomplete file, as left by an interrupted write.
+				return write(file, generate(key));
+			}
+			double[] tile = new double[key.getSampleCount()];
+			ByteBuffer.wrap(content).asDoubleBuffer().get(tile);
+			synchronized (this)
+			{
+				diskHits++;
+			}
+			return tile;
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 Writes a tile to a file.
+
+	 @return The tile.
+	 */
+	private static double[] write(File file, double[] tile)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(tile.length * Double.BYTES);
+		buffer.asDoubleBuffer().put(tile);
+		try
+		{
+			Files.write(file.toPath(), buffer.array());
+		}
+		catch (IOException ex)
+		{
+			throw new UncheckedIOException(ex);
+		}
+		return tile;
+	}
+
+	/**
+	 Evicts the least recently used tiles until the memory bound is met, keeping at least the last one.
+	 */
+	private void evict()
+	{
+		Iterator<Map.Entry<TileKey, double[]>> iterator = tiles.entrySet().iterator();
+		while (bytes > maxBytes && tiles.size() > 1)
+		{
+			bytes -= (long) iterator.next().getValue().length * Double.BYTES;
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 Empties the memory part of the cache. The disk part, and the statistics, are kept.
+	 */
+	public synchronized void clear()
+	{
+		tiles.clear();
+		bytes = 0;
+	}
+
+	/**
+	 @return The number of tiles in memory.
+	 */
+	public synchronized int size()
+	{
+		return tiles.size();
+	}
+
+	/**
+	 @return The number of bytes of the tiles in memory.
+	 */
+	public synchronized long getBytes()
+	{
+		return bytes;
+	}
+
+	/**
+	 @return The number of tiles found in memory.
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 @return The number of tiles read from disk.
+	 */
+	public synchronized long getDiskHits()
+	{
+		return diskHits;
+	}
+
+	/**
+	 @return The number of tiles generated.
+	 */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	/**
+	 @return The number of tiles evicted from memory.
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 @return The ratio of the requests served without generating a tile, or 0 if there was none.
+	 */
+	public synchronized double getHitRatio()
+	{
+		long requests = hits + diskHits + misses;
+		return requests == 0 ? 0 : (double) (hits + diskHits) / requests;
+	}
+
+	/**
+	 Resets the statistics.
+	 */
+	public synchronized void resetStatistics()
+	{
+		hits = 0;
+		diskHits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "NoiseTileCache[" + tiles.size() + " tiles, " + bytes + " bytes, " + hits + " hits, " + diskHits
+			+ " disk hits, " + misses + " misses, " + evictions + " evictions]";
+	}
+}
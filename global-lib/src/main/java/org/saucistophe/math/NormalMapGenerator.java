@@ -0,0 +1,82 @@
+package org.saucistophe.math;
+
+import org.saucistophe.utils.ColorUtils;
+
+/**
+ Paints normal maps of OpenSimplex noise height fields into ARGB rasters.
+ The slopes come from the noise's analytic derivatives, in the same pass as the heights, rather than from finite
+ differences needing extra evaluations per pixel. Normals are encoded as usual: each coordinate, in [-1, 1], is
+ mapped by ColorUtils.vectorToNormal to the red, green and blue channels; green points up the image, as in OpenGL.
+ */
+public class NormalMapGenerator
+{
+	/**
+	 Paints the normal map of a 2D noise height field.
+
+	 @param generator The generator running the tiles.
+	 @param raster The raster to fill, row by row; pixel (i, j) is at index j * width + i.
+	 @param width The width of the raster, in pixels.
+	 @param height The height of the raster, in pixels.
+	 @param x0 The x of the pixel (0, 0).
+	 @param y0 The y of the pixel (0, 0), rows going down with y.
+	 @param pixelSize The distance between two neighbouring pixels.
+	 @param strength The ratio between a height and a horizontal distance: higher values give steeper bumps.
+	 @param noise The noise giving the heights.
+	 */
+	public static void fill(NoiseFieldGenerator generator, int[] raster, int width, int height, double x0, double y0, double pixelSize, double strength, OpenSimplexNoise noise)
+	{
+		generator.forEachTile(width, height, 1, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			double[] gradient = new double[2];
+			for (int j = fromRow; j < toRow; j++)
+			{
+				double y = y0 + j * pixelSize;
+				for (int i = fromColumn; i < toColumn; i++)
+				{
+					noise.eval(x0 + i * pixelSize, y, gradient);
+					raster[j * width + i] = toNormal(strength * gradient[0], strength * gradient[1]);
+				}
+			}
+		});
+	}
+
+	/**
+	 Paints the normal map of a slice of a 3D noise height field, such as a frame of animated noise.
+
+	 @param z The z of the slice.
+	 @see #fill(NoiseFieldGenerator, int[], int, int, double, double, double, double, OpenSimplexNoise)
+	 */
+	public static void fill(NoiseFieldGenerator generator, int[] raster, int width, int height, double x0, double y0, double z, double pixelSize, double strength, OpenSimplexNoise noise)
+	{
+		generator.forEachTile(width, height, 1, (fromColumn, toColumn, fromRow, toRow, layer) ->
+		{
+			double[] gradient = new double[3];
+			for (int j = fromRow; j < toRow; j++)
+			{
+				double y = y0 + j * pixelSize;
+				for (int i = fromColumn; i < toColumn; i++)
+				{
+					noise.eval(x0 + i * pixelSize, y, z, gradient);
+					raster[j * width + i] = toNormal(strength * gradient[0], strength * gradient[1]);
+				}
+			}
+		});
+	}
+
+	/**
+	 Encodes the normal of a surface.
+
+	 @param xSlope The height's derivative along x.
+	 @param ySlope The height's derivative along y, y going down the image.
+	 @return The ARGB encoding of the normal.
+	 */
+	static int toNormal(double xSlope, double ySlope)
+	{
+		// The normal is (-xSlope, -ySlope, 1) with y going down, hence (-xSlope, ySlope, 1) with y going up.
+		double norm = Math.sqrt(xSlope * xSlope + ySlope * ySlope + 1);
+		return 0xFF000000
+			| ColorUtils.vectorToNormal(-xSlope / norm) << 16
+			| ColorUtils.vectorToNormal(ySlope / norm) << 8
+			| ColorUtils.vectorToNormal(1 / norm);
+	}
+}
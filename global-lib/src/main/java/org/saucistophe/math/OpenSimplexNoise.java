@@ -1,5 +1,6 @@
 package org.saucistophe.math;
 
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 /*
@@ -31,6 +32,20 @@ public class OpenSimplexNoise
 	private static final double NORM_CONSTANT_3D = 103;
 	private static final double NORM_CONSTANT_4D = 30;
 
+	//Distance beyond which a lattice vertex does not contribute.
+	private static final double KERNEL_RADIUS = Math.sqrt(2);
+
+	//Side of the tiles grids are filled by, in samples.
+	private static final int FILL_TILE_SIZE = 64;
+
+	//Largest side of a tile, in noise units: most vertices within reach of a larger tile reach none of its samples.
+	private static final double FILL_TILE_EXTENT = 16;
+
+	//Area per sample above which grids are filled sample by sample, in 2D, 3D and 4D.
+	private static final double SPARSE_SAMPLE_AREA_2D = 0.09;
+	private static final double SPARSE_SAMPLE_AREA_3D = 0.35;
+	private static final double SPARSE_SAMPLE_AREA_4D = 0.2;
+
 	private static final long DEFAULT_SEED = 0;
 
 	private short[] perm;
@@ -54,12 +69,16 @@ public class OpenSimplexNoise
 	}
 
 	//Initializes the class using a permutation array generated from a 64-bit seed.
-	//Generates a proper permutation (i.e. doesn't merely perform N successive pair swaps on a base array)
-	//Uses a simple 64-bit LCG.
 	public OpenSimplexNoise(long seed)
 	{
-		perm = new short[256];
-		permGradIndex3D = new short[256];
+		this(permutation(seed));
+	}
+
+	//Generates a proper permutation (i.e. doesn't merely perform N successive pair swaps on a base array)
+	//from a 64-bit seed. Uses a simple 64-bit LCG.
+	static short[] permutation(long seed)
+	{
+		short[] perm = new short[256];
 		short[] source = new short[256];
 		for (short i = 0; i < 256; i++)
 		{
@@ -77,13 +96,25 @@ public class OpenSimplexNoise
 				r += (i + 1);
 			}
 			perm[i] = source[r];
-			permGradIndex3D[i] = (short) ((perm[i] % (gradients3D.length / 3)) * 3);
 			source[r] = source[i];
 		}
+		return perm;
 	}
 
 	//2D OpenSimplex Noise.
 	public double eval(double x, double y)
+	{
+		return eval(x, y, null);
+	}
+
+	//3D OpenSimplex Noise.
+	public double eval(double x, double y, double z)
+	{
+		return eval(x, y, z, null);
+	}
+
+	//2D OpenSimplex Noise, with its partial derivatives written to gradient[0] and gradient[1] unless gradient is null.
+	public double eval(double x, double y, double[] gradient)
 	{
 
 		//Place input coordinates onto grid.
@@ -116,6 +147,11 @@ public class OpenSimplexNoise
 		int xsv_ext, ysv_ext;
 
 		double value = 0;
+		if (gradient != null)
+		{
+			gradient[0] = 0;
+			gradient[1] = 0;
+		}
 
 		//Contribution (1,0)
 		double dx1 = dx0 - 1 - SQUISH_CONSTANT_2D;
@@ -123,8 +159,7 @@ public class OpenSimplexNoise
 		double attn1 = 2 - dx1 * dx1 - dy1 * dy1;
 		if (attn1 > 0)
 		{
-			attn1 *= attn1;
-			value += attn1 * attn1 * extrapolate(xsb + 1, ysb + 0, dx1, dy1);
+			value += contribute(gradient, attn1, xsb + 1, ysb + 0, dx1, dy1);
 		}
 
 		//Contribution (0,1)
@@ -133,8 +168,7 @@ public class OpenSimplexNoise
 		double attn2 = 2 - dx2 * dx2 - dy2 * dy2;
 		if (attn2 > 0)
 		{
-			attn2 *= attn2;
-			value += attn2 * attn2 * extrapolate(xsb + 0, ysb + 1, dx2, dy2);
+			value += contribute(gradient, attn2, xsb + 0, ysb + 1, dx2, dy2);
 		}
 
 		if (inSum <= 1)
@@ -202,23 +236,27 @@ public class OpenSimplexNoise
 		double attn0 = 2 - dx0 * dx0 - dy0 * dy0;
 		if (attn0 > 0)
 		{
-			attn0 *= attn0;
-			value += attn0 * attn0 * extrapolate(xsb, ysb, dx0, dy0);
+			value += contribute(gradient, attn0, xsb, ysb, dx0, dy0);
 		}
 
 		//Extra Vertex
 		double attn_ext = 2 - dx_ext * dx_ext - dy_ext * dy_ext;
 		if (attn_ext > 0)
 		{
-			attn_ext *= attn_ext;
-			value += attn_ext * attn_ext * extrapolate(xsv_ext, ysv_ext, dx_ext, dy_ext);
+			value += contribute(gradient, attn_ext, xsv_ext, ysv_ext, dx_ext, dy_ext);
 		}
 
+		if (gradient != null)
+		{
+			gradient[0] /= NORM_CONSTANT_2D;
+			gradient[1] /= NORM_CONSTANT_2D;
+		}
 		return value / NORM_CONSTANT_2D;
 	}
 
-	//3D OpenSimplex Noise.
-	public double eval(double x, double y, double z)
+	//3D OpenSimplex Noise, with its partial derivatives written to gradient[0], gradient[1] and gradient[2] unless gradient
+	//is null.
+	public double eval(double x, double y, double z, double[] gradient)
 	{
 
 		//Place input coordinates on simplectic honeycomb.
@@ -258,6 +296,12 @@ public class OpenSimplexNoise
 		int xsv_ext1, ysv_ext1, zsv_ext1;
 
 		double value = 0;
+		if (gradient != null)
+		{
+			gradient[0] = 0;
+			gradient[1] = 0;
+			gradient[2] = 0;
+		}
 		if (inSum <= 1)
 		{ //We're inside the tetrahedron (3-Simplex) at (0,0,0)
 
@@ -382,8 +426,7 @@ public class OpenSimplexNoise
 			double attn0 = 2 - dx0 * dx0 - dy0 * dy0 - dz0 * dz0;
 			if (attn0 > 0)
 			{
-				attn0 *= attn0;
-				value += attn0 * attn0 * extrapolate(xsb + 0, ysb + 0, zsb + 0, dx0, dy0, dz0);
+				value += contribute(gradient, attn0, xsb + 0, ysb + 0, zsb + 0, dx0, dy0, dz0);
 			}
 
 			//Contribution (1,0,0)
@@ -393,8 +436,7 @@ public class OpenSimplexNoise
 			double attn1 = 2 - dx1 * dx1 - dy1 * dy1 - dz1 * dz1;
 			if (attn1 > 0)
 			{
-				attn1 *= attn1;
-				value += attn1 * attn1 * extrapolate(xsb + 1, ysb + 0, zsb + 0, dx1, dy1, dz1);
+				value += contribute(gradient, attn1, xsb + 1, ysb + 0, zsb + 0, dx1, dy1, dz1);
 			}
 
 			//Contribution (0,1,0)
@@ -404,8 +446,7 @@ public class OpenSimplexNoise
 			double attn2 = 2 - dx2 * dx2 - dy2 * dy2 - dz2 * dz2;
 			if (attn2 > 0)
 			{
-				attn2 *= attn2;
-				value += attn2 * attn2 * extrapolate(xsb + 0, ysb + 1, zsb + 0, dx2, dy2, dz2);
+				value += contribute(gradient, attn2, xsb + 0, ysb + 1, zsb + 0, dx2, dy2, dz2);
 			}
 
 			//Contribution (0,0,1)
@@ -415,8 +456,7 @@ public class OpenSimplexNoise
 			double attn3 = 2 - dx3 * dx3 - dy3 * dy3 - dz3 * dz3;
 			if (attn3 > 0)
 			{
-				attn3 *= attn3;
-				value += attn3 * attn3 * extrapolate(xsb + 0, ysb + 0, zsb + 1, dx3, dy3, dz3);
+				value += contribute(gradient, attn3, xsb + 0, ysb + 0, zsb + 1, dx3, dy3, dz3);
 			}
 		}
 		else if (inSum >= 2)
@@ -546,8 +586,7 @@ public class OpenSimplexNoise
 			double attn3 = 2 - dx3 * dx3 - dy3 * dy3 - dz3 * dz3;
 			if (attn3 > 0)
 			{
-				attn3 *= attn3;
-				value += attn3 * attn3 * extrapolate(xsb + 1, ysb + 1, zsb + 0, dx3, dy3, dz3);
+				value += contribute(gradient, attn3, xsb + 1, ysb + 1, zsb + 0, dx3, dy3, dz3);
 			}
 
 			//Contribution (1,0,1)
@@ -557,8 +596,7 @@ public class OpenSimplexNoise
 			double attn2 = 2 - dx2 * dx2 - dy2 * dy2 - dz2 * dz2;
 			if (attn2 > 0)
 			{
-				attn2 *= attn2;
-				value += attn2 * attn2 * extrapolate(xsb + 1, ysb + 0, zsb + 1, dx2, dy2, dz2);
+				value += contribute(gradient, attn2, xsb + 1, ysb + 0, zsb + 1, dx2, dy2, dz2);
 			}
 
 			//Contribution (0,1,1)
@@ -568,8 +606,7 @@ public class OpenSimplexNoise
 			double attn1 = 2 - dx1 * dx1 - dy1 * dy1 - dz1 * dz1;
 			if (attn1 > 0)
 			{
-				attn1 *= attn1;
-				value += attn1 * attn1 * extrapolate(xsb + 0, ysb + 1, zsb + 1, dx1, dy1, dz1);
+				value += contribute(gradient, attn1, xsb + 0, ysb + 1, zsb + 1, dx1, dy1, dz1);
 			}
 
 			//Contribution (1,1,1)
@@ -579,8 +616,7 @@ public class OpenSimplexNoise
 			double attn0 = 2 - dx0 * dx0 - dy0 * dy0 - dz0 * dz0;
 			if (attn0 > 0)
 			{
-				attn0 *= attn0;
-				value += attn0 * attn0 * extrapolate(xsb + 1, ysb + 1, zsb + 1, dx0, dy0, dz0);
+				value += contribute(gradient, attn0, xsb + 1, ysb + 1, zsb + 1, dx0, dy0, dz0);
 			}
 		}
 		else
@@ -817,8 +853,7 @@ public class OpenSimplexNoise
 			double attn1 = 2 - dx1 * dx1 - dy1 * dy1 - dz1 * dz1;
 			if (attn1 > 0)
 			{
-				attn1 *= attn1;
-				value += attn1 * attn1 * extrapolate(xsb + 1, ysb + 0, zsb + 0, dx1, dy1, dz1);
+				value += contribute(gradient, attn1, xsb + 1, ysb + 0, zsb + 0, dx1, dy1, dz1);
 			}
 
 			//Contribution (0,1,0)
@@ -828,8 +863,7 @@ public class OpenSimplexNoise
 			double attn2 = 2 - dx2 * dx2 - dy2 * dy2 - dz2 * dz2;
 			if (attn2 > 0)
 			{
-				attn2 *= attn2;
-				value += attn2 * attn2 * extrapolate(xsb + 0, ysb + 1, zsb + 0, dx2, dy2, dz2);
+				value += contribute(gradient, attn2, xsb + 0, ysb + 1, zsb + 0, dx2, dy2, dz2);
 			}
 
 			//Contribution (0,0,1)
@@ -839,8 +873,7 @@ public class OpenSimplexNoise
 			double attn3 = 2 - dx3 * dx3 - dy3 * dy3 - dz3 * dz3;
 			if (attn3 > 0)
 			{
-				attn3 *= attn3;
-				value += attn3 * attn3 * extrapolate(xsb + 0, ysb + 0, zsb + 1, dx3, dy3, dz3);
+				value += contribute(gradient, attn3, xsb + 0, ysb + 0, zsb + 1, dx3, dy3, dz3);
 			}
 
 			//Contribution (1,1,0)
@@ -850,8 +883,7 @@ public class OpenSimplexNoise
 			double attn4 = 2 - dx4 * dx4 - dy4 * dy4 - dz4 * dz4;
 			if (attn4 > 0)
 			{
-				attn4 *= attn4;
-				value += attn4 * attn4 * extrapolate(xsb + 1, ysb + 1, zsb + 0, dx4, dy4, dz4);
+				value += contribute(gradient, attn4, xsb + 1, ysb + 1, zsb + 0, dx4, dy4, dz4);
 			}
 
 			//Contribution (1,0,1)
@@ -861,8 +893,7 @@ public class OpenSimplexNoise
 			double attn5 = 2 - dx5 * dx5 - dy5 * dy5 - dz5 * dz5;
 			if (attn5 > 0)
 			{
-				attn5 *= attn5;
-				value += attn5 * attn5 * extrapolate(xsb + 1, ysb + 0, zsb + 1, dx5, dy5, dz5);
+				value += contribute(gradient, attn5, xsb + 1, ysb + 0, zsb + 1, dx5, dy5, dz5);
 			}
 
 			//Contribution (0,1,1)
@@ -872,8 +903,7 @@ public class OpenSimplexNoise
 			double attn6 = 2 - dx6 * dx6 - dy6 * dy6 - dz6 * dz6;
 			if (attn6 > 0)
 			{
-				attn6 *= attn6;
-				value += attn6 * attn6 * extrapolate(xsb + 0, ysb + 1, zsb + 1, dx6, dy6, dz6);
+				value += contribute(gradient, attn6, xsb + 0, ysb + 1, zsb + 1, dx6, dy6, dz6);
 			}
 		}
 
@@ -881,19 +911,23 @@ public class OpenSimplexNoise
 		double attn_ext0 = 2 - dx_ext0 * dx_ext0 - dy_ext0 * dy_ext0 - dz_ext0 * dz_ext0;
 		if (attn_ext0 > 0)
 		{
-			attn_ext0 *= attn_ext0;
-			value += attn_ext0 * attn_ext0 * extrapolate(xsv_ext0, ysv_ext0, zsv_ext0, dx_ext0, dy_ext0, dz_ext0);
+			value += contribute(gradient, attn_ext0, xsv_ext0, ysv_ext0, zsv_ext0, dx_ext0, dy_ext0, dz_ext0);
 		}
 
 		//Second extra vertex
 		double attn_ext1 = 2 - dx_ext1 * dx_ext1 - dy_ext1 * dy_ext1 - dz_ext1 * dz_ext1;
 		if (attn_ext1 > 0)
 		{
-			attn_ext1 *= attn_ext1;
-			value += attn_ext1 * attn_ext1 * extrapolate(xsv_ext1, ysv_ext1, zsv_ext1, dx_ext1, dy_ext1, dz_ext1);
+			value += contribute(gradient, attn_ext1, xsv_ext1, ysv_ext1, zsv_ext1, dx_ext1, dy_ext1, dz_ext1);
 		}
 		
 		value = value / NORM_CONSTANT_3D;
+		if (gradient != null)
+		{
+			gradient[0] /= NORM_CONSTANT_3D;
+			gradient[1] /= NORM_CONSTANT_3D;
+			gradient[2] /= NORM_CONSTANT_3D;
+		}
 
 		return value;
 	}
@@ -2531,19 +2565,430 @@ public class OpenSimplexNoise
 		return value / NORM_CONSTANT_4D;
 	}
 
-	private double extrapolate(int xsb, int ysb, double dx, double dy)
+	/**
+	 Fills a grid with 2D noise: out[j * width + i] receives eval(x0 + i * dx, y0 + j * dy).
+	 Rather than locating each sample in the lattice, each lattice vertex near the grid adds its contribution to the
+	 samples it reaches, row by row; the grid is processed by tiles, to stay in cache. This gives the same values as
+	 eval, up to rounding. Sparse grids, with steps above 0.3, are evaluated sample by sample instead.
+
+	 @param out The array receiving the values, row by row.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param dx The x step between two samples of a row, positive.
+	 @param dy The y step between two rows, positive.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void fill(double[] out, double x0, double y0, double dx, double dy, int width, int height)
+	{
+		fill(out, x0, y0, 0, 0, dx, dy, width, height, 2);
+	}
+
+	/**
+	 Fills a grid with a slice of 3D noise: out[j * width + i] receives the sum of the contributions of every lattice
+	 vertex within reach of (x0 + i * dx, y0 + j * dy, z), each vertex adding its contribution to the samples it reaches.
+	 This depends on the sample's position only, whatever the steps and the grid it belongs to, so that zooming or panning
+	 over a map does not change its values. Sparse grids sum the vertices within reach of each sample instead, which gives
+	 the same values up to rounding.
+	 It is not eval: eval only considers a fixed set of vertices around each sample, and misses some far ones, whose
+	 contributions are tiny. Both differ by a few 1e-5 typically, and by less than 1e-3 over the tested samples.
+
+	 @param out The array receiving the values, row by row.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param z The z of the slice.
+	 @param dx The x step between two samples of a row, positive.
+	 @param dy The y step between two rows, positive.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void fill(double[] out, double x0, double y0, double z, double dx, double dy, int width, int height)
+	{
+		fill(out, x0, y0, z, 0, dx, dy, width, height, 3);
+	}
+
+	/**
+	 Fills a grid with a slice of 4D noise: out[j * width + i] receives the sum of the contributions of every lattice
+	 vertex within reach of (x0 + i * dx, y0 + j * dy, z, w), each vertex adding its contribution to the samples it
+	 reaches. As in 3D, this depends on the sample's position only, and differs from eval by a few 1e-4 typically, and by
+	 less than 1e-3 over the tested samples.
+
+	 @param out The array receiving the values, row by row.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param z The z of the slice.
+	 @param w The w of the slice.
+	 @param dx The x step between two samples of a row, positive.
+	 @param dy The y step between two rows, positive.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void fill(double[] out, double x0, double y0, double z, double w, double dx, double dy, int width, int height)
+	{
+		fill(out, x0, y0, z, w, dx, dy, width, height, 4);
+	}
+
+	/**
+	 Fills a grid with a slice of noise, tile by tile.
+
+	 @param dimensions 2, 3 or 4; z and w are ignored if they are not part of the noise.
+	 */
+	private void fill(double[] out, double x0, double y0, double z, double w, double dx, double dy, int width, int height, int dimensions)
+	{
+		assert (dx > 0 && dy > 0 && out.length >= width * height);
+
+		// Sparse samples share too few vertices for scattering to pay off. Only in 2D does eval give the same values: in
+		// 3D and 4D, the vertices within reach of each sample are summed instead, not to make the values depend on the
+		// steps.
+		if (dx * dy > (dimensions == 2 ? SPARSE_SAMPLE_AREA_2D : dimensions == 3 ? SPARSE_SAMPLE_AREA_3D : SPARSE_SAMPLE_AREA_4D))
+		{
+			for (int j = 0; j < height; j++)
+			{
+				for (int i = 0; i < width; i++)
+				{
+					double x = x0 + i * dx;
+					double y = y0 + j * dy;
+					out[j * width + i] = dimensions == 2 ? eval(x, y) : dimensions == 3 ? sumWithinReach(x, y, z) : sumWithinReach(x, y, z, w);
+				}
+			}
+			return;
+		}
+
+		Arrays.fill(out, 0, Math.max(width * height, 0), 0);
+
+		int[] min = new int[4];
+		int[] max = new int[4];
+		int tileWidth = (int) Math.max(Math.min(FILL_TILE_EXTENT / dx, FILL_TILE_SIZE), 1);
+		int tileHeight = (int) Math.max(Math.min(FILL_TILE_EXTENT / dy, FILL_TILE_SIZE), 1);
+		for (int fromRow = 0; fromRow < height; fromRow += tileHeight)
+		{
+			int toRow = Math.min(fromRow + tileHeight, height);
+			for (int fromColumn = 0; fromColumn < width; fromColumn += tileWidth)
+			{
+				int toColumn = Math.min(fromColumn + tileWidth, width);
+
+				// Bound the stretched coordinates of the vertices within reach of the tile, over the corners of the
+				// region they lie in.
+				Arrays.fill(min, Integer.MAX_VALUE);
+				Arrays.fill(max, Integer.MIN_VALUE);
+				for (int corner = 0; corner < 1 << dimensions; corner++)
+				{
+					double x = x0 + ((corner & 1) == 0 ? fromColumn * dx - KERNEL_RADIUS : (toColumn - 1) * dx + KERNEL_RADIUS);
+					double y = y0 + ((corner & 2) == 0 ? fromRow * dy - KERNEL_RADIUS : (toRow - 1) * dy + KERNEL_RADIUS);
+					double zc = z + ((corner & 4) == 0 ? -KERNEL_RADIUS : KERNEL_RADIUS);
+					double wc = w + ((corner & 8) == 0 ? -KERNEL_RADIUS : KERNEL_RADIUS);
+					double stretchOffset = dimensions == 2 ? (x + y) * STRETCH_CONSTANT_2D
+						: dimensions == 3 ? (x + y + zc) * STRETCH_CONSTANT_3D
+						: (x + y + zc + wc) * STRETCH_CONSTANT_4D;
+					updateBounds(min, max, 0, x + stretchOffset);
+					updateBounds(min, max, 1, y + stretchOffset);
+					updateBounds(min, max, 2, zc + stretchOffset);
+					updateBounds(min, max, 3, wc + stretchOffset);
+				}
+
+				if (dimensions == 2)
+				{
+					for (int xsb = min[0]; xsb <= max[0]; xsb++)
+					{
+						for (int ysb = min[1]; ysb <= max[1]; ysb++)
+						{
+							double squishOffset = (xsb + ysb) * SQUISH_CONSTANT_2D;
+							int index = perm[(perm[xsb & 0xFF] + ysb) & 0xFF] & 0x0E;
+							scatter(out, x0, y0, dx, dy, width, fromColumn, toColumn, fromRow, toRow, xsb + squishOffset, ysb + squishOffset, 2,
+								gradients2D[index], gradients2D[index + 1], 0);
+						}
+					}
+				}
+				else if (dimensions == 3)
+				{
+					for (int xsb = min[0]; xsb <= max[0]; xsb++)
+					{
+						for (int ysb = min[1]; ysb <= max[1]; ysb++)
+						{
+							for (int zsb = min[2]; zsb <= max[2]; zsb++)
+							{
+								double squishOffset = (xsb + ysb + zsb) * SQUISH_CONSTANT_3D;
+								double dz = z - (zsb + squishOffset);
+								double remaining = 2 - dz * dz;
+								if (remaining > 0)
+								{
+									int index = permGradIndex3D[(perm[(perm[xsb & 0xFF] + ysb) & 0xFF] + zsb) & 0xFF];
+									scatter(out, x0, y0, dx, dy, width, fromColumn, toColumn, fromRow, toRow, xsb + squishOffset, ysb + squishOffset, remaining,
+										gradients3D[index], gradients3D[index + 1], gradients3D[index + 2] * dz);
+								}
+							}
+						}
+					}
+				}
+				else
+				{
+					for (int xsb = min[0]; xsb <= max[0]; xsb++)
+					{
+						for (int ysb = min[1]; ysb <= max[1]; ysb++)
+						{
+							for (int zsb = min[2]; zsb <= max[2]; zsb++)
+							{
+								for (int wsb = min[3]; wsb <= max[3]; wsb++)
+								{
+									double squishOffset = (xsb + ysb + zsb + wsb) * SQUISH_CONSTANT_4D;
+									double dz = z - (zsb + squishOffset);
+									double dw = w - (wsb + squishOffset);
+									double remaining = 2 - dz * dz - dw * dw;
+									if (remaining > 0)
+									{
+										int index = perm[(perm[(perm[(perm[xsb & 0xFF] + ysb) & 0xFF] + zsb) & 0xFF] + wsb) & 0xFF] & 0xFC;
+										scatter(out, x0, y0, dx, dy, width, fromColumn, toColumn, fromRow, toRow, xsb + squishOffset, ysb + squishOffset, remaining,
+											gradients4D[index], gradients4D[index + 1], gradients4D[index + 2] * dz + gradients4D[index + 3] * dw);
+									}
+								}
+							}
+						}
+					}
+				}
+
+				double norm = dimensions == 2 ? NORM_CONSTANT_2D : dimensions == 3 ? NORM_CONSTANT_3D : NORM_CONSTANT_4D;
+				for (int j = fromRow; j < toRow; j++)
+				{
+					for (int i = j * width + fromColumn; i < j * width + toColumn; i++)
+					{
+						out[i] /= norm;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 Sums the contributions of every lattice vertex within reach of a 3D point, as scattering does: fill's value for a
+	 single sample.
+	 */
+	private double sumWithinReach(double x, double y, double z)
+	{
+		double stretchOffset = (x + y + z) * STRETCH_CONSTANT_3D;
+		double xs = x + stretchOffset;
+		double ys = y + stretchOffset;
+		double zs = z + stretchOffset;
+
+		double value = 0;
+		double xSpread = offsetSpread(0, 0, 2);
+		double xHalfWidth = Math.sqrt(xSpread);
+		int lastXsv = fastFloor(xs + xHalfWidth);
+		for (int xsv = (int) Math.ceil(xs - xHalfWidth); xsv <= lastXsv; xsv++)
+		{
+			double ex = xsv - xs;
+			double ySpread = offsetSpread(ex * ex, ex, 1);
+			if (ySpread <= 0)
+			{
+				continue;
+			}
+			double yCenter = ys - ex * (1.0 / 3);
+			double yHalfWidth = Math.sqrt(ySpread);
+			int lastYsv = fastFloor(yCenter + yHalfWidth);
+			for (int ysv = (int) Math.ceil(yCenter - yHalfWidth); ysv <= lastYsv; ysv++)
+			{
+				double ey = ysv - ys;
+				double zSpread = offsetSpread(ex * ex + ey * ey, ex + ey, 0);
+				if (zSpread <= 0)
+				{
+					continue;
+				}
+				double zCenter = zs - (ex + ey) * 0.5;
+				double zHalfWidth = Math.sqrt(zSpread);
+				int lastZsv = fastFloor(zCenter + zHalfWidth);
+				for (int zsv = (int) Math.ceil(zCenter - zHalfWidth); zsv <= lastZsv; zsv++)
+				{
+					double squishOffset = (xsv + ysv + zsv) * SQUISH_CONSTANT_3D;
+					double dx = x - (xsv + squishOffset);
+					double dy = y - (ysv + squishOffset);
+					double dz = z - (zsv + squishOffset);
+					double attn = 2 - dx * dx - dy * dy - dz * dz;
+					if (attn > 0)
+					{
+						value += contribute(null, attn, xsv, ysv, zsv, dx, dy, dz);
+					}
+				}
+			}
+		}
+		return value / NORM_CONSTANT_3D;
+	}
+
+	/**
+	 Sums the contributions of every lattice vertex within reach of a 4D point, as scattering does: fill's value for a
+	 single sample.
+	 */
+	private double sumWithinReach(double x, double y, double z, double w)
+	{
+		double stretchOffset = (x + y + z + w) * STRETCH_CONSTANT_4D;
+		double xs = x + stretchOffset;
+		double ys = y + stretchOffset;
+		double zs = z + stretchOffset;
+		double ws = w + stretchOffset;
+
+		double value = 0;
+		double xSpread = offsetSpread(0, 0, 3);
+		double xHalfWidth = Math.sqrt(xSpread);
+		int lastXsv = fastFloor(xs + xHalfWidth);
+		for (int xsv = (int) Math.ceil(xs - xHalfWidth); xsv <= lastXsv; xsv++)
+		{
+			double ex = xsv - xs;
+			double ySpread = offsetSpread(ex * ex, ex, 2);
+			if (ySpread <= 0)
+			{
+				continue;
+			}
+			double yCenter = ys - ex * 0.25;
+			double yHalfWidth = Math.sqrt(ySpread);
+			int lastYsv = fastFloor(yCenter + yHalfWidth);
+			for (int ysv = (int) Math.ceil(yCenter - yHalfWidth); ysv <= lastYsv; ysv++)
+			{
+				double ey = ysv - ys;
+				double zSpread = offsetSpread(ex * ex + ey * ey, ex + ey, 1);
+				if (zSpread <= 0)
+				{
+					continue;
+				}
+				double zCenter = zs - (ex + ey) * (1.0 / 3);
+				double zHalfWidth = Math.sqrt(zSpread);
+				int lastZsv = fastFloor(zCenter + zHalfWidth);
+				for (int zsv = (int) Math.ceil(zCenter - zHalfWidth); zsv <= lastZsv; zsv++)
+				{
+					double ez = zsv - zs;
+					double wSpread = offsetSpread(ex * ex + ey * ey + ez * ez, ex + ey + ez, 0);
+					if (wSpread <= 0)
+					{
+						continue;
+					}
+					double wCenter = ws - (ex + ey + ez) * 0.5;
+					double wHalfWidth = Math.sqrt(wSpread);
+					int lastWsv = fastFloor(wCenter + wHalfWidth);
+					for (int wsv = (int) Math.ceil(wCenter - wHalfWidth); wsv <= lastWsv; wsv++)
+					{
+						double squishOffset = (xsv + ysv + zsv + wsv) * SQUISH_CONSTANT_4D;
+						double dx = x - (xsv + squishOffset);
+						double dy = y - (ysv + squishOffset);
+						double dz = z - (zsv + squishOffset);
+						double dw = w - (wsv + squishOffset);
+						double attn = 2 - dx * dx - dy * dy - dz * dz - dw * dw;
+						if (attn > 0)
+						{
+							attn *= attn;
+							value += attn * attn * extrapolate(xsv, ysv, zsv, wsv, dx, dy, dz, dw);
+						}
+					}
+				}
+			}
+		}
+		return value / NORM_CONSTANT_4D;
+	}
+
+	/**
+	 Bounds the stretched offset e of a vertex from a point, along the next coordinate, for the vertex to be within
+	 reach. In 2D, 3D and 4D alike, the squish and stretch constants make the squared distance between a point and a
+	 vertex the sum of the squares of their stretched offsets, plus the square of their sum. With the offsets left after
+	 this one at their best, it is squares + e^2 + (sum + e)^2 / (1 + left), below 2 for e within the returned spread of
+	 -sum / (2 + left), that is, for (e + sum / (2 + left))^2 below (1 + left) * ((2 - squares) * (2 + left) - sum^2) /
+	 (2 + left)^2.
+
+	 @param squares The sum of the squares of the offsets along the previous coordinates.
+	 @param sum The sum of these offsets.
+	 @param left The number of coordinates after this one.
+	 @return The square of the largest distance between e and its center, negative if no vertex is within reach.
+	 */
+	private static double offsetSpread(double squares, double sum, int left)
+	{
+		return ((2 - squares) * (2 + left) - sum * sum) * ((1 + left) / (double) ((2 + left) * (2 + left)));
+	}
+
+	/**
+	 Widens the bounds of a stretched coordinate to include the lattice cell of the given value.
+	 */
+	private static void updateBounds(int[] min, int[] max, int coordinate, double value)
+	{
+		int floor = fastFloor(value);
+		min[coordinate] = Math.min(min[coordinate], floor);
+		max[coordinate] = Math.max(max[coordinate], floor + 1);
+	}
+
+	/**
+	 Adds the contribution of a lattice vertex to the samples of a tile within its reach.
+
+	 @param out The grid's values, row by row.
+	 @param x0 The x of the grid's first sample.
+	 @param y0 The y of the grid's first sample.
+	 @param dx The x step between two samples of a row.
+	 @param dy The y step between two rows.
+	 @param width The number of samples per row of the grid.
+	 @param fromColumn The first column of the tile, inclusive.
+	 @param toColumn The last column of the tile, exclusive.
+	 @param fromRow The first row of the tile, inclusive.
+	 @param toRow The last row of the tile, exclusive.
+	 @param xv The x of the vertex.
+	 @param yv The y of the vertex.
+	 @param remaining The attenuation left once the squared distance along the other coordinates is subtracted.
+	 @param xGradient The x of the vertex's gradient.
+	 @param yGradient The y of the vertex's gradient.
+	 @param otherGradients The dot product of the vertex's gradient and offset along the other coordinates.
+	 */
+	private static void scatter(double[] out, double x0, double y0, double dx, double dy, int width, int fromColumn, int toColumn, int fromRow, int toRow,
+		double xv, double yv, double remaining, double xGradient, double yGradient, double otherGradients)
+	{
+		double radius = Math.sqrt(remaining);
+		int firstRow = Math.max((int) Math.ceil((yv - radius - y0) / dy), fromRow);
+		int lastRow = Math.min((int) Math.floor((yv + radius - y0) / dy), toRow - 1);
+		for (int j = firstRow; j <= lastRow; j++)
+		{
+			double yOffset = y0 + j * dy - yv;
+			double rowRemaining = remaining - yOffset * yOffset;
+			if (rowRemaining <= 0)
+			{
+				continue;
+			}
+			double rowGradient = yGradient * yOffset + otherGradients;
+
+			double halfWidth = Math.sqrt(rowRemaining);
+			int first = Math.max((int) Math.ceil((xv - halfWidth - x0) / dx), fromColumn);
+			int last = Math.min((int) Math.floor((xv + halfWidth - x0) / dx), toColumn - 1);
+			NoiseKernels.SELECTED.scatterRow(out, j * width + first, last - first + 1, x0 + first * dx - xv, dx, rowRemaining, xGradient, rowGradient);
+		}
+	}
+
+	//Adds the partial derivatives of a 2D vertex's contribution to the gradient, if not null, and returns the contribution.
+	//The contribution is attn^4 * extrapolation, where attn = 2 - dx^2 - dy^2.
+	private double contribute(double[] gradient, double attn, int xsb, int ysb, double dx, double dy)
 	{
 		int index = perm[(perm[xsb & 0xFF] + ysb) & 0xFF] & 0x0E;
-		return gradients2D[index] * dx
-			   + gradients2D[index + 1] * dy;
+		double xGradient = gradients2D[index];
+		double yGradient = gradients2D[index + 1];
+		double extrapolation = xGradient * dx + yGradient * dy;
+		double attn2 = attn * attn;
+		double attn4 = attn2 * attn2;
+		if (gradient != null)
+		{
+			double slope = -8 * attn2 * attn * extrapolation;
+			gradient[0] += attn4 * xGradient + slope * dx;
+			gradient[1] += attn4 * yGradient + slope * dy;
+		}
+		return attn4 * extrapolation;
 	}
 
-	private double extrapolate(int xsb, int ysb, int zsb, double dx, double dy, double dz)
+	//Adds the partial derivatives of a 3D vertex's contribution to the gradient, if not null, and returns the contribution.
+	private double contribute(double[] gradient, double attn, int xsb, int ysb, int zsb, double dx, double dy, double dz)
 	{
 		int index = permGradIndex3D[(perm[(perm[xsb & 0xFF] + ysb) & 0xFF] + zsb) & 0xFF];
-		return gradients3D[index] * dx
-			   + gradients3D[index + 1] * dy
-			   + gradients3D[index + 2] * dz;
+		double xGradient = gradients3D[index];
+		double yGradient = gradients3D[index + 1];
+		double zGradient = gradients3D[index + 2];
+		double extrapolation = xGradient * dx + yGradient * dy + zGradient * dz;
+		double attn2 = attn * attn;
+		double attn4 = attn2 * attn2;
+		if (gradient != null)
+		{
+			double slope = -8 * attn2 * attn * extrapolation;
+			gradient[0] += attn4 * xGradient + slope * dx;
+			gradient[1] += attn4 * yGradient + slope * dy;
+			gradient[2] += attn4 * zGradient + slope * dz;
+		}
+		return attn4 * extrapolation;
 	}
 
 	private double extrapolate(int xsb, int ysb, int zsb, int wsb, double dx, double dy, double dz, double dw)
@@ -2563,7 +3008,7 @@ public class OpenSimplexNoise
 
 	//Gradients for 2D. They approximate the directions to the
 	//vertices of an octagon from the center.
-	private static byte[] gradients2D = new byte[]
+	static byte[] gradients2D = new byte[]
 	{
 		5, 2, 2, 5,
 		-5, 2, -2, 5,
@@ -2575,7 +3020,7 @@ public class OpenSimplexNoise
 	//vertices of a rhombicuboctahedron from the center, skewed so
 	//that the triangular and square facets can be inscribed inside
 	//circles of the same radius.
-	private static byte[] gradients3D = new byte[]
+	static byte[] gradients3D = new byte[]
 	{
 		-11, 4, 4, -4, 11, 4, -4, 4, 11,
 		11, 4, 4, 4, 11, 4, 4, 4, 11,
@@ -0,0 +1,944 @@
+package org.saucistophe.math;
+
+/**
+ A single precision variant of OpenSimplexNoise, in 2D and 3D, for texture generation.
+ Its results are those of the double precision version with the same seed, within float rounding. On values spanning
+ about [-1, 1], the differences measured on 10^6 random points of [-r, r]^n are:
+ r = 1: at most 5e-7 in 2D and 6e-7 in 3D, 6e-8 on average;
+ r = 10: at most 1.4e-6 in 2D and 2.1e-6 in 3D, 1.6e-7 on average;
+ r = 100: at most 2.1e-5, 1.5e-6 on average;
+ r = 1000: at most 1.8e-4, 1.4e-5 on average.
+ The error grows with the coordinates, whose ulp bounds the precision of the position in the lattice: beyond 10^4,
+ offset the coordinates, or use the double precision version.
+ Gradients are neither looked up through the last permutation, nor through a modulo table in 3D: for each value of the
+ partial hash, the gradient is stored beforehand, its coordinates next to each other, in a table indexed by that hash.
+ The permutation is doubled, so that hashes are combined without masking.
+ */
+public class OpenSimplexNoiseF
+{
+
+	private static final float STRETCH_CONSTANT_2D = -0.211324865405187f;
+	private static final float SQUISH_CONSTANT_2D = 0.366025403784439f;
+	private static final float STRETCH_CONSTANT_3D = -1.0f / 6;
+	private static final float SQUISH_CONSTANT_3D = 1.0f / 3;
+
+	private static final float NORM_CONSTANT_2D = 47;
+	private static final float NORM_CONSTANT_3D = 103;
+
+	private static final long DEFAULT_SEED = 0;
+
+	//The permutation, repeated twice.
+	private final short[] perm = new short[512];
+
+	//The 2D gradient of each value of perm[x] + y, two coordinates each.
+	private final float[] gradients2D = new float[512 * 2];
+
+	//The 3D gradient of each value of perm[perm[x] + y] + z, three coordinates and a padding each.
+	private final float[] gradients3D = new float[512 * 4];
+
+	public OpenSimplexNoiseF()
+	{
+		this(DEFAULT_SEED);
+	}
+
+	//Initializes the class with the same permutation as new OpenSimplexNoise(seed).
+	public OpenSimplexNoiseF(long seed)
+	{
+		this(OpenSimplexNoise.permutation(seed));
+	}
+
+	public OpenSimplexNoiseF(short[] perm)
+	{
+		for (int i = 0; i < 512; i++)
+		{
+			this.perm[i] = perm[i & 0xFF];
+
+			int index2D = perm[i & 0xFF] & 0x0E;
+			gradients2D[i * 2] = OpenSimplexNoise.gradients2D[index2D];
+			gradients2D[i * 2 + 1] = OpenSimplexNoise.gradients2D[index2D + 1];
+
+			int index3D = (perm[i & 0xFF] % (OpenSimplexNoise.gradients3D.length / 3)) * 3;
+			gradients3D[i * 4] = OpenSimplexNoise.gradients3D[index3D];
+			gradients3D[i * 4 + 1] = OpenSimplexNoise.gradients3D[index3D + 1];
+			gradients3D[i * 4 + 2] = OpenSimplexNoise.gradients3D[index3D + 2];
+		}
+	}
+
+	//2D OpenSimplex Noise.
+	public float eval(float x, float y)
+	{
+
+		//Place input coordinates onto grid.
+		float stretchOffset = (x + y) * STRETCH_CONSTANT_2D;
+		float xs = x + stretchOffset;
+		float ys = y + stretchOffset;
+
+		//Floor to get grid coordinates of rhombus (stretched square) super-cell origin.
+		int xsb = fastFloor(xs);
+		int ysb = fastFloor(ys);
+
+		//Skew out to get actual coordinates of rhombus origin. We'll need these later.
+		float squishOffset = (xsb + ysb) * SQUISH_CONSTANT_2D;
+		float xb = xsb + squishOffset;
+		float yb = ysb + squishOffset;
+
+		//Compute grid coordinates relative to rhombus origin.
+		float xins = xs - xsb;
+		float yins = ys - ysb;
+
+		//Sum those together to get a value that determines which region we're in.
+		float inSum = xins + yins;
+
+		//Positions relative to origin point.
+		float dx0 = x - xb;
+		float dy0 = y - yb;
+
+		//We'll be defining these inside the next block and using them afterwards.
+		float dx_ext, dy_ext;
+		int xsv_ext, ysv_ext;
+
+		float value = 0;
+
+		//Contribution (1,0)
+		float dx1 = dx0 - 1 - SQUISH_CONSTANT_2D;
+		float dy1 = dy0 - 0 - SQUISH_CONSTANT_2D;
+		float attn1 = 2 - dx1 * dx1 - dy1 * dy1;
+		if (attn1 > 0)
+		{
+			attn1 *= attn1;
+			value += attn1 * attn1 * extrapolate(xsb + 1, ysb + 0, dx1, dy1);
+		}
+
+		//Contribution (0,1)
+		float dx2 = dx0 - 0 - SQUISH_CONSTANT_2D;
+		float dy2 = dy0 - 1 - SQUISH_CONSTANT_2D;
+		float attn2 = 2 - dx2 * dx2 - dy2 * dy2;
+		if (attn2 > 0)
+		{
+			attn2 *= attn2;
+			value += attn2 * attn2 * extrapolate(xsb + 0, ysb + 1, dx2, dy2);
+		}
+
+		if (inSum <= 1)
+		{ //We're inside the triangle (2-Simplex) at (0,0)
+			float zins = 1 - inSum;
+			if (zins > xins || zins > yins)
+			{ //(0,0) is one of the closest two triangular vertices
+				if (xins > yins)
+				{
+					xsv_ext = xsb + 1;
+					ysv_ext = ysb - 1;
+					dx_ext = dx0 - 1;
+					dy_ext = dy0 + 1;
+				}
+				else
+				{
+					xsv_ext = xsb - 1;
+					ysv_ext = ysb + 1;
+					dx_ext = dx0 + 1;
+					dy_ext = dy0 - 1;
+				}
+			}
+			else
+			{ //(1,0) and (0,1) are the closest two vertices.
+				xsv_ext = xsb + 1;
+				ysv_ext = ysb + 1;
+				dx_ext = dx0 - 1 - 2 * SQUISH_CONSTANT_2D;
+				dy_ext = dy0 - 1 - 2 * SQUISH_CONSTANT_2D;
+			}
+		}
+		else
+		{ //We're inside the triangle (2-Simplex) at (1,1)
+			float zins = 2 - inSum;
+			if (zins < xins || zins < yins)
+			{ //(0,0) is one of the closest two triangular vertices
+				if (xins > yins)
+				{
+					xsv_ext = xsb + 2;
+					ysv_ext = ysb + 0;
+					dx_ext = dx0 - 2 - 2 * SQUISH_CONSTANT_2D;
+					dy_ext = dy0 + 0 - 2 * SQUISH_CONSTANT_2D;
+				}
+				else
+				{
+					xsv_ext = xsb + 0;
+					ysv_ext = ysb + 2;
+					dx_ext = dx0 + 0 - 2 * SQUISH_CONSTANT_2D;
+					dy_ext = dy0 - 2 - 2 * SQUISH_CONSTANT_2D;
+				}
+			}
+			else
+			{ //(1,0) and (0,1) are the closest two vertices.
+				dx_ext = dx0;
+				dy_ext = dy0;
+				xsv_ext = xsb;
+				ysv_ext = ysb;
+			}
+			xsb += 1;
+			ysb += 1;
+			dx0 = dx0 - 1 - 2 * SQUISH_CONSTANT_2D;
+			dy0 = dy0 - 1 - 2 * SQUISH_CONSTANT_2D;
+		}
+
+		//Contribution (0,0) or (1,1)
+		float attn0 = 2 - dx0 * dx0 - dy0 * dy0;
+		if (attn0 > 0)
+		{
+			attn0 *= attn0;
+			value += attn0 * attn0 * extrapolate(xsb, ysb, dx0, dy0);
+		}
+
+		//Extra Vertex
+		float attn_ext = 2 - dx_ext * dx_ext - dy_ext * dy_ext;
+		if (attn_ext > 0)
+		{
+			attn_ext *= attn_ext;
+			value += attn_ext * attn_ext * extrapolate(xsv_ext, ysv_ext, dx_ext, dy_ext);
+		}
+
+		return value / NORM_CONSTANT_2D;
+	}
+
+	//3D OpenSimplex Noise.
+	public float eval(float x, float y, float z)
+	{
+
+		//Place input coordinates on simplectic honeycomb.
+		float stretchOffset = (x + y + z) * STRETCH_CONSTANT_3D;
+		float xs = x + stretchOffset;
+		float ys = y + stretchOffset;
+		float zs = z + stretchOffset;
+
+		//Floor to get simplectic honeycomb coordinates of rhombohedron (stretched cube) super-cell origin.
+		int xsb = fastFloor(xs);
+		int ysb = fastFloor(ys);
+		int zsb = fastFloor(zs);
+
+		//Skew out to get actual coordinates of rhombohedron origin. We'll need these later.
+		float squishOffset = (xsb + ysb + zsb) * SQUISH_CONSTANT_3D;
+		float xb = xsb + squishOffset;
+		float yb = ysb + squishOffset;
+		float zb = zsb + squishOffset;
+
+		//Compute simplectic honeycomb coordinates relative to rhombohedral origin.
+		float xins = xs - xsb;
+		float yins = ys - ysb;
+		float zins = zs - zsb;
+
+		//Sum those together to get a value that determines which region we're in.
+		float inSum = xins + yins + zins;
+
+		//Positions relative to origin point.
+		float dx0 = x - xb;
+		float dy0 = y - yb;
+		float dz0 = z - zb;
+
+		//We'll be defining these inside the next block and using them afterwards.
+		float dx_ext0, dy_ext0, dz_ext0;
+		float dx_ext1, dy_ext1, dz_ext1;
+		int xsv_ext0, ysv_ext0, zsv_ext0;
+		int xsv_ext1, ysv_ext1, zsv_ext1;
+
+		float value = 0;
+		if (inSum <= 1)
+		{ //We're inside the tetrahedron (3-Simplex) at (0,0,0)
+
+			//Determine which two of (0,0,1), (0,1,0), (1,0,0) are closest.
+			byte aPoint = 0x01;
+			float aScore = xins;
+			byte bPoint = 0x02;
+			float bScore = yins;
+			if (aScore >= bScore && zins > bScore)
+			{
+				bScore = zins;
+				bPoint = 0x04;
+			}
+			else if (aScore < bScore && zins > aScore)
+			{
+				aScore = zins;
+				aPoint = 0x04;
+			}
+
+			//Now we determine the two lattice points not part of the tetrahedron that may contribute.
+			//This depends on the closest two tetrahedral vertices, including (0,0,0)
+			float wins = 1 - inSum;
+			if (wins > aScore || wins > bScore)
+			{ //(0,0,0) is one of the closest two tetrahedral vertices.
+				byte c = (bScore > aScore ? bPoint : aPoint); //Our other closest vertex is the closest out of a and b.
+
+				if ((c & 0x01) == 0)
+				{
+					xsv_ext0 = xsb - 1;
+					xsv_ext1 = xsb;
+					dx_ext0 = dx0 + 1;
+					dx_ext1 = dx0;
+				}
+				else
+				{
+					xsv_ext0 = xsv_ext1 = xsb + 1;
+					dx_ext0 = dx_ext1 = dx0 - 1;
+				}
+
+				if ((c & 0x02) == 0)
+				{
+					ysv_ext0 = ysv_ext1 = ysb;
+					dy_ext0 = dy_ext1 = dy0;
+					if ((c & 0x01) == 0)
+					{
+						ysv_ext1 -= 1;
+						dy_ext1 += 1;
+					}
+					else
+					{
+						ysv_ext0 -= 1;
+						dy_ext0 += 1;
+					}
+				}
+				else
+				{
+					ysv_ext0 = ysv_ext1 = ysb + 1;
+					dy_ext0 = dy_ext1 = dy0 - 1;
+				}
+
+				if ((c & 0x04) == 0)
+				{
+					zsv_ext0 = zsb;
+					zsv_ext1 = zsb - 1;
+					dz_ext0 = dz0;
+					dz_ext1 = dz0 + 1;
+				}
+				else
+				{
+					zsv_ext0 = zsv_ext1 = zsb + 1;
+					dz_ext0 = dz_ext1 = dz0 - 1;
+				}
+			}
+			else
+			{ //(0,0,0) is not one of the closest two tetrahedral vertices.
+				byte c = (byte) (aPoint | bPoint); //Our two extra vertices are determined by the closest two.
+
+				if ((c & 0x01) == 0)
+				{
+					xsv_ext0 = xsb;
+					xsv_ext1 = xsb - 1;
+					dx_ext0 = dx0 - 2 * SQUISH_CONSTANT_3D;
+					dx_ext1 = dx0 + 1 - SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					xsv_ext0 = xsv_ext1 = xsb + 1;
+					dx_ext0 = dx0 - 1 - 2 * SQUISH_CONSTANT_3D;
+					dx_ext1 = dx0 - 1 - SQUISH_CONSTANT_3D;
+				}
+
+				if ((c & 0x02) == 0)
+				{
+					ysv_ext0 = ysb;
+					ysv_ext1 = ysb - 1;
+					dy_ext0 = dy0 - 2 * SQUISH_CONSTANT_3D;
+					dy_ext1 = dy0 + 1 - SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					ysv_ext0 = ysv_ext1 = ysb + 1;
+					dy_ext0 = dy0 - 1 - 2 * SQUISH_CONSTANT_3D;
+					dy_ext1 = dy0 - 1 - SQUISH_CONSTANT_3D;
+				}
+
+				if ((c & 0x04) == 0)
+				{
+					zsv_ext0 = zsb;
+					zsv_ext1 = zsb - 1;
+					dz_ext0 = dz0 - 2 * SQUISH_CONSTANT_3D;
+					dz_ext1 = dz0 + 1 - SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					zsv_ext0 = zsv_ext1 = zsb + 1;
+					dz_ext0 = dz0 - 1 - 2 * SQUISH_CONSTANT_3D;
+					dz_ext1 = dz0 - 1 - SQUISH_CONSTANT_3D;
+				}
+			}
+
+			//Contribution (0,0,0)
+			float attn0 = 2 - dx0 * dx0 - dy0 * dy0 - dz0 * dz0;
+			if (attn0 > 0)
+			{
+				attn0 *= attn0;
+				value += attn0 * attn0 * extrapolate(xsb + 0, ysb + 0, zsb + 0, dx0, dy0, dz0);
+			}
+
+			//Contribution (1,0,0)
+			float dx1 = dx0 - 1 - SQUISH_CONSTANT_3D;
+			float dy1 = dy0 - 0 - SQUISH_CONSTANT_3D;
+			float dz1 = dz0 - 0 - SQUISH_CONSTANT_3D;
+			float attn1 = 2 - dx1 * dx1 - dy1 * dy1 - dz1 * dz1;
+			if (attn1 > 0)
+			{
+				attn1 *= attn1;
+				value += attn1 * attn1 * extrapolate(xsb + 1, ysb + 0, zsb + 0, dx1, dy1, dz1);
+			}
+
+			//Contribution (0,1,0)
+			float dx2 = dx0 - 0 - SQUISH_CONSTANT_3D;
+			float dy2 = dy0 - 1 - SQUISH_CONSTANT_3D;
+			float dz2 = dz1;
+			float attn2 = 2 - dx2 * dx2 - dy2 * dy2 - dz2 * dz2;
+			if (attn2 > 0)
+			{
+				attn2 *= attn2;
+				value += attn2 * attn2 * extrapolate(xsb + 0, ysb + 1, zsb + 0, dx2, dy2, dz2);
+			}
+
+			//Contribution (0,0,1)
+			float dx3 = dx2;
+			float dy3 = dy1;
+			float dz3 = dz0 - 1 - SQUISH_CONSTANT_3D;
+			float attn3 = 2 - dx3 * dx3 - dy3 * dy3 - dz3 * dz3;
+			if (attn3 > 0)
+			{
+				attn3 *= attn3;
+				value += attn3 * attn3 * extrapolate(xsb + 0, ysb + 0, zsb + 1, dx3, dy3, dz3);
+			}
+		}
+		else if (inSum >= 2)
+		{ //We're inside the tetrahedron (3-Simplex) at (1,1,1)
+
+			//Determine which two tetrahedral vertices are the closest, out of (1,1,0), (1,0,1), (0,1,1) but not (1,1,1).
+			byte aPoint = 0x06;
+			float aScore = xins;
+			byte bPoint = 0x05;
+			float bScore = yins;
+			if (aScore <= bScore && zins < bScore)
+			{
+				bScore = zins;
+				bPoint = 0x03;
+			}
+			else if (aScore > bScore && zins < aScore)
+			{
+				aScore = zins;
+				aPoint = 0x03;
+			}
+
+			//Now we determine the two lattice points not part of the tetrahedron that may contribute.
+			//This depends on the closest two tetrahedral vertices, including (1,1,1)
+			float wins = 3 - inSum;
+			if (wins < aScore || wins < bScore)
+			{ //(1,1,1) is one of the closest two tetrahedral vertices.
+				byte c = (bScore < aScore ? bPoint : aPoint); //Our other closest vertex is the closest out of a and b.
+
+				if ((c & 0x01) != 0)
+				{
+					xsv_ext0 = xsb + 2;
+					xsv_ext1 = xsb + 1;
+					dx_ext0 = dx0 - 2 - 3 * SQUISH_CONSTANT_3D;
+					dx_ext1 = dx0 - 1 - 3 * SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					xsv_ext0 = xsv_ext1 = xsb;
+					dx_ext0 = dx_ext1 = dx0 - 3 * SQUISH_CONSTANT_3D;
+				}
+
+				if ((c & 0x02) != 0)
+				{
+					ysv_ext0 = ysv_ext1 = ysb + 1;
+					dy_ext0 = dy_ext1 = dy0 - 1 - 3 * SQUISH_CONSTANT_3D;
+					if ((c & 0x01) != 0)
+					{
+						ysv_ext1 += 1;
+						dy_ext1 -= 1;
+					}
+					else
+					{
+						ysv_ext0 += 1;
+						dy_ext0 -= 1;
+					}
+				}
+				else
+				{
+					ysv_ext0 = ysv_ext1 = ysb;
+					dy_ext0 = dy_ext1 = dy0 - 3 * SQUISH_CONSTANT_3D;
+				}
+
+				if ((c & 0x04) != 0)
+				{
+					zsv_ext0 = zsb + 1;
+					zsv_ext1 = zsb + 2;
+					dz_ext0 = dz0 - 1 - 3 * SQUISH_CONSTANT_3D;
+					dz_ext1 = dz0 - 2 - 3 * SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					zsv_ext0 = zsv_ext1 = zsb;
+					dz_ext0 = dz_ext1 = dz0 - 3 * SQUISH_CONSTANT_3D;
+				}
+			}
+			else
+			{ //(1,1,1) is not one of the closest two tetrahedral vertices.
+				byte c = (byte) (aPoint & bPoint); //Our two extra vertices are determined by the closest two.
+
+				if ((c & 0x01) != 0)
+				{
+					xsv_ext0 = xsb + 1;
+					xsv_ext1 = xsb + 2;
+					dx_ext0 = dx0 - 1 - SQUISH_CONSTANT_3D;
+					dx_ext1 = dx0 - 2 - 2 * SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					xsv_ext0 = xsv_ext1 = xsb;
+					dx_ext0 = dx0 - SQUISH_CONSTANT_3D;
+					dx_ext1 = dx0 - 2 * SQUISH_CONSTANT_3D;
+				}
+
+				if ((c & 0x02) != 0)
+				{
+					ysv_ext0 = ysb + 1;
+					ysv_ext1 = ysb + 2;
+					dy_ext0 = dy0 - 1 - SQUISH_CONSTANT_3D;
+					dy_ext1 = dy0 - 2 - 2 * SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					ysv_ext0 = ysv_ext1 = ysb;
+					dy_ext0 = dy0 - SQUISH_CONSTANT_3D;
+					dy_ext1 = dy0 - 2 * SQUISH_CONSTANT_3D;
+				}
+
+				if ((c & 0x04) != 0)
+				{
+					zsv_ext0 = zsb + 1;
+					zsv_ext1 = zsb + 2;
+					dz_ext0 = dz0 - 1 - SQUISH_CONSTANT_3D;
+					dz_ext1 = dz0 - 2 - 2 * SQUISH_CONSTANT_3D;
+				}
+				else
+				{
+					zsv_ext0 = zsv_ext1 = zsb;
+					dz_ext0 = dz0 - SQUISH_CONSTANT_3D;
+					dz_ext1 = dz0 - 2 * SQUISH_CONSTANT_3D;
+				}
+			}
+
+			//Contribution (1,1,0)
+			float dx3 = dx0 - 1 - 2 * SQUISH_CONSTANT_3D;
+			float dy3 = dy0 - 1 - 2 * SQUISH_CONSTANT_3D;
+			float dz3 = dz0 - 0 - 2 * SQUISH_CONSTANT_3D;
+			float attn3 = 2 - dx3 * dx3 - dy3 * dy3 - dz3 * dz3;
+			if (attn3 > 0)
+			{
+				attn3 *= attn3;
+				value += attn3 * attn3 * extrapolate(xsb + 1, ysb + 1, zsb + 0, dx3, dy3, dz3);
+			}
+
+			//Contribution (1,0,1)
+			float dx2 = dx3;
+			float dy2 = dy0 - 0 - 2 * SQUISH_CONSTANT_3D;
+			float dz2 = dz0 - 1 - 2 * SQUISH_CONSTANT_3D;
+			float attn2 = 2 - dx2 * dx2 - dy2 * dy2 - dz2 * dz2;
+			if (attn2 > 0)
+			{
+				attn2 *= attn2;
+				value += attn2 * attn2 * extrapolate(xsb + 1, ysb + 0, zsb + 1, dx2, dy2, dz2);
+			}
+
+			//Contribution (0,1,1)
+			float dx1 = dx0 - 0 - 2 * SQUISH_CONSTANT_3D;
+			float dy1 = dy3;
+			float dz1 = dz2;
+			float attn1 = 2 - dx1 * dx1 - dy1 * dy1 - dz1 * dz1;
+			if (attn1 > 0)
+			{
+				attn1 *= attn1;
+				value += attn1 * attn1 * extrapolate(xsb + 0, ysb + 1, zsb + 1, dx1, dy1, dz1);
+			}
+
+			//Contribution (1,1,1)
+			dx0 = dx0 - 1 - 3 * SQUISH_CONSTANT_3D;
+			dy0 = dy0 - 1 - 3 * SQUISH_CONSTANT_3D;
+			dz0 = dz0 - 1 - 3 * SQUISH_CONSTANT_3D;
+			float attn0 = 2 - dx0 * dx0 - dy0 * dy0 - dz0 * dz0;
+			if (attn0 > 0)
+			{
+				attn0 *= attn0;
+				value += attn0 * attn0 * extrapolate(xsb + 1, ysb + 1, zsb + 1, dx0, dy0, dz0);
+			}
+		}
+		else
+		{ //We're inside the octahedron (Rectified 3-Simplex) in between.
+			float aScore;
+			byte aPoint;
+			boolean aIsFurtherSide;
+			float bScore;
+			byte bPoint;
+			boolean bIsFurtherSide;
+
+			//Decide between point (0,0,1) and (1,1,0) as closest
+			float p1 = xins + yins;
+			if (p1 > 1)
+			{
+				aScore = p1 - 1;
+				aPoint = 0x03;
+				aIsFurtherSide = true;
+			}
+			else
+			{
+				aScore = 1 - p1;
+				aPoint = 0x04;
+				aIsFurtherSide = false;
+			}
+
+			//Decide between point (0,1,0) and (1,0,1) as closest
+			float p2 = xins + zins;
+			if (p2 > 1)
+			{
+				bScore = p2 - 1;
+				bPoint = 0x05;
+				bIsFurtherSide = true;
+			}
+			else
+			{
+				bScore = 1 - p2;
+				bPoint = 0x02;
+				bIsFurtherSide = false;
+			}
+
+			//The closest out of the two (1,0,0) and (0,1,1) will replace the furthest out of the two decided above, if closer.
+			float p3 = yins + zins;
+			if (p3 > 1)
+			{
+				float score = p3 - 1;
+				if (aScore <= bScore && aScore < score)
+				{
+					aScore = score;
+					aPoint = 0x06;
+					aIsFurtherSide = true;
+				}
+				else if (aScore > bScore && bScore < score)
+				{
+					bScore = score;
+					bPoint = 0x06;
+					bIsFurtherSide = true;
+				}
+			}
+			else
+			{
+				float score = 1 - p3;
+				if (aScore <= bScore && aScore < score)
+				{
+					aScore = score;
+					aPoint = 0x01;
+					aIsFurtherSide = false;
+				}
+				else if (aScore > bScore && bScore < score)
+				{
+					bScore = score;
+					bPoint = 0x01;
+					bIsFurtherSide = false;
+				}
+			}
+
+			//Where each of the two closest points are determines how the extra two vertices are calculated.
+			if (aIsFurtherSide == bIsFurtherSide)
+			{
+				if (aIsFurtherSide)
+				{ //Both closest points on (1,1,1) side
+
+					//One of the two extra points is (1,1,1)
+					dx_ext0 = dx0 - 1 - 3 * SQUISH_CONSTANT_3D;
+					dy_ext0 = dy0 - 1 - 3 * SQUISH_CONSTANT_3D;
+					dz_ext0 = dz0 - 1 - 3 * SQUISH_CONSTANT_3D;
+					xsv_ext0 = xsb + 1;
+					ysv_ext0 = ysb + 1;
+					zsv_ext0 = zsb + 1;
+
+					//Other extra point is based on the shared axis.
+					byte c = (byte) (aPoint & bPoint);
+					if ((c & 0x01) != 0)
+					{
+						dx_ext1 = dx0 - 2 - 2 * SQUISH_CONSTANT_3D;
+						dy_ext1 = dy0 - 2 * SQUISH_CONSTANT_3D;
+						dz_ext1 = dz0 - 2 * SQUISH_CONSTANT_3D;
+						xsv_ext1 = xsb + 2;
+						ysv_ext1 = ysb;
+						zsv_ext1 = zsb;
+					}
+					else if ((c & 0x02) != 0)
+					{
+						dx_ext1 = dx0 - 2 * SQUISH_CONSTANT_3D;
+						dy_ext1 = dy0 - 2 - 2 * SQUISH_CONSTANT_3D;
+						dz_ext1 = dz0 - 2 * SQUISH_CONSTANT_3D;
+						xsv_ext1 = xsb;
+						ysv_ext1 = ysb + 2;
+						zsv_ext1 = zsb;
+					}
+					else
+					{
+						dx_ext1 = dx0 - 2 * SQUISH_CONSTANT_3D;
+						dy_ext1 = dy0 - 2 * SQUISH_CONSTANT_3D;
+						dz_ext1 = dz0 - 2 - 2 * SQUISH_CONSTANT_3D;
+						xsv_ext1 = xsb;
+						ysv_ext1 = ysb;
+						zsv_ext1 = zsb + 2;
+					}
+				}
+				else
+				{//Both closest points on (0,0,0) side
+
+					//One of the two extra points is (0,0,0)
+					dx_ext0 = dx0;
+					dy_ext0 = dy0;
+					dz_ext0 = dz0;
+					xsv_ext0 = xsb;
+					ysv_ext0 = ysb;
+					zsv_ext0 = zsb;
+
+					//Other extra point is based on the omitted axis.
+					byte c = (byte) (aPoint | bPoint);
+					if ((c & 0x01) == 0)
+					{
+						dx_ext1 = dx0 + 1 - SQUISH_CONSTANT_3D;
+						dy_ext1 = dy0 - 1 - SQUISH_CONSTANT_3D;
+						dz_ext1 = dz0 - 1 - SQUISH_CONSTANT_3D;
+						xsv_ext1 = xsb - 1;
+						ysv_ext1 = ysb + 1;
+						zsv_ext1 = zsb + 1;
+					}
+					else if ((c & 0x02) == 0)
+					{
+						dx_ext1 = dx0 - 1 - SQUISH_CONSTANT_3D;
+						dy_ext1 = dy0 + 1 - SQUISH_CONSTANT_3D;
+						dz_ext1 = dz0 - 1 - SQUISH_CONSTANT_3D;
+						xsv_ext1 = xsb + 1;
+						ysv_ext1 = ysb - 1;
+						zsv_ext1 = zsb + 1;
+					}
+					else
+					{
+						dx_ext1 = dx0 - 1 - SQUISH_CONSTANT_3D;
+						dy_ext1 = dy0 - 1 - SQUISH_CONSTANT_3D;
+						dz_ext1 = dz0 + 1 - SQUISH_CONSTANT_3D;
+						xsv_ext1 = xsb + 1;
+						ysv_ext1 = ysb + 1;
+						zsv_ext1 = zsb - 1;
+					}
+				}
+			}
+			else
+			{ //One point on (0,0,0) side, one point on (1,1,1) side
+				byte c1, c2;
+				if (aIsFurtherSide)
+				{
+					c1 = aPoint;
+					c2 = bPoint;
+				}
+				else
+				{
+					c1 = bPoint;
+					c2 = aPoint;
+				}
+
+				//One contribution is a permutation of (1,1,-1)
+				if ((c1 & 0x01) == 0)
+				{
+					dx_ext0 = dx0 + 1 - SQUISH_CONSTANT_3D;
+					dy_ext0 = dy0 - 1 - SQUISH_CONSTANT_3D;
+					dz_ext0 = dz0 - 1 - SQUISH_CONSTANT_3D;
+					xsv_ext0 = xsb - 1;
+					ysv_ext0 = ysb + 1;
+					zsv_ext0 = zsb + 1;
+				}
+				else if ((c1 & 0x02) == 0)
+				{
+					dx_ext0 = dx0 - 1 - SQUISH_CONSTANT_3D;
+					dy_ext0 = dy0 + 1 - SQUISH_CONSTANT_3D;
+					dz_ext0 = dz0 - 1 - SQUISH_CONSTANT_3D;
+					xsv_ext0 = xsb + 1;
+					ysv_ext0 = ysb - 1;
+					zsv_ext0 = zsb + 1;
+				}
+				else
+				{
+					dx_ext0 = dx0 - 1 - SQUISH_CONSTANT_3D;
+					dy_ext0 = dy0 - 1 - SQUISH_CONSTANT_3D;
+					dz_ext0 = dz0 + 1 - SQUISH_CONSTANT_3D;
+					xsv_ext0 = xsb + 1;
+					ysv_ext0 = ysb + 1;
+					zsv_ext0 = zsb - 1;
+				}
+
+				//One contribution is a permutation of (0,0,2)
+				dx_ext1 = dx0 - 2 * SQUISH_CONSTANT_3D;
+				dy_ext1 = dy0 - 2 * SQUISH_CONSTANT_3D;
+				dz_ext1 = dz0 - 2 * SQUISH_CONSTANT_3D;
+				xsv_ext1 = xsb;
+				ysv_ext1 = ysb;
+				zsv_ext1 = zsb;
+				if ((c2 & 0x01) != 0)
+				{
+					dx_ext1 -= 2;
+					xsv_ext1 += 2;
+				}
+				else if ((c2 & 0x02) != 0)
+				{
+					dy_ext1 -= 2;
+					ysv_ext1 += 2;
+				}
+				else
+				{
+					dz_ext1 -= 2;
+					zsv_ext1 += 2;
+				}
+			}
+
+			//Contribution (1,0,0)
+			float dx1 = dx0 - 1 - SQUISH_CONSTANT_3D;
+			float dy1 = dy0 - 0 - SQUISH_CONSTANT_3D;
+			float dz1 = dz0 - 0 - SQUISH_CONSTANT_3D;
+			float attn1 = 2 - dx1 * dx1 - dy1 * dy1 - dz1 * dz1;
+			if (attn1 > 0)
+			{
+				attn1 *= attn1;
+				value += attn1 * attn1 * extrapolate(xsb + 1, ysb + 0, zsb + 0, dx1, dy1, dz1);
+			}
+
+			//Contribution (0,1,0)
+			float dx2 = dx0 - 0 - SQUISH_CONSTANT_3D;
+			float dy2 = dy0 - 1 - SQUISH_CONSTANT_3D;
+			float dz2 = dz1;
+			float attn2 = 2 - dx2 * dx2 - dy2 * dy2 - dz2 * dz2;
+			if (attn2 > 0)
+			{
+				attn2 *= attn2;
+				value += attn2 * attn2 * extrapolate(xsb + 0, ysb + 1, zsb + 0, dx2, dy2, dz2);
+			}
+
+			//Contribution (0,0,1)
+			float dx3 = dx2;
+			float dy3 = dy1;
+			float dz3 = dz0 - 1 - SQUISH_CONSTANT_3D;
+			float attn3 = 2 - dx3 * dx3 - dy3 * dy3 - dz3 * dz3;
+			if (attn3 > 0)
+			{
+				attn3 *= attn3;
+				value += attn3 * attn3 * extrapolate(xsb + 0, ysb + 0, zsb + 1, dx3, dy3, dz3);
+			}
+
+			//Contribution (1,1,0)
+			float dx4 = dx0 - 1 - 2 * SQUISH_CONSTANT_3D;
+			float dy4 = dy0 - 1 - 2 * SQUISH_CONSTANT_3D;
+			float dz4 = dz0 - 0 - 2 * SQUISH_CONSTANT_3D;
+			float attn4 = 2 - dx4 * dx4 - dy4 * dy4 - dz4 * dz4;
+			if (attn4 > 0)
+			{
+				attn4 *= attn4;
+				value += attn4 * attn4 * extrapolate(xsb + 1, ysb + 1, zsb + 0, dx4, dy4, dz4);
+			}
+
+			//Contribution (1,0,1)
+			float dx5 = dx4;
+			float dy5 = dy0 - 0 - 2 * SQUISH_CONSTANT_3D;
+			float dz5 = dz0 - 1 - 2 * SQUISH_CONSTANT_3D;
+			float attn5 = 2 - dx5 * dx5 - dy5 * dy5 - dz5 * dz5;
+			if (attn5 > 0)
+			{
+				attn5 *= attn5;
+				value += attn5 * attn5 * extrapolate(xsb + 1, ysb + 0, zsb + 1, dx5, dy5, dz5);
+			}
+
+			//Contribution (0,1,1)
+			float dx6 = dx0 - 0 - 2 * SQUISH_CONSTANT_3D;
+			float dy6 = dy4;
+			float dz6 = dz5;
+			float attn6 = 2 - dx6 * dx6 - dy6 * dy6 - dz6 * dz6;
+			if (attn6 > 0)
+			{
+				attn6 *= attn6;
+				value += attn6 * attn6 * extrapolate(xsb + 0, ysb + 1, zsb + 1, dx6, dy6, dz6);
+			}
+		}
+
+		//First extra vertex
+		float attn_ext0 = 2 - dx_ext0 * dx_ext0 - dy_ext0 * dy_ext0 - dz_ext0 * dz_ext0;
+		if (attn_ext0 > 0)
+		{
+			attn_ext0 *= attn_ext0;
+			value += attn_ext0 * attn_ext0 * extrapolate(xsv_ext0, ysv_ext0, zsv_ext0, dx_ext0, dy_ext0, dz_ext0);
+		}
+
+		//Second extra vertex
+		float attn_ext1 = 2 - dx_ext1 * dx_ext1 - dy_ext1 * dy_ext1 - dz_ext1 * dz_ext1;
+		if (attn_ext1 > 0)
+		{
+			attn_ext1 *= attn_ext1;
+			value += attn_ext1 * attn_ext1 * extrapolate(xsv_ext1, ysv_ext1, zsv_ext1, dx_ext1, dy_ext1, dz_ext1);
+		}
+		
+		value = value / NORM_CONSTANT_3D;
+
+		return value;
+	}
+
+	/**
+	 Fills a grid with 2D noise: sample (i, j), at index j * width + i, receives eval(x0 + i * dx, y0 + j * dy).
+
+	 @param out The array receiving the grid, of at least width * height values.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param dx The x step between two samples of a row.
+	 @param dy The y step between two rows.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void fill(float[] out, float x0, float y0, float dx, float dy, int width, int height)
+	{
+		for (int j = 0; j < height; j++)
+		{
+			float y = y0 + j * dy;
+			for (int i = 0; i < width; i++)
+			{
+				out[j * width + i] = eval(x0 + i * dx, y);
+			}
+		}
+	}
+
+	/**
+	 Fills a grid with a slice of 3D noise: sample (i, j), at index j * width + i, receives
+	 eval(x0 + i * dx, y0 + j * dy, z).
+
+	 @see #fill(float[], float, float, float, float, int, int)
+	 */
+	public void fill(float[] out, float x0, float y0, float z, float dx, float dy, int width, int height)
+	{
+		for (int j = 0; j < height; j++)
+		{
+			float y = y0 + j * dy;
+			for (int i = 0; i < width; i++)
+			{
+				out[j * width + i] = eval(x0 + i * dx, y, z);
+			}
+		}
+	}
+
+	private float extrapolate(int xsb, int ysb, float dx, float dy)
+	{
+		int index = (perm[xsb & 0xFF] + (ysb & 0xFF)) * 2;
+		return gradients2D[index] * dx
+			   + gradients2D[index + 1] * dy;
+	}
+
+	private float extrapolate(int xsb, int ysb, int zsb, float dx, float dy, float dz)
+	{
+		int index = (perm[perm[xsb & 0xFF] + (ysb & 0xFF)] + (zsb & 0xFF)) * 4;
+		return gradients3D[index] * dx
+			   + gradients3D[index + 1] * dy
+			   + gradients3D[index + 2] * dz;
+	}
+
+	private static int fastFloor(float x)
+	{
+		int xi = (int) x;
+		return x < xi ? xi - 1 : xi;
+	}
+}
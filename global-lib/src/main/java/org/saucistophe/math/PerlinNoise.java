@@ -0,0 +1,269 @@
+package org.saucistophe.math;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ Ken Perlin's improved noise, over a permutation of its own: instances built from different seeds give different
+ worlds.
+ Instances are immutable, so they can be shared between threads without synchronization. Since each one holds its
+ permutation table, forSeed shares the instance of a given seed instead of building a new one. It retains the
+ instances of at most MAX_SHARED_SEEDS seeds, about 2 KB each, until clearSharedInstances is called: when a new seed
+ comes in, one that was not used since the previous evictions is released, in the manner of a clock.
+ */
+public class PerlinNoise
+{
+	/**
+	 The largest number of instances retained by forSeed.
+	 */
+	public static final int MAX_SHARED_SEEDS = 256;
+
+	/**
+	 An instance retained by forSeed, and whether it was used since the clock's hand last passed over it.
+	 */
+	private static final class SharedInstance
+	{
+		private final PerlinNoise noise;
+		private volatile boolean used;
+
+		private SharedInstance(PerlinNoise noise)
+		{
+			this.noise = noise;
+		}
+	}
+
+	/**
+	 The instances built by forSeed, by seed. Reads take no lock; only evictions are serialized, on the hand.
+	 */
+	private static final Map<Long, SharedInstance> INSTANCES = new ConcurrentHashMap<>();
+
+	/**
+	 The clock's hand, going round the instances to find one to evict, or null to start a new round.
+	 */
+	private static Iterator<SharedInstance> hand;
+
+	/**
+	 The permutation, repeated twice so that hashes are combined without masking.
+	 */
+	private final int[] perm = new int[512];
+
+	/**
+	 Builds a noise from a permutation.
+
+	 @param perm A permutation of [0, 255], of which only the first 256 values are used.
+	 */
+	public PerlinNoise(short[] perm)
+	{
+		for (int i = 0; i < 512; i++)
+		{
+			this.perm[i] = perm[i & 0xFF];
+		}
+	}
+
+	/**
+	 Builds a noise from a permutation generated from a seed, the way OpenSimplexNoise does.
+
+	 @param seed The seed of the permutation.
+	 */
+	public PerlinNoise(long seed)
+	{
+		this(OpenSimplexNoise.permutation(seed));
+	}
+
+	/**
+	 Returns the noise of the given seed, built on the first call and shared afterwards, as long as it is retained.
+	 Thread-safe, and lock-free unless a new seed makes the number of instances exceed MAX_SHARED_SEEDS.
+
+	 @param seed The seed of the permutation.
+	 @return The noise of this seed.
+	 */
+	public static PerlinNoise forSeed(long seed)
+	{
+		SharedInstance instance = INSTANCES.get(seed);
+		if (instance != null)
+		{
+			// Only write when needed, not to bounce the cache line between the threads reading a popular seed.
+			if (!instance.used)
+			{
+				instance.used = true;
+			}
+			return instance.noise;
+		}
+
+		// Build the tables without holding any lock; threads racing for the same seed keep the first instance stored.
+		SharedInstance built = new SharedInstance(new PerlinNoise(seed));
+		instance = INSTANCES.putIfAbsent(seed, built);
+		if (instance != null)
+		{
+			return instance.noise;
+		}
+		if (INSTANCES.size() > MAX_SHARED_SEEDS)
+		{
+			evict();
+		}
+		return built.noise;
+	}
+
+	/**
+	 Moves the clock's hand until the number of instances is back to MAX_SHARED_SEEDS, evicting the instances not used
+	 since its last round, and marking the others as unused.
+	 */
+	private static synchronized void evict()
+	{
+		while (INSTANCES.size() > MAX_SHARED_SEEDS)
+		{
+			if (hand == null || !hand.hasNext())
+			{
+				hand = INSTANCES.values().iterator();
+			}
+			SharedInstance instance = hand.next();
+			if (instance.used)
+			{
+				instance.used = false;
+			}
+			else
+			{
+				hand.remove();
+			}
+		}
+	}
+
+	/**
+	 @return The number of instances retained by forSeed.
+	 */
+	static int sharedInstanceCount()
+	{
+		return INSTANCES.size();
+	}
+
+	/**
+	 Releases the instances retained by forSeed. Instances already handed out stay valid.
+	 */
+	public static synchronized void clearSharedInstances()
+	{
+		INSTANCES.clear();
+		hand = null;
+	}
+
+	/**
+	 Computes the raw noise at the given coordinates.
+
+	 @param x The point's x.
+	 @param y The point's y.
+	 @param z The point's z.
+	 @return The noise, within [-1, 1] but in practice within about [-0.707, 0.707].
+	 */
+	public float noise(float x, float y, float z)
+	{
+		return NoiseKernels.perlinNoise(perm, x, y, z);
+	}
+
+	/**
+	 Computes the raw noise at many points at once, vectorised when possible (see NoiseKernels).
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @param zs The points' zs.
+	 @param out The array receiving the noise of each point.
+	 @param count The number of points.
+	 */
+	public void noise(float[] xs, float[] ys, float[] zs, float[] out, int count)
+	{
+		NoiseKernels.SELECTED.perlinNoise(perm, xs, ys, zs, out, count);
+	}
+
+	/**
+	 Computes the noise at the given coordinates, rescaled to [0, 1]: the raw noise never spreads outside
+	 [-0.707, 0.707], so it is scaled up and the theoretical outliers are clipped.
+
+	 @param x The point's x.
+	 @param y The point's y.
+	 @param z The point's z.
+	 @return The noise, between 0 and 1.
+	 */
+	public float normedNoise(float x, float y, float z)
+	{
+		return normed(noise(x, y, z));
+	}
+
+	/**
+	 Computes the noise at many points at once, rescaled to [0, 1], vectorised when possible (see NoiseKernels).
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @param zs The points' zs.
+	 @param out The array receiving the noise of each point.
+	 @param count The number of points.
+	 */
+	public void normedNoise(float[] xs, float[] ys, float[] zs, float[] out, int count)
+	{
+		noise(xs, ys, zs, out, count);
+		for (int i = 0; i < count; i++)
+		{
+			out[i] = normed(out[i]);
+		}
+	}
+
+	/**
+	 Fills a grid with a slice of noise rescaled to [0, 1], row by row: sample (i, j), at index j * width + i,
+	 receives normedNoise(x0 + i * dx, y0 + j * dy, z).
+
+	 @param out The array receiving the grid, of at least width * height values.
+	 @param x0 The x of the first sample.
+	 @param y0 The y of the first sample.
+	 @param z The z of the slice.
+	 @param dx The x step between two samples of a row.
+	 @param dy The y step between two rows.
+	 @param width The number of samples per row.
+	 @param height The number of rows.
+	 */
+	public void fill(float[] out, float x0, float y0, float z, float dx, float dy, int width, int height)
+	{
+		float[] xs = new float[width];
+		float[] ys = new float[width];
+		float[] zs = new float[width];
+		float[] row = new float[width];
+		for (int i = 0; i < width; i++)
+		{
+			xs[i] = x0 + i * dx;
+		}
+		Arrays.fill(zs, z);
+		for (int j = 0; j < height; j++)
+		{
+			Arrays.fill(ys, y0 + j * dy);
+			normedNoise(xs, ys, zs, row, width);
+			System.arraycopy(row, 0, out, j * width, width);
+		}
+	}
+
+	private static float normed(float noise)
+	{
+		noise /= 0.70710678118f;
+
+		if (noise < -1)
+		{
+			noise = -1;
+		}
+		else if (noise > 1)
+		{
+			noise = 1;
+		}
+
+		return (noise + 1) / 2;
+	}
+
+	/**
+	 Computes the height of a terrain point, as 3 harmonics of normed noise.
+
+	 @param x The point's x.
+	 @param y The point's y.
+	 @param z The point's z.
+	 @return The altitude, between 0 and 1.
+	 */
+	public float altitude(float x, float y, float z)
+	{
+		return (normedNoise(x, y, z) + normedNoise(x * 2, y * 2, z * 2) / 2 + normedNoise(x * 4, y * 4, z * 4) / 4) / 1.75f;
+	}
+}
@@ -1,7 +1,8 @@
 package org.saucistophe.math;
 
 /**
- A direct adaptation of Ken Perlin's noise.
+ A direct adaptation of Ken Perlin's noise, over his reference permutation.
+ Use PerlinNoise for other permutations.
  */
 public class PerlinUtils
 {
@@ -43,58 +44,10 @@ public class PerlinUtils
         141, 128, 195, 78, 66, 215, 61, 156, 180
     };
 
-    private static float fade(float t)
-    {
-        return t * t * t * (t * (t * 6 - 15) + 10);
-    }
-
-    private static float lerp(float t, float a, float b)
-    {
-        return a + t * (b - a);
-    }
-
-    private static float grad(int hash, float x, float y, float z)
-    {
-        // CONVERT LO 4 BITS OF HASH CODE INTO 12 GRADIENT DIRECTIONS.
-        int h = hash & 15;
-        float u = h < 8 ? x : y;
-        float v = h < 4 ? y : h == 12 || h == 14 ? x : z;
-
-        return ((h & 1) != 0 ? -u : u) + ((h & 2) != 0 ? -v : v);
-    }
-
-    private static float noise(float x, float y, float z)
-    {
-        int X = (int) Math.floor(x) & 255; // FIND UNIT CUBE THAT
-        int Y = (int) Math.floor(y) & 255; // CONTAINS POINT.
-        int Z = (int) Math.floor(z) & 255;
-
-        x -= Math.floor(x); // FIND RELATIVE X,Y,Z
-        y -= Math.floor(y); // OF POINT IN CUBE.
-        z -= Math.floor(z);
-
-        float u = fade(x), // COMPUTE FADE CURVES
-            v
-            = fade(y), // FOR EACH OF X,Y,Z.
-            w
-            = fade(z);
-        // HASH COORDINATES OF THE 8 CUBE CORNERS,
-        int A = data[X] + Y;
-        int AA = data[A] + Z;
-        int AB = data[A + 1] + Z;
-        int B = data[X + 1] + Y;
-        int BA = data[B] + Z;
-        int BB = data[B + 1] + Z;
-
-        return lerp(w, lerp(v, lerp(u, grad(data[AA], x, y, z), // AND ADD
-            grad(data[BA], x - 1, y, z)), // BLENDED
-            lerp(u, grad(data[AB], x, y - 1, z), // RESULTS
-                grad(data[BB], x - 1, y - 1, z))),// FROM  8
-            lerp(v, lerp(u, grad(data[AA + 1], x, y, z - 1), // CORNERS
-                    grad(data[BA + 1], x - 1, y, z - 1)), // OF CUBE
-                lerp(u, grad(data[AB + 1], x, y - 1, z - 1), grad(data[BB + 1], x
-                        - 1, y - 1, z - 1))));
-    }
+    /**
+     The noise over Ken Perlin's reference permutation.
+     */
+    private final static PerlinNoise NOISE = new PerlinNoise(data);
 
     /**
      Get a Noise value for the given x,y,z coordinates.
@@ -104,35 +57,30 @@ public class PerlinUtils
      @return Numbers between 0 and 1. Plus, due to gaussian
      distribution never spreading outside [-0.707,0.707], I scaled the results
      and clipped away those theoretically inexistant issues.
+     @see PerlinNoise#normedNoise(float, float, float)
      */
-	static float min = 0;
-	static float max = 0;
-	static int count = 0;
-
     public static float normedNoise(float x, float y, float z)
     {
-        float noise = noise(x, y, z) / 0.70710678118f;
-
-        if (noise < -1)
-        {
-            noise = -1;
-        }
-        else if (noise > 1)
-        {
-            noise = 1;
-        }
+        return NOISE.normedNoise(x, y, z);
+    }
 
-        return (noise + 1) / 2;
+    /**
+     Get Noise values for many coordinates at once, vectorised when possible.
+     @see PerlinNoise#normedNoise(float[], float[], float[], float[], int)
+     */
+    public static void normedNoise(float[] xs, float[] ys, float[] zs, float[] out, int count)
+    {
+        NOISE.normedNoise(xs, ys, zs, out, count);
     }
 
     /**
      Get a Noise value for the given x,y,z coordinates.
      computes the height of a terrain pixel according to its position on a
      sphere. Includes 3 harmonics. Returns a float between 0 and 1.
+     @see PerlinNoise#altitude(float, float, float)
      */
     public static float altitude(float x, float y, float z)
     {
-        return (normedNoise(x, y, z) + normedNoise(x * 2, y * 2, z
-            * 2) / 2 + normedNoise(x * 4, y * 4, z * 4) / 4) / 1.75f;
+        return NOISE.altitude(x, y, z);
     }
 }
@@ -0,0 +1,259 @@
+package org.saucistophe.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleToIntFunction;
+import org.saucistophe.math.NoiseFieldGenerator.Noise3D;
+import org.saucistophe.math.NoiseFieldGenerator.Noise4D;
+import org.saucistophe.utils.ColorUtils;
+
+/**
+ Paints noise into seamless ARGB rasters: textures tiling in both directions, and textures wrapping around a sphere.
+ A tiling texture samples 4D noise over a torus: each of its axes is mapped onto a circle, so that both edges of the
+ texture meet the same noise. A sphere texture samples 3D noise on the sphere itself, so that it has neither seams nor
+ pinched poles.
+ Rasters are painted by bands of rows, in parallel if requested.
+ */
+public class SeamlessTextures
+{
+	/**
+	 The minimum number of pixels of a band of rows painted in parallel.
+	 */
+	private static final int BAND_THRESHOLD = 1 << 14;
+
+	/**
+	 Paints a row of a raster.
+	 */
+	@FunctionalInterface
+	private interface RowPainter
+	{
+		void paintRow(int row);
+	}
+
+	/**
+	 Builds a colour map painting values in grey levels.
+
+	 @param min The value painted black.
+	 @param max The value painted white.
+	 @return A colour map from values to opaque ARGB greys, clamping values outside [min, max].
+	 */
+	public static DoubleToIntFunction grayscale(double min, double max)
+	{
+		return value -> ColorUtils.floatToArgbGrey((float) Math.max(0, Math.min((value - min) / (max - min), 1)));
+	}
+
+	/**
+	 Paints a texture tiling seamlessly in both directions. Its pixel (i, j) samples the noise at
+	 (rx cos(a), rx sin(a), ry cos(b), ry sin(b)), with a = 2 pi i / width, b = 2 pi j / height, and where the radii
+	 are such that a circle is periodX, respectively periodY, long.
+
+	 @param raster The raster to fill, row by row; pixel (i, j) is at index j * width + i.
+	 @param width The width of the raster, in pixels.
+	 @param height The height of the raster, in pixels.
+	 @param periodX The length of noise, in noise units, spanned by a row.
+	 @param periodY The length of noise, in noise units, spanned by a column.
+	 @param noise The 4D noise to sample.
+	 @param colorMap The mapping from noise values to ARGB colours.
+	 @param parallel True if bands of rows may be painted in parallel.
+	 */
+	public static void fillTorus(int[] raster, int width, int height, double periodX, double periodY, Noise4D noise, DoubleToIntFunction colorMap, boolean parallel)
+	{
+		assert (raster.length >= width * height);
+		double[] xs = new double[width];
+		double[] ys = new double[width];
+		fillCircle(xs, ys, periodX / (2 * Math.PI));
+		double[] zs = new double[height];
+		double[] ws = new double[height];
+		fillCircle(zs, ws, periodY / (2 * Math.PI));
+
+		paint(width, height, parallel, row ->
+		{
+			int offset = row * width;
+			for (int i = 0; i < width; i++)
+			{
+				raster[offset + i] = colorMap.applyAsInt(noise.eval(xs[i], ys[i], zs[row], ws[row]));
+			}
+		});
+	}
+
+	/**
+	 Paints the equirectangular projection of a sphere texture: the pixel (i, j) samples the noise at longitude
+	 2 pi (i + 0.5) / width - pi and latitude pi / 2 - pi (j + 0.5) / height.
+
+	 @param raster The raster to fill, row by row; pixel (i, j) is at index j * width + i.
+	 @param width The width of the raster, in pixels.
+	 @param height The height of the raster, in pixels.
+	 @param radius The radius of the sphere, in noise units.
+	 @param noise The 3D noise to sample.
+	 @param colorMap The mapping from noise values to ARGB colours.
+	 @param parallel True if bands of rows may be painted in parallel.
+	 */
+	public static void fillEquirectangular(int[] raster, int width, int height, double radius, Noise3D noise, DoubleToIntFunction colorMap, boolean parallel)
+	{
+		assert (raster.length >= width * height);
+		double[] cosLongitudes = new double[width];
+		double[] sinLongitudes = new double[width];
+		for (int i = 0; i < width; i++)
+		{
+			double longitude = 2 * Math.PI * (i + 0.5) / width - Math.PI;
+			cosLongitudes[i] = Math.cos(longitude);
+			sinLongitudes[i] = Math.sin(longitude);
+		}
+
+		paint(width, height, parallel, row ->
+		{
+			double latitude = Math.PI / 2 - Math.PI * (row + 0.5) / height;
+			double ringRadius = radius * Math.cos(latitude);
+			double z = radius * Math.sin(latitude);
+			int offset = row * width;
+			for (int i = 0; i < width; i++)
+			{
+				raster[offset + i] = colorMap.applyAsInt(noise.eval(ringRadius * cosLongitudes[i], ringRadius * sinLongitudes[i], z));
+			}
+		});
+	}
+
+	/**
+	 Paints the six faces of a cube map of a sphere texture, one after the other, in the order +x, -x, +y, -y, +z, -z.
+	 Faces are oriented as OpenGL cube maps: seen from the centre, the pixel (i, j) of a face is in the direction
+	 (2 (i + 0.5) / size - 1, 1 - 2 (j + 0.5) / size) of its plane.
+
+	 @param raster The raster to fill, of at least 6 * size * size pixels; pixel (i, j) of face f is at index
+	 (f * size + j) * size + i.
+	 @param size The side of a face, in pixels.
+	 @param radius The radius of the sphere, in noise units.
+	 @param noise The 3D noise to sample.
+	 @param colorMap The mapping from noise values to ARGB colours.
+	 @param parallel True if bands of rows may be painted in parallel.
+	 */
+	public static void fillCubeMap(int[] raster, int size, double radius, Noise3D noise, DoubleToIntFunction colorMap, boolean parallel)
+	{
+		assert (raster.length >= 6 * size * size);
+		double[] coordinates = new double[size];
+		for (int i = 0; i < size; i++)
+		{
+			coordinates[i] = 2 * (i + 0.5) / size - 1;
+		}
+
+		paint(size, 6 * size, parallel, row ->
+		{
+			int face = row / size;
+			double t = -coordinates[row % size];
+			int offset = row * size;
+			for (int i = 0; i < size; i++)
+			{
+				double s = coordinates[i];
+				double x, y, z;
+				switch (face)
+				{
+					case 0:
+						x = 1;
+						y = t;
+						z = -s;
+						break;
+					case 1:
+						x = -1;
+						y = t;
+						z = s;
+						break;
+					case 2:
+						x = s;
+						y = 1;
+						z = -t;
+						break;
+					case 3:
+						x = s;
+						y = -1;
+						z = t;
+						break;
+					case 4:
+						x = s;
+						y = t;
+						z = 1;
+						break;
+					default:
+						x = -s;
+						y = t;
+						z = -1;
+						break;
+				}
+				double scale = radius / Math.sqrt(x * x + y * y + z * z);
+				raster[offset + i] = colorMap.applyAsInt(noise.eval(x * scale, y * scale, z * scale));
+			}
+		});
+	}
+
+	/**
+	 Fills the coordinates of points evenly spread on a circle.
+
+	 @param xs The points' xs.
+	 @param ys The points' ys.
+	 @param radius The radius of the circle.
+	 */
+	private static void fillCircle(double[] xs, double[] ys, double radius)
+	{
+		for (int i = 0; i < xs.length; i++)
+		{
+			double angle = 2 * Math.PI * i / xs.length;
+			xs[i] = radius * Math.cos(angle);
+			ys[i] = radius * Math.sin(angle);
+		}
+	}
+
+	private static void paint(int width, int height, boolean parallel, RowPainter painter)
+	{
+		BandTask task = new BandTask(painter, width, 0, height, parallel);
+		if (parallel && (long) width * height > BAND_THRESHOLD)
+		{
+			ForkJoinPool.commonPool().invoke(task);
+		}
+		else
+		{
+			task.invoke();
+		}
+	}
+
+	/**
+	 A task painting a band of rows, split in two while it is big enough.
+	 */
+	private static class BandTask extends RecursiveAction
+	{
+		private final RowPainter painter;
+		private final int width;
+		private final int fromRow;
+		private final int toRow;
+		private final boolean parallel;
+
+		/**
+		 @param painter The code painting a row.
+		 @param width The width of the raster, in pixels.
+		 @param fromRow The first row of the band, inclusive.
+		 @param toRow The last row of the band, exclusive.
+		 @param parallel True if the band may be split into parallel bands.
+		 */
+		BandTask(RowPainter painter, int width, int fromRow, int toRow, boolean parallel)
+		{
+			this.painter = painter;
+			this.width = width;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.parallel = parallel;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (parallel && toRow - fromRow > 1 && (long) (toRow - fromRow) * width > BAND_THRESHOLD)
+			{
+				int mid = (fromRow + toRow) >>> 1;
+				invokeAll(new BandTask(painter, width, fromRow, mid, true), new BandTask(painter, width, mid, toRow, true));
+				return;
+			}
+
+			for (int row = fromRow; row < toRow; row++)
+			{
+				painter.paintRow(row);
+			}
+		}
+	}
+}
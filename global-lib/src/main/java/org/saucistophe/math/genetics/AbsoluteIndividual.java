@@ -0,0 +1,30 @@
+package org.saucistophe.math.genetics;
+
+/**
+ An individual whose fitness is an absolute objective, computed independently of the other individuals. Evaluated by
+ FitnessEvaluator.INDIVIDUAL, it needs n evaluations per generation rather than fights between couples.
+ */
+public abstract class AbsoluteIndividual extends Individual
+{
+	/**
+	 Computes the fitness of this individual. Evaluations run concurrently.
+
+	 @return The fitness, higher being better.
+	 */
+	public abstract long evaluate();
+
+	/**
+	 Fights another absolute individual, by comparing their evaluations: the best one wins a point. This lets absolute
+	 individuals be ranked by fights too, although a FitnessEvaluator is much cheaper.
+
+	 @param otherIndividual The other individual, an AbsoluteIndividual.
+	 */
+	@Override
+	public void fight(Individual otherIndividual)
+	{
+		if (evaluate() > ((AbsoluteIndividual) otherIndividual).evaluate())
+		{
+			addFitness(1);
+		}
+	}
+}
@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.saucistophe.patterns.Pair;
 
 /**
@@ -14,7 +16,9 @@ public class BasicNaturalSelection
 {
 	/**
 	 The mixing factor of the algorithm.
-	 The minimum value is 2, for which 6 individuals will fight, 2 will win, 2 children will be made, and 2 random others will be born.
+	 It is the number of winners becoming parents, each couple of which makes a child: the population must hold at least
+	 MIXING_FACTOR * (MIXING_FACTOR + 1) / 2 individuals. With a factor of 2 and 6 individuals, 2 will win, 1 child will
+	 be made, and 3 random others will be born.
 	 Increasing this factor drastically increases the number of children created at each iteration, and thus reduces the focus on good individuals.
 	 */
 	public static int MIXING_FACTOR = 4;
@@ -24,51 +28,172 @@ public class BasicNaturalSelection
 	 */
 	public List<Individual> individuals;
 
+	/**
+	 The strategy deciding which individuals fight each other. The default round robin makes all of them fight, which
+	 limits it to small populations; the other strategies play a number of fights linear in the population.
+	 */
+	public SelectionStrategy selection = new RoundRobinSelection();
+
+	/**
+	 The cache replaying the fights between unchanged genomes, or null to play all fights.
+	 The individuals must then implement Individual.getGenomeHash.
+	 */
+	public FightCache fightCache;
+
+	/**
+	 Whether the fights, and the resets of the individuals, run in parallel on the common pool. Turned off when the
+	 selection already runs on a thread of its own, as the islands of an IslandModel do.
+	 */
+	public boolean parallel = true;
+
+	/**
+	 The evaluator scoring individuals on an absolute objective, or null to make them fight as scheduled by the selection
+	 strategy.
+	 */
+	public FitnessEvaluator evaluator;
+
+	/**
+	 The number of individuals given at once to the evaluator, strictly positive.
+	 */
+	public int batchSize = 256;
+
+	/**
+	 The number of best individuals kept as they are in the next generation, the others being randomized or replaced by
+	 children. A negative value keeps the MIXING_FACTOR parents.
+	 */
+	public int eliteCount = -1;
+
+	/**
+	 The rate given to Individual.mutate for each child, between 0 and 1, or 0 to keep children as they are made.
+	 */
+	public double mutationRate = 0;
+
 	/**
 	 @param parents A list of potential parents.
 	 @return A list of all the possibles couples.
 	 */
 	public List<Pair<Individual, Individual>> getCouples(List<Individual> parents)
 	{
-		List<Pair<Individual, Individual>> couples = new ArrayList<>();
-		for (int i = 0; i < parents.size(); i++)
-		{
-			for (int j = i + 1; j < parents.size(); j++)
-			{
-				couples.add(new Pair<>(parents.get(i), parents.get(j)));
-			}
-		}
+		return RoundRobinSelection.getCouples(parents);
+	}
+
+	/**
+	 Plays a round of fights, in parallel. The fighters' points are accumulated without locking during the round, then
+	 added to their fitness.
 
-		assert (couples.size() == parents.size() * (parents.size() - 1) / 2);
+	 @param couples The couples to make fight.
+	 */
+	void fight(List<Pair<Individual, Individual>> couples)
+	{
+		Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "New round. {0} Fights!", couples.size());
+		// For each scheduled couple:
+		stream(couples)
+				.forEach(couple ->
+						{
+							Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.FINE, "Fight begins! {0}", couple);
+							// Make the couple fight.
+							if (fightCache == null)
+							{
+								couple.left.fight(couple.right);
+								couple.right.fight(couple.left);
+							}
+							else
+							{
+								fightCache.fight(couple.left, couple.right);
+								fightCache.fight(couple.right, couple.left);
+							}
+							Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.FINE, "Fight over!   {0}", couple);
+						});
 
-		return couples;
+		// Reduce the round's points; collecting an individual again adds nothing.
+		couples.forEach(couple ->
+				{
+					couple.left.collectFitness();
+					couple.right.collectFitness();
+				});
 	}
 
 	/**
-	 Plays an iteration of the algorithm: Make all possible couples fight each other,
-	 and let the best generation have children.
+	 @return The number of best individuals kept as they are in the next generation.
+	 */
+	int getEliteCount()
+	{
+		return eliteCount < 0 ? MIXING_FACTOR : eliteCount;
+	}
+
+	/**
+	 Evaluates the individuals on an absolute objective, batch by batch, in parallel, then adds the scores to their
+	 fitness.
+
+	 @param individuals The individuals to evaluate.
+	 */
+	void evaluate(List<Individual> individuals)
+	{
+		Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "{0} evaluations!", individuals.size());
+		IntStream batches = IntStream.range(0, (individuals.size() + batchSize - 1) / batchSize);
+		(parallel ? batches.parallel() : batches)
+				.forEach(batch -> evaluator.evaluate(individuals.subList(batch * batchSize, Math.min((batch + 1) * batchSize, individuals.size()))));
+
+		individuals.forEach(Individual::collectFitness);
+	}
+
+	/**
+	 Plays an iteration of the algorithm: Make couples fight each other, as scheduled by the selection strategy, or
+	 score the individuals with the evaluator, and let the best generation have children.
 	 The individuals will be reset before processing, and will be sorted by descending fitness afterwards.
+	 The population must hold at least the MIXING_FACTOR parents and their children; the other individuals are randomized.
 	 */
 	public void iterate()
 	{
-		assert (individuals.size() == MIXING_FACTOR * (MIXING_FACTOR + 2));
+		int childCount = MIXING_FACTOR * (MIXING_FACTOR - 1) / 2;
+		if (individuals.size() < MIXING_FACTOR + childCount)
+		{
+			throw new IllegalStateException("A mixing factor of " + MIXING_FACTOR + " needs at least " + (MIXING_FACTOR + childCount) + " individuals, got " + individuals.size());
+		}
+		int elites = getEliteCount();
+		if (elites > individuals.size() - childCount)
+		{
+			throw new IllegalStateException(elites + " elites leave no room for " + childCount + " children among " + individuals.size() + " individuals");
+		}
+		if (batchSize < 1)
+		{
+			throw new IllegalStateException("Non positive batch size: " + batchSize);
+		}
+		if (!(mutationRate >= 0 && mutationRate <= 1))
+		{
+			throw new IllegalStateException("Mutation rate outside [0, 1]: " + mutationRate);
+		}
+		if (fightCache != null && evaluator == null)
+		{
+			// Fail here rather than on the first fight, deep within a parallel stream.
+			individuals.stream()
+					.map(Individual::getClass)
+					.distinct()
+					.filter(type -> !FightCache.hashesGenome(type))
+					.findFirst()
+					.ifPresent(type ->
+							{
+								throw new IllegalStateException(type.getName() + " must override getGenomeHash to fight through a FightCache");
+							});
+		}
 
 		// Reset all fitnesses.
-		individuals.parallelStream().forEach(i -> i.fitness = 0);
+		stream(individuals).forEach(Individual::resetFitness);
 
-		Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "New iteration. {0} Fights!", individuals.size() * (individuals.size() - 1) / 2);
-		// For each possible couple:
-		getCouples(individuals).parallelStream()
-				.forEach(couple ->
-						{
-							Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "Fight begins! {0}", couple);
-							// Make the couple fight.
-							couple.left.fight(couple.right);
-							couple.right.fight(couple.left);
-							Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "Fight over!   {0}", couple);
-						});
+		if (evaluator != null)
+		{
+			evaluate(individuals);
+		}
+		else
+		{
+			selection.schedule(individuals, this::fight);
+		}
 
 		Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "Fights over for this iteration.");
+		if (fightCache != null)
+		{
+			Logger.getLogger(BasicNaturalSelection.class.getName()).log(Level.INFO, "{0}", fightCache);
+		}
 
 		// Order the individuals by descending fitness.
 		individuals.sort((a, b) ->
@@ -86,12 +211,16 @@ public class BasicNaturalSelection
 				.stream()
 				.map(couple -> couple.left.makeChild(couple.right))
 				.collect(Collectors.toList());
+		if (mutationRate > 0)
+		{
+			children.forEach(child -> child.mutate(mutationRate));
+		}
 
 		// Make some room for the children.
-		individuals = individuals.subList(0, individuals.size() - children.size());
+		individuals = new ArrayList<>(individuals.subList(0, individuals.size() - children.size()));
 
-		// Randomize the leftovers, and insert the children.
-		for (int i = MIXING_FACTOR; i < individuals.size(); i++)
+		// Randomize the leftovers but the elites, and insert the children.
+		for (int i = elites; i < individuals.size(); i++)
 		{
 			individuals.get(i).randomize();
 		}
@@ -103,6 +232,11 @@ public class BasicNaturalSelection
 	 */
 	public void init()
 	{
-		individuals.parallelStream().forEach(Individual::randomize);
+		stream(individuals).forEach(Individual::randomize);
+	}
+
+	private <T> Stream<T> stream(List<T> list)
+	{
+		return parallel ? list.parallelStream() : list.stream();
 	}
 }
@@ -0,0 +1,265 @@
+package org.saucistophe.math.genetics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ A cache of fight outcomes, so that individuals surviving from one generation to the next do not fight again when
+ neither genome changed.
+ Fights are identified by the genome hashes of both fighters (see Individual.getGenomeHash), so they must be
+ deterministic, and give their points through addFitness, from the thread calling fight, to the fighters only. Fights
+ giving points to other individuals, or writing the fitness directly as individuals predating addFitness do, are played
+ every time.
+ At most a given number of outcomes is kept, the least recently used ones being evicted first. The cache can be shared
+ between threads; a fight missed by several threads at once may be played more than once.
+ */
+public class FightCache
+{
+	/**
+	 The identification of a fight: the genome hashes of the individual fighting, and of its opponent.
+	 */
+	private static final class FightKey
+	{
+		private final long attacker;
+		private final long defender;
+
+		private FightKey(long attacker, long defender)
+		{
+			this.attacker = attacker;
+			this.defender = defender;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * Long.hashCode(attacker) + Long.hashCode(defender);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof FightKey))
+			{
+				return false;
+			}
+			FightKey other = (FightKey) o;
+			return attacker == other.attacker && defender == other.defender;
+		}
+	}
+
+	/**
+	 The points given during a fight, as recorded by Individual.addFitness.
+	 */
+	static final class Outcome
+	{
+		private final Individual attacker;
+		private final Individual defender;
+		private long attackerPoints;
+		private long defenderPoints;
+
+		/**
+		 Whether points were given to other individuals than the fighters.
+		 */
+		private boolean uncacheable;
+
+		private Outcome(Individual attacker, Individual defender)
+		{
+			this.attacker = attacker;
+			this.defender = defender;
+		}
+
+		void record(Individual individual, long points)
+		{
+			if (individual == attacker)
+			{
+				attackerPoints += points;
+			}
+			else if (individual == defender)
+			{
+				defenderPoints += points;
+			}
+			else
+			{
+				uncacheable = true;
+			}
+		}
+	}
+
+	/**
+	 The outcomes, from the least recently used.
+	 */
+	private final LinkedHashMap<FightKey, long[]> outcomes = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 The largest number of outcomes kept.
+	 */
+	private final int maxSize;
+
+	/**
+	 Statistics: the fights replayed from the cache, the fights played, and the outcomes evicted.
+	 */
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 @param maxSize The largest number of outcomes kept.
+	 */
+	public FightCache(int maxSize)
+	{
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 Makes an individual fight another one, or gives them the points of the same fight played earlier.
+
+	 @param attacker The individual fighting.
+	 @param defender Its opponent.
+	 */
+	public void fight(Individual attacker, Individual defender)
+	{
+		FightKey key = new FightKey(attacker.getGenomeHash(), defender.getGenomeHash());
+		long[] points;
+		synchronized (this)
+		{
+			points = outcomes.get(key);
+			if (points != null)
+			{
+				hits++;
+			}
+			else
+			{
+				misses++;
+			}
+		}
+		if (points != null)
+		{
+			attacker.addFitness(points[0]);
+			defender.addFitness(points[1]);
+			return;
+		}
+
+		Outcome outcome = new Outcome(attacker, defender);
+		int attackerFitness = attacker.fitness;
+		int defenderFitness = defender.fitness;
+		Outcome previousOutcome = Individual.RECORDED_OUTCOME.get();
+		Individual.RECORDED_OUTCOME.set(outcome);
+		try
+		{
+			attacker.fight(defender);
+		}
+		finally
+		{
+			Individual.RECORDED_OUTCOME.set(previousOutcome);
+		}
+
+		// A fight writing the fitness directly records no points: replaying it would silently give none.
+		if (!outcome.uncacheable && attacker.fitness == attackerFitness && defender.fitness == defenderFitness)
+		{
+			synchronized (this)
+			{
+				outcomes.put(key, new long[]
+				{
+					outcome.attackerPoints, outcome.defenderPoints
+				});
+				evict();
+			}
+		}
+	}
+
+	/**
+	 @param type A class of individuals.
+	 @return Whether the class overrides Individual.getGenomeHash, as individuals fighting through a cache must.
+	 */
+	static boolean hashesGenome(Class<? extends Individual> type)
+	{
+		try
+		{
+			return type.getMethod("getGenomeHash").getDeclaringClass() != Individual.class;
+		}
+		catch (NoSuchMethodException e)
+		{
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 Evicts the least recently used outcomes until the size bound is met.
+	 */
+	private void evict()
+	{
+		Iterator<Map.Entry<FightKey, long[]>> iterator = outcomes.entrySet().iterator();
+		while (outcomes.size() > maxSize)
+		{
+			iterator.next();
+			iterator.remove();
+			evictions++;
+		}
+	}
+
+	/**
+	 Empties the cache. The statistics are kept.
+	 */
+	public synchronized void clear()
+	{
+		outcomes.clear();
+	}
+
+	/**
+	 @return The number of outcomes kept.
+	 */
+	public synchronized int size()
+	{
+		return outcomes.size();
+	}
+
+	/**
+	 @return The number of fights replayed from the cache.
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 @return The number of fights played.
+	 */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	/**
+	 @return The number of outcomes evicted.
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 @return The ratio of the fights replayed from the cache, or 0 if there was none.
+	 */
+	public synchronized double getHitRatio()
+	{
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 Resets the statistics.
+	 */
+	public synchronized void resetStatistics()
+	{
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	@Override
+	public synchronized String toString()
+	{
+		return "FightCache[" + outcomes.size() + " outcomes, " + hits + " hits, " + misses + " misses, " + evictions + " evictions]";
+	}
+}
@@ -0,0 +1,26 @@
+package org.saucistophe.math.genetics;
+
+import java.util.List;
+
+/**
+ Scores individuals on an absolute objective, each independently of the others, as an alternative to fights: n
+ evaluations per generation instead of fights between couples.
+ Individuals are given in batches, so that an evaluator can process many of them at once, for instance with vector
+ instructions or a native library. Batches may be evaluated concurrently.
+ */
+@FunctionalInterface
+public interface FitnessEvaluator
+{
+	/**
+	 Evaluates individuals which evaluate themselves, through AbsoluteIndividual.evaluate; all of them must be
+	 AbsoluteIndividuals.
+	 */
+	FitnessEvaluator INDIVIDUAL = batch -> batch.forEach(individual -> individual.addFitness(((AbsoluteIndividual) individual).evaluate()));
+
+	/**
+	 Scores a batch of individuals, giving each its score through addFitness.
+
+	 @param batch The individuals to evaluate.
+	 */
+	void evaluate(List<Individual> batch);
+}
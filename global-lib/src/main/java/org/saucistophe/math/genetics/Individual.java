@@ -1,5 +1,8 @@
 package org.saucistophe.math.genetics;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  An invidual that can evolve in a genetic simulation.
  */
@@ -8,9 +11,70 @@ public abstract class Individual
 	/**
 	The fitness of this individual in the selection process.
 	Represents the victories vs defeats during the fights.
+	It is updated between rounds of fights, from the points given by addFitness: fights must not modify it directly.
 	*/
 	public int fitness = 0;
 
+	/**
+	 The points won during the current round of fights. An individual may fight in several threads at once, so they are
+	 accumulated without locking, and reduced into the fitness once the round is over.
+	 */
+	private final LongAdder points = new LongAdder();
+
+	/**
+	 The outcome of the fight played by the current thread for a FightCache, or null.
+	 */
+	static final ThreadLocal<FightCache.Outcome> RECORDED_OUTCOME = new ThreadLocal<>();
+
+	/**
+	 Gives points to this individual, typically from a fight. Thread-safe and lock-free.
+
+	 @param points The points to add to the fitness, or to remove from it if negative.
+	 */
+	public void addFitness(long points)
+	{
+		this.points.add(points);
+
+		FightCache.Outcome outcome = RECORDED_OUTCOME.get();
+		if (outcome != null)
+		{
+			outcome.record(this, points);
+		}
+	}
+
+	/**
+	 Adds the points won since the last call to the fitness. Called once the fights of a round are over.
+
+	 @throws ArithmeticException If the fitness overflows an int, which would silently break the ranking.
+	 */
+	void collectFitness()
+	{
+		fitness = Math.toIntExact(fitness + points.sumThenReset());
+	}
+
+	/**
+	 Resets the fitness, and any uncollected points.
+	 */
+	public void resetFitness()
+	{
+		fitness = 0;
+		points.reset();
+	}
+
+	/**
+	 Computes a hash of this individual's genome, identifying its fights in a FightCache. It must be stable: equal for
+	 individuals that fight the same way, as long as their genome is unchanged, including across runs if the cache is
+	 kept. Unrelated genomes must hardly ever collide, as they would share their fight outcomes; 64 bits of a good hash
+	 function make this negligible.
+	 Individuals fighting through a FightCache must override this method.
+
+	 @return The hash of the genome.
+	 */
+	public long getGenomeHash()
+	{
+		throw new UnsupportedOperationException(getClass().getName() + " does not hash its genome");
+	}
+
 	/**
 	 Makes a child, that will be forged from the average of the parents.
 
@@ -24,9 +88,24 @@ public abstract class Individual
 	 */
 	public abstract void randomize();
 
+	/**
+	 Mutates this child. The default mutation randomizes the whole genome with the given probability; individuals with
+	 several genes should rather mutate each of them with that probability.
+
+	 @param rate The mutation rate, between 0 and 1.
+	 */
+	public void mutate(double rate)
+	{
+		if (ThreadLocalRandom.current().nextDouble() < rate)
+		{
+			randomize();
+		}
+	}
+
 	/**
 	 Fight the other individual.
 	 A fight is not a mutual fight, and the inverse fight must be fought.
+	 Fights run concurrently: the outcome must be recorded through addFitness, on either individual.
 
 	 @param otherIndividual The other parent.
 	 */
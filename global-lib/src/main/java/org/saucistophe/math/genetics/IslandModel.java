@@ -0,0 +1,170 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ An island model genetic algorithm: several populations, each a BasicNaturalSelection, evolve independently on their
+ own threads, and only meet every few generations, when their best individuals migrate.
+ Islands do not wait for each other between migrations, so the model scales with the number of threads as long as
+ there are at least as many islands. Migration goes around a ring: the best individuals of each island are copied to
+ the next one, taking the place of randomized individuals. Migrants are copied as children of themselves, through
+ Individual.makeChild, so that no individual lives on two islands at once.
+ */
+public class IslandModel
+{
+	/**
+	 The islands. Each one must hold its individuals, and may have its own selection strategy or fight cache.
+	 */
+	public final List<BasicNaturalSelection> islands = new ArrayList<>();
+
+	/**
+	 The number of generations between two migrations, strictly positive.
+	 */
+	public int migrationInterval = 10;
+
+	/**
+	 The number of individuals migrating from each island, at most the number of elites of each island: the other
+	 individuals have been randomized when migrating.
+	 */
+	public int migrantCount = 1;
+
+	/**
+	 The pool running the islands.
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 Builds a model running on the common pool.
+	 */
+	public IslandModel()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 Builds a model running on the given pool.
+
+	 @param pool The pool running the islands, whose parallelism sets the number of threads used.
+	 */
+	public IslandModel(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
+	/**
+	 Adds an island. Its fights will run on the island's thread only.
+
+	 @param individuals The individuals of the island.
+	 @return The island, to be configured further.
+	 */
+	public BasicNaturalSelection addIsland(List<Individual> individuals)
+	{
+		BasicNaturalSelection island = new BasicNaturalSelection();
+		island.individuals = individuals;
+		island.parallel = false;
+		islands.add(island);
+		return island;
+	}
+
+	/**
+	 Inits the individuals of all islands with random values.
+	 */
+	public void init()
+	{
+		runIslands(BasicNaturalSelection::init);
+	}
+
+	/**
+	 Evolves the islands for some generations, with a migration every migrationInterval generations.
+
+	 @param generations The number of generations.
+	 */
+	public void evolve(int generations)
+	{
+		if (migrationInterval <= 0)
+		{
+			throw new IllegalStateException("Non positive migration interval: " + migrationInterval);
+		}
+		int childCount = BasicNaturalSelection.MIXING_FACTOR * (BasicNaturalSelection.MIXING_FACTOR - 1) / 2;
+		for (BasicNaturalSelection island : islands)
+		{
+			if (migrantCount > island.getEliteCount())
+			{
+				throw new IllegalStateException(migrantCount + " migrants for only " + island.getEliteCount() + " elites kept by an island");
+			}
+			int minimumSize = island.getEliteCount() + migrantCount + childCount;
+			if (island.individuals.size() < minimumSize)
+			{
+				throw new IllegalStateException("Islands need room for " + migrantCount + " migrants besides elites and children: at least " + minimumSize + " individuals, got " + island.individuals.size());
+			}
+		}
+
+		for (int generation = 0; generation < generations; generation += migrationInterval)
+		{
+			int epoch = Math.min(migrationInterval, generations - generation);
+			runIslands(island ->
+			{
+				for (int i = 0; i < epoch; i++)
+				{
+					island.iterate();
+				}
+			});
+			if (epoch == migrationInterval)
+			{
+				migrate();
+			}
+		}
+	}
+
+	/**
+	 Runs an action on each island, in parallel, and waits for all of them.
+	 */
+	private void runIslands(Consumer<BasicNaturalSelection> action)
+	{
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for (BasicNaturalSelection island : islands)
+		{
+			tasks.add(pool.submit(() -> action.accept(island)));
+		}
+		tasks.forEach(ForkJoinTask::join);
+	}
+
+	/**
+	 Copies the best individuals of each island to the next one. Right after an iteration, the first individuals of an
+	 island are its elites, kept as they are by descending fitness, and the next ones have just been randomized: the
+	 migrants are copied from the former, over the latter.
+	 */
+	void migrate()
+	{
+		Logger.getLogger(IslandModel.class.getName()).log(Level.INFO, "Migration of {0} individuals between {1} islands.", new Object[]
+		{
+			migrantCount, islands.size()
+		});
+
+		List<List<Individual>> migrants = new ArrayList<>();
+		for (BasicNaturalSelection island : islands)
+		{
+			List<Individual> islandMigrants = new ArrayList<>();
+			for (Individual migrant : island.individuals.subList(0, migrantCount))
+			{
+				islandMigrants.add(migrant.makeChild(migrant));
+			}
+			migrants.add(islandMigrants);
+		}
+
+		for (int i = 0; i < islands.size(); i++)
+		{
+			BasicNaturalSelection destination = islands.get((i + 1) % islands.size());
+			for (int j = 0; j < migrantCount; j++)
+			{
+				destination.individuals.set(destination.getEliteCount() + j, migrants.get(i).get(j));
+			}
+		}
+	}
+}
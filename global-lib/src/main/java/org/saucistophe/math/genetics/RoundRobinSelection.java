@@ -0,0 +1,37 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.saucistophe.patterns.Pair;
+
+/**
+ Every individual fights all the others: the most accurate ranking, but n * (n - 1) / 2 fights for n individuals.
+ */
+public class RoundRobinSelection implements SelectionStrategy
+{
+	/**
+	 @param individuals A list of individuals.
+	 @return A list of all the possibles couples.
+	 */
+	public static List<Pair<Individual, Individual>> getCouples(List<Individual> individuals)
+	{
+		List<Pair<Individual, Individual>> couples = new ArrayList<>();
+		for (int i = 0; i < individuals.size(); i++)
+		{
+			for (int j = i + 1; j < individuals.size(); j++)
+			{
+				couples.add(new Pair<>(individuals.get(i), individuals.get(j)));
+			}
+		}
+
+		assert (couples.size() == individuals.size() * (individuals.size() - 1) / 2);
+
+		return couples;
+	}
+
+	@Override
+	public void schedule(List<Individual> individuals, Arena arena)
+	{
+		arena.fight(getCouples(individuals));
+	}
+}
@@ -0,0 +1,60 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.saucistophe.patterns.Pair;
+
+/**
+ A sampled round robin: each individual fights a given number of random opponents rather than all the others.
+ Each round links the shuffled individuals in a cycle, each one meeting the next, so that everyone gets exactly 2 fights
+ per round, for n fights per round. Couples may meet again in later rounds.
+ */
+public class SampledRoundRobinSelection implements SelectionStrategy
+{
+	/**
+	 The number of couples each individual is part of, rounded up to an even number.
+	 */
+	public final int budget;
+
+	/**
+	 The random generator shuffling the individuals; set a seeded one for reproducible schedules.
+	 */
+	public Random random = new Random();
+
+	/**
+	 @param budget The number of couples each individual is part of, rounded up to an even number.
+	 */
+	public SampledRoundRobinSelection(int budget)
+	{
+		if (budget < 1)
+		{
+			throw new IllegalArgumentException("The fight budget must be positive, got " + budget);
+		}
+		this.budget = budget;
+	}
+
+	@Override
+	public void schedule(List<Individual> individuals, Arena arena)
+	{
+		if (individuals.size() < 3)
+		{
+			// Too few individuals for cycles: everyone meets everyone.
+			arena.fight(RoundRobinSelection.getCouples(individuals));
+			return;
+		}
+
+		List<Individual> shuffled = new ArrayList<>(individuals);
+		List<Pair<Individual, Individual>> couples = new ArrayList<>();
+		for (int round = 0; round < (budget + 1) / 2; round++)
+		{
+			Collections.shuffle(shuffled, random);
+			for (int i = 0; i < shuffled.size(); i++)
+			{
+				couples.add(new Pair<>(shuffled.get(i), shuffled.get((i + 1) % shuffled.size())));
+			}
+		}
+		arena.fight(couples);
+	}
+}
@@ -0,0 +1,35 @@
+package org.saucistophe.math.genetics;
+
+import java.util.List;
+import org.saucistophe.patterns.Pair;
+
+/**
+ Decides which individuals fight each other during an iteration of BasicNaturalSelection.
+ Individuals end up ranked by the fitness won in their fights, so strategies should give them the same number of fights,
+ or nearly: no individual may be left out of a round.
+ */
+public interface SelectionStrategy
+{
+	/**
+	 Plays fights between couples of individuals.
+	 */
+	@FunctionalInterface
+	interface Arena
+	{
+		/**
+		 Makes each couple fight, both ways, and returns once all the fights are over.
+
+		 @param couples The couples to make fight.
+		 */
+		void fight(List<Pair<Individual, Individual>> couples);
+	}
+
+	/**
+	 Makes the individuals fight, in one or several rounds. Their fitnesses are updated after each round, so later
+	 rounds can depend on the earlier ones.
+
+	 @param individuals The individuals, whose fitness has been reset.
+	 @param arena The arena in which to play each round.
+	 */
+	void schedule(List<Individual> individuals, Arena arena);
+}
@@ -0,0 +1,74 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.saucistophe.patterns.Pair;
+
+/**
+ A Swiss-system tournament: the first round pairs individuals at random, and each next one pairs individuals of close
+ fitnesses, so that the ranking sharpens where it matters. n / 2 fights per round; about log2(n) rounds separate the
+ best individuals.
+ Unlike a chess Swiss system, couples may meet again in later rounds. With an odd number of individuals, there is no
+ bye: the last individual of each round fights a random opponent, who gets one more fight in that round.
+ */
+public class SwissSelection implements SelectionStrategy
+{
+	/**
+	 The number of rounds, or 0 for about log2 of the number of individuals.
+	 */
+	public final int rounds;
+
+	/**
+	 The random generator pairing the individuals; set a seeded one for reproducible schedules.
+	 */
+	public Random random = new Random();
+
+	/**
+	 Builds a Swiss system of about log2(n) rounds for n individuals.
+	 */
+	public SwissSelection()
+	{
+		this(0);
+	}
+
+	/**
+	 @param rounds The number of rounds, or 0 for about log2 of the number of individuals.
+	 */
+	public SwissSelection(int rounds)
+	{
+		if (rounds < 0)
+		{
+			throw new IllegalArgumentException("Negative number of rounds: " + rounds);
+		}
+		this.rounds = rounds;
+	}
+
+	@Override
+	public void schedule(List<Individual> individuals, Arena arena)
+	{
+		int roundCount = rounds > 0 ? rounds : 32 - Integer.numberOfLeadingZeros(Math.max(individuals.size() - 1, 1));
+		List<Individual> standings = new ArrayList<>(individuals);
+		for (int round = 0; round < roundCount; round++)
+		{
+			// Shuffle first, so that the ties are broken at random by the stable sort.
+			Collections.shuffle(standings, random);
+			if (round > 0)
+			{
+				standings.sort((a, b) -> Integer.compare(b.fitness, a.fitness));
+			}
+
+			List<Pair<Individual, Individual>> couples = new ArrayList<>();
+			for (int i = 0; i + 1 < standings.size(); i += 2)
+			{
+				couples.add(new Pair<>(standings.get(i), standings.get(i + 1)));
+			}
+			if (standings.size() % 2 == 1 && standings.size() > 1)
+			{
+				couples.add(new Pair<>(standings.get(standings.size() - 1), standings.get(random.nextInt(standings.size() - 1))));
+			}
+			arena.fight(couples);
+		}
+	}
+}
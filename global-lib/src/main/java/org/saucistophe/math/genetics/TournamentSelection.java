@@ -0,0 +1,62 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.saucistophe.patterns.Pair;
+
+/**
+ k-tournaments: at each round, the individuals are shuffled into groups of k, and each group plays a round robin.
+ Each individual fights k - 1 others per round, for n * (k - 1) / 2 fights per round. When n is not a multiple of k,
+ the remaining individuals are spread over the groups, whose sizes then differ by one at most: the individuals of the
+ larger groups get one more fight in that round, and the shuffles spread this advantage over the rounds.
+ */
+public class TournamentSelection implements SelectionStrategy
+{
+	/**
+	 The number of individuals per tournament, at least 2.
+	 */
+	public final int size;
+
+	/**
+	 The number of tournaments played by each individual.
+	 */
+	public final int rounds;
+
+	/**
+	 The random generator shuffling the individuals; set a seeded one for reproducible schedules.
+	 */
+	public Random random = new Random();
+
+	/**
+	 @param size The number of individuals per tournament, at least 2.
+	 @param rounds The number of tournaments played by each individual.
+	 */
+	public TournamentSelection(int size, int rounds)
+	{
+		if (size < 2 || rounds < 1)
+		{
+			throw new IllegalArgumentException("Tournaments need at least 2 individuals and 1 round, got " + size + " and " + rounds);
+		}
+		this.size = size;
+		this.rounds = rounds;
+	}
+
+	@Override
+	public void schedule(List<Individual> individuals, Arena arena)
+	{
+		List<Individual> shuffled = new ArrayList<>(individuals);
+		for (int round = 0; round < rounds; round++)
+		{
+			Collections.shuffle(shuffled, random);
+			List<Pair<Individual, Individual>> couples = new ArrayList<>();
+			int groups = Math.max(shuffled.size() / size, 1);
+			for (int group = 0; group < groups; group++)
+			{
+				couples.addAll(RoundRobinSelection.getCouples(shuffled.subList(group * shuffled.size() / groups, (group + 1) * shuffled.size() / groups)));
+			}
+			arena.fight(couples);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package org.saucistophe.geometry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.saucistophe.geometry.threeDimensional.Vector3i;
+import org.saucistophe.geometry.twoDimensional.DelaunayTriangulation;
+import org.saucistophe.geometry.twoDimensional.Point2F;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class DelaunayTriangulationTest
+{
+	/**
+	 @return Twice the signed area of the triangle abc.
+	 */
+	private static double orientation(Point2F a, Point2F b, Point2F c)
+	{
+		return ((double) b.x - a.x) * ((double) c.y - a.y) - ((double) b.y - a.y) * ((double) c.x - a.x);
+	}
+
+	/**
+	 @return Whether d lies strictly inside the circumcircle of the counter-clockwise triangle abc.
+	 */
+	private static boolean inCircle(Point2F a, Point2F b, Point2F c, Point2F d)
+	{
+		double adx = a.x - d.x, ady = a.y - d.y;
+		double bdx = b.x - d.x, bdy = b.y - d.y;
+		double cdx = c.x - d.x, cdy = c.y - d.y;
+		return (adx * adx + ady * ady) * (bdx * cdy - cdx * bdy)
+			+ (bdx * bdx + bdy * bdy) * (cdx * ady - adx * cdy)
+			+ (cdx * cdx + cdy * cdy) * (adx * bdy - bdx * ady) > 0;
+	}
+
+	@Test
+	public void emptyCircumcirclesTest()
+	{
+		Random random = new Random(0);
+		for (int configuration = 0; configuration < 20; configuration++)
+		{
+			// Every other configuration uses an integer grid, with duplicates and cocircular points.
+			boolean grid = configuration % 2 == 0;
+			List<Point2F> points = new ArrayList<>();
+			for (int i = 0; i < 300; i++)
+			{
+				points.add(grid ? new Point2F(random.nextInt(15), random.nextInt(15)) : new Point2F(random.nextFloat() * 100, random.nextFloat() * 100));
+			}
+			DelaunayTriangulation triangulation = DelaunayTriangulation.triangulate(points);
+
+			for (Vector3i triangle : triangulation.getTriangles())
+			{
+				Point2F a = points.get(triangle.x), b = points.get(triangle.y), c = points.get(triangle.z);
+				Assertions.assertTrue(orientation(a, b, c) > 0);
+				for (Point2F point : points)
+				{
+					Assertions.assertFalse(inCircle(a, b, c, point));
+				}
+			}
+
+			// Opposite half-edges must join the same vertices, the other way around.
+			int[] triangles = triangulation.triangles;
+			int[] halfedges = triangulation.halfedges;
+			for (int edge = 0; edge < halfedges.length; edge++)
+			{
+				int opposite = halfedges[edge];
+				if (opposite >= 0)
+				{
+					Assertions.assertEquals(edge, halfedges[opposite]);
+					Assertions.assertEquals(triangles[edge], triangles[opposite - opposite % 3 + (opposite + 1) % 3]);
+				}
+			}
+
+			// The hull must be convex.
+			int[] hull = triangulation.hull;
+			for (int i = 0; i < hull.length; i++)
+			{
+				Assertions.assertTrue(orientation(points.get(hull[i]), points.get(hull[(i + 1) % hull.length]), points.get(hull[(i + 2) % hull.length])) >= 0);
+			}
+		}
+	}
+
+	@Test
+	public void findTriangleTest()
+	{
+		Random random = new Random(1);
+		List<Point2F> points = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			points.add(new Point2F(random.nextFloat() * 100, random.nextFloat() * 100));
+		}
+		DelaunayTriangulation triangulation = DelaunayTriangulation.triangulate(points);
+
+		for (int i = 0; i < 1000; i++)
+		{
+			Point2F target = new Point2F(random.nextFloat() * 100, random.nextFloat() * 100);
+			int triangle = triangulation.findTriangle(target.x, target.y);
+			if (triangle < 0)
+			{
+				// The target must then be beyond one of the hull's edges.
+				int[] hull = triangulation.hull;
+				boolean outside = false;
+				for (int j = 0; j < hull.length; j++)
+				{
+					outside |= orientation(points.get(hull[j]), points.get(hull[(j + 1) % hull.length]), target) < 0;
+				}
+				Assertions.assertTrue(outside);
+				continue;
+			}
+			Vector3i vertices = triangulation.getTriangle(triangle);
+			Assertions.assertTrue(orientation(points.get(vertices.x), points.get(vertices.y), target) >= 0);
+			Assertions.assertTrue(orientation(points.get(vertices.y), points.get(vertices.z), target) >= 0);
+			Assertions.assertTrue(orientation(points.get(vertices.z), points.get(vertices.x), target) >= 0);
+		}
+
+		Assertions.assertEquals(-1, triangulation.findTriangle(-10, 50));
+	}
+
+	@Test
+	public void degenerateInputTest()
+	{
+		List<Point2F> points = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+		{
+			points.add(new Point2F(i, 2 * i));
+		}
+		points.add(new Point2F(2, 4));
+		DelaunayTriangulation triangulation = DelaunayTriangulation.triangulate(points);
+		Assertions.assertEquals(0, triangulation.getTriangleCount());
+		Assertions.assertEquals(5, triangulation.hull.length);
+
+		Assertions.assertEquals(0, DelaunayTriangulation.triangulate(new ArrayList<Point2F>()).getTriangleCount());
+	}
+}
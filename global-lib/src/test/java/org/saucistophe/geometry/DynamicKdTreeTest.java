@@ -0,0 +1,76 @@
+package org.saucistophe.geometry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+import org.saucistophe.geometry.twoDimensional.DynamicKdTree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class DynamicKdTreeTest
+{
+	@Test
+	public void randomOperationsTest()
+	{
+		Random random = new Random(0);
+		DynamicKdTree tree = new DynamicKdTree();
+		Map<Integer, Point3F> points = new HashMap<>();
+
+		for (int operation = 0; operation < 20000; operation++)
+		{
+			int choice = random.nextInt(10);
+			if (choice < 4 || points.isEmpty())
+			{
+				// Use an integer grid, so that many coordinates are shared.
+				Point3F point = new Point3F(random.nextInt(100), random.nextInt(100), 0);
+				points.put(tree.insert(point), point);
+			} else if (choice < 6)
+			{
+				List<Integer> ids = new ArrayList<>(points.keySet());
+				int id = ids.get(random.nextInt(ids.size()));
+				Assertions.assertTrue(tree.remove(id));
+				Assertions.assertFalse(tree.remove(id));
+				points.remove(id);
+			} else if (choice < 8)
+			{
+				List<Integer> ids = new ArrayList<>(points.keySet());
+				int id = ids.get(random.nextInt(ids.size()));
+				Point3F point = new Point3F(random.nextInt(100), random.nextInt(100), 0);
+				tree.move(id, point.x, point.y, point.z);
+				points.put(id, point);
+			} else
+			{
+				Point3F target = new Point3F(random.nextFloat() * 100, random.nextFloat() * 100, 0);
+				float bestSquaredDistance = Float.POSITIVE_INFINITY;
+				for (Point3F point : points.values())
+				{
+					bestSquaredDistance = Math.min(bestSquaredDistance, point.squaredDistanceTo(target));
+				}
+
+				int closest = tree.getClosestPoint(target);
+				Assertions.assertEquals(bestSquaredDistance, points.get(closest).squaredDistanceTo(target));
+			}
+
+			Assertions.assertEquals(points.size(), tree.size());
+		}
+	}
+
+	@Test
+	public void sortedInsertionsTest()
+	{
+		// Sorted insertions would make a naive tree as deep as a list; this must stay fast.
+		DynamicKdTree tree = new DynamicKdTree();
+		for (int i = 0; i < 100000; i++)
+		{
+			tree.insert(i, i, 0);
+		}
+
+		int[] result = new int[10];
+		Assertions.assertEquals(5, tree.rangeSearch(new Point3F(500, 500, 0), 9, result));
+		Assertions.assertEquals(new Point3F(500, 500, 0).toString(), tree.getPoint(tree.getClosestPoint(500.2f, 500.2f, 0)).toString());
+	}
+}
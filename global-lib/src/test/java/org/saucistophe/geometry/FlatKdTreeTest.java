@@ -0,0 +1,183 @@
+package org.saucistophe.geometry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+import org.saucistophe.geometry.twoDimensional.FlatKdTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class FlatKdTreeTest
+{
+	/**
+	 Builds a list of random points on an integer grid, so that many coordinates are shared.
+	 */
+	private static List<Point3F> randomPoints(Random random, int count, boolean considerZs)
+	{
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+		{
+			points.add(new Point3F(random.nextInt(50), random.nextInt(50), considerZs ? random.nextInt(50) : 0));
+		}
+		return points;
+	}
+
+	@Test
+	public void closestPointTest()
+	{
+		Random random = new Random(0);
+		for (int configuration = 0; configuration < 6; configuration++)
+		{
+			int bucketSize = new int[]{1, 16, 64}[configuration / 2];
+			boolean considerZs = configuration % 2 == 1;
+			List<Point3F> points = randomPoints(random, 1000, considerZs);
+			FlatKdTree tree = FlatKdTree.buildTree(points, false, bucketSize);
+
+			for (int i = 0; i < 500; i++)
+			{
+				Point3F target = new Point3F(random.nextFloat() * 60 - 5, random.nextFloat() * 60 - 5, considerZs ? random.nextFloat() * 50 : 0);
+
+				float bestSquaredDistance = Float.POSITIVE_INFINITY;
+				for (Point3F point : points)
+				{
+					bestSquaredDistance = Math.min(bestSquaredDistance, point.squaredDistanceTo(target));
+				}
+
+				int closest = tree.getClosestPoint(target);
+				Assertions.assertEquals(bestSquaredDistance, points.get(closest).squaredDistanceTo(target));
+			}
+		}
+	}
+
+	@Test
+	public void rangeSearchTest()
+	{
+		Random random = new Random(1);
+		List<Point3F> points = randomPoints(random, 1000, true);
+		FlatKdTree tree = FlatKdTree.buildTree(points);
+		int[] result = new int[points.size()];
+
+		for (int i = 0; i < 500; i++)
+		{
+			Point3F target = new Point3F(random.nextFloat() * 50, random.nextFloat() * 50, random.nextFloat() * 50);
+			float squaredRange = random.nextFloat() * 100;
+
+			int expected = 0;
+			for (Point3F point : points)
+			{
+				if (point.squaredDistanceTo(target) < squaredRange)
+				{
+					expected++;
+				}
+			}
+
+			int count = tree.rangeSearch(target, squaredRange, result);
+			Assertions.assertEquals(expected, count);
+			for (int j = 0; j < count; j++)
+			{
+				Assertions.assertTrue(points.get(result[j]).squaredDistanceTo(target) < squaredRange);
+			}
+		}
+	}
+
+	@Test
+	public void boxSearchTest()
+	{
+		Random random = new Random(4);
+		List<Point3F> points = randomPoints(random, 1000, true);
+		FlatKdTree tree = FlatKdTree.buildTree(points);
+
+		for (int i = 0; i < 500; i++)
+		{
+			Point3F min = new Point3F(random.nextInt(50), random.nextInt(50), random.nextInt(50));
+			Point3F max = new Point3F(min.x + random.nextInt(10), min.y + random.nextInt(10), min.z + random.nextInt(10));
+
+			int expected = 0;
+			for (Point3F point : points)
+			{
+				if (point.x >= min.x && point.x <= max.x && point.y >= min.y && point.y <= max.y && point.z >= min.z && point.z <= max.z)
+				{
+					expected++;
+				}
+			}
+
+			List<Integer> found = new ArrayList<>();
+			Assertions.assertEquals(expected, tree.boxSearch(min, max, found::add));
+			Assertions.assertEquals(expected, found.size());
+			Assertions.assertEquals(expected, tree.boxCount(min, max));
+		}
+	}
+
+	@Test
+	public void kNearestTest()
+	{
+		Random random = new Random(2);
+		List<Point3F> points = randomPoints(random, 1000, true);
+		FlatKdTree tree = FlatKdTree.buildTree(points);
+		int k = 20;
+		int[] indices = new int[k];
+		float[] squaredDistances = new float[k];
+
+		for (int i = 0; i < 200; i++)
+		{
+			Point3F target = new Point3F(random.nextFloat() * 50, random.nextFloat() * 50, random.nextFloat() * 50);
+
+			float[] expected = new float[points.size()];
+			for (int j = 0; j < expected.length; j++)
+			{
+				expected[j] = points.get(j).squaredDistanceTo(target);
+			}
+			Arrays.sort(expected);
+
+			Assertions.assertEquals(k, tree.kNearest(target.x, target.y, target.z, k, indices, squaredDistances));
+			for (int j = 0; j < k; j++)
+			{
+				Assertions.assertEquals(expected[j], squaredDistances[j]);
+				Assertions.assertEquals(expected[j], points.get(indices[j]).squaredDistanceTo(target));
+			}
+		}
+
+		Assertions.assertEquals(1000, tree.kNearest(points.get(0), Integer.MAX_VALUE).length);
+		Assertions.assertThrows(IllegalArgumentException.class, () -> tree.kNearest(points.get(0), 0));
+	}
+
+	@Test
+	public void batchClosestPointsTest()
+	{
+		Random random = new Random(3);
+		List<Point3F> points = randomPoints(random, 1000, false);
+		FlatKdTree tree = FlatKdTree.buildTree(points);
+
+		// Query every point of a raster, row by row.
+		int width = 200;
+		float[] xs = new float[width * width];
+		float[] ys = new float[width * width];
+		for (int i = 0; i < xs.length; i++)
+		{
+			xs[i] = (i % width) / 4f;
+			ys[i] = (i / width) / 4f;
+		}
+
+		for (boolean parallel : new boolean[]{false, true})
+		{
+			int[] result = new int[xs.length];
+			tree.getClosestPoints(xs, ys, null, result, parallel);
+			for (int i = 0; i < xs.length; i++)
+			{
+				int expected = tree.getClosestPoint(xs[i], ys[i], 0);
+				Assertions.assertEquals(points.get(expected).squaredDistanceTo(xs[i], ys[i], 0), points.get(result[i]).squaredDistanceTo(xs[i], ys[i], 0));
+			}
+		}
+	}
+
+	@Test
+	public void emptyTreeTest()
+	{
+		FlatKdTree tree = FlatKdTree.buildTree(new ArrayList<Point3F>());
+		Assertions.assertEquals(-1, tree.getClosestPoint(new Point3F(0, 0, 0)));
+		Assertions.assertEquals(0, tree.rangeSearch(new Point3F(0, 0, 0), 1, new int[0]));
+	}
+}
@@ -1,11 +1,15 @@
 package org.saucistophe.geometry;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.saucistophe.geometry.threeDimensional.Point3F;
 import org.saucistophe.geometry.twoDimensional.KdTreeNode;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class KdTreeTest
 {
@@ -22,4 +26,74 @@ public class KdTreeTest
 		assert (treeToString != null && treeToString.length() > 0);
 	}
 
+	@Test
+	public void parallelBuildTest()
+	{
+		// Use shuffled, distinct coordinates, as required by the tree.
+		int size = 100000;
+		List<Float> xs = new ArrayList<>();
+		List<Float> ys = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			xs.add((float) i);
+			ys.add((float) i);
+		}
+		Random random = new Random(0);
+		Collections.shuffle(xs, random);
+		Collections.shuffle(ys, random);
+
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			points.add(new Point3F(xs.get(i), ys.get(i), 0));
+		}
+
+		KdTreeNode sequentialTree = KdTreeNode.buildTree(points, false);
+		KdTreeNode parallelTree = KdTreeNode.buildTree(points, true);
+		Assertions.assertEquals(sequentialTree.toString(), parallelTree.toString());
+	}
+
+	@Test
+	public void kNearestTest()
+	{
+		Random random = new Random(2);
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+		{
+			points.add(new Point3F(random.nextFloat() * 50, random.nextFloat() * 50, random.nextFloat() * 50));
+		}
+		KdTreeNode tree = KdTreeNode.buildTree(points);
+		int k = 20;
+
+		for (int i = 0; i < 200; i++)
+		{
+			Point3F target = new Point3F(random.nextFloat() * 50, random.nextFloat() * 50, random.nextFloat() * 50);
+
+			float[] expected = new float[points.size()];
+			for (int j = 0; j < expected.length; j++)
+			{
+				expected[j] = points.get(j).squaredDistanceTo(target);
+			}
+			Arrays.sort(expected);
+
+			List<Point3F> nearest = tree.kNearest(target, k);
+			Assertions.assertEquals(k, nearest.size());
+			for (int j = 0; j < k; j++)
+			{
+				Assertions.assertEquals(expected[j], nearest.get(j).squaredDistanceTo(target));
+			}
+		}
+
+		Assertions.assertEquals(1000, tree.kNearest(points.get(0), 5000).size());
+		Assertions.assertEquals(1000, tree.kNearest(points.get(0), Integer.MAX_VALUE).size());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> tree.kNearest(points.get(0), 0));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> tree.kNearest(points.get(0), -1));
+	}
+
+	@Test
+	public void emptyTreeTest()
+	{
+		Assertions.assertThrows(IllegalArgumentException.class, () -> KdTreeNode.buildTree(new ArrayList<Point3F>()));
+		Assertions.assertThrows(IllegalArgumentException.class, () -> KdTreeNode.buildTree(new ArrayList<Point3F>(), true));
+	}
 }
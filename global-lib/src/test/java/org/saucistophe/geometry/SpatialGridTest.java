@@ -0,0 +1,104 @@
+package org.saucistophe.geometry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.saucistophe.geometry.threeDimensional.Point3F;
+import org.saucistophe.geometry.twoDimensional.SpatialGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SpatialGridTest
+{
+	/**
+	 Builds a list of random points on an integer grid, so that many coordinates are shared.
+	 */
+	private static List<Point3F> randomPoints(Random random, int count, boolean considerZs)
+	{
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+		{
+			points.add(new Point3F(random.nextInt(50), random.nextInt(50), considerZs ? random.nextInt(50) : 0));
+		}
+		return points;
+	}
+
+	@Test
+	public void closestPointTest()
+	{
+		Random random = new Random(0);
+		for (int configuration = 0; configuration < 6; configuration++)
+		{
+			float cellSize = new float[]{0, 0.5f, 20}[configuration / 2];
+			boolean considerZs = configuration % 2 == 1;
+			List<Point3F> points = randomPoints(random, 1000, considerZs);
+			SpatialGrid grid = SpatialGrid.buildGrid(points, cellSize);
+
+			for (int i = 0; i < 500; i++)
+			{
+				// Some targets lie outside the grid.
+				Point3F target = new Point3F(random.nextFloat() * 80 - 15, random.nextFloat() * 80 - 15, considerZs ? random.nextFloat() * 50 : 0);
+
+				float bestSquaredDistance = Float.POSITIVE_INFINITY;
+				for (Point3F point : points)
+				{
+					bestSquaredDistance = Math.min(bestSquaredDistance, point.squaredDistanceTo(target));
+				}
+
+				int closest = grid.getClosestPoint(target);
+				Assertions.assertEquals(bestSquaredDistance, points.get(closest).squaredDistanceTo(target));
+			}
+		}
+	}
+
+	@Test
+	public void rangeSearchTest()
+	{
+		Random random = new Random(1);
+		List<Point3F> points = randomPoints(random, 1000, true);
+		SpatialGrid grid = SpatialGrid.buildGrid(points, 4);
+		int[] result = new int[points.size()];
+
+		for (int i = 0; i < 500; i++)
+		{
+			Point3F target = new Point3F(random.nextFloat() * 60 - 5, random.nextFloat() * 60 - 5, random.nextFloat() * 60 - 5);
+			float squaredRange = random.nextFloat() * 100;
+
+			int expected = 0;
+			for (Point3F point : points)
+			{
+				if (point.squaredDistanceTo(target) < squaredRange)
+				{
+					expected++;
+				}
+			}
+
+			int count = grid.rangeSearch(target, squaredRange, result);
+			Assertions.assertEquals(expected, count);
+			Assertions.assertEquals(expected, grid.rangeCount(target, squaredRange));
+			for (int j = 0; j < count; j++)
+			{
+				Assertions.assertTrue(points.get(result[j]).squaredDistanceTo(target) < squaredRange);
+			}
+		}
+	}
+
+	@Test
+	public void degenerateGridTest()
+	{
+		SpatialGrid empty = SpatialGrid.buildGrid(new ArrayList<Point3F>());
+		Assertions.assertEquals(-1, empty.getClosestPoint(new Point3F(0, 0, 0)));
+		Assertions.assertEquals(0, empty.rangeCount(new Point3F(0, 0, 0), 1));
+
+		// All the points at the same place.
+		List<Point3F> points = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			points.add(new Point3F(3, 3, 3));
+		}
+		SpatialGrid grid = SpatialGrid.buildGrid(points);
+		Assertions.assertTrue(grid.getClosestPoint(-100, 50, 0) >= 0);
+		Assertions.assertEquals(10, grid.rangeCount(new Point3F(3, 3, 4), 2));
+	}
+}
@@ -0,0 +1,87 @@
+package org.saucistophe.geometry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.saucistophe.geometry.twoDimensional.Point2F;
+import org.saucistophe.geometry.twoDimensional.VoronoiRaster;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class VoronoiRasterTest
+{
+	/**
+	 Checks that every pixel of the raster holds a site as close as the closest one.
+	 */
+	private static void assertClosestSites(List<Point2F> sites, int[] raster, int width, int height, float x0, float y0, float pixelSize)
+	{
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width; i++)
+			{
+				float x = x0 + i * pixelSize;
+				float y = y0 + j * pixelSize;
+				float bestSquaredDistance = Float.POSITIVE_INFINITY;
+				for (Point2F site : sites)
+				{
+					bestSquaredDistance = Math.min(bestSquaredDistance, site.squaredDistanceTo(x, y));
+				}
+				Assertions.assertEquals(bestSquaredDistance, sites.get(raster[j * width + i]).squaredDistanceTo(x, y), bestSquaredDistance * 1e-5f);
+			}
+		}
+	}
+
+	@Test
+	public void siteIndicesTest()
+	{
+		Random random = new Random(0);
+		for (int configuration = 0; configuration < 10; configuration++)
+		{
+			// Every other configuration uses an integer grid, with duplicates and many equidistant sites.
+			boolean grid = configuration % 2 == 0;
+			List<Point2F> sites = new ArrayList<>();
+			for (int i = 0; i < 1 + configuration * 30; i++)
+			{
+				sites.add(grid ? new Point2F(random.nextInt(20) * 5, random.nextInt(20) * 5) : new Point2F(random.nextFloat() * 100, random.nextFloat() * 100));
+			}
+
+			int width = 130, height = 120;
+			int[] raster = new int[width * height];
+			new VoronoiRaster(sites).fillSiteIndices(raster, width, height, -15, -10, 1, configuration % 3 == 0);
+			assertClosestSites(sites, raster, width, height, -15, -10, 1);
+		}
+	}
+
+	@Test
+	public void collinearSitesTest()
+	{
+		List<Point2F> sites = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+		{
+			sites.add(new Point2F(i * 7, i * 3));
+		}
+
+		int width = 80, height = 40;
+		int[] raster = new int[width * height];
+		new VoronoiRaster(sites).fillSiteIndices(raster, width, height, 0, 0, 1, false);
+		assertClosestSites(sites, raster, width, height, 0, 0, 1);
+	}
+
+	@Test
+	public void imageTest()
+	{
+		List<Point2F> sites = new ArrayList<>();
+		sites.add(new Point2F(10, 10));
+		sites.add(new Point2F(30, 10));
+		int[] colors =
+		{
+			0xFFFF0000, 0xFF0000FF
+		};
+
+		BufferedImage image = new VoronoiRaster(sites).toImage(40, 20, colors);
+		Assertions.assertEquals(colors[0], image.getRGB(19, 5));
+		Assertions.assertEquals(colors[1], image.getRGB(21, 15));
+	}
+}
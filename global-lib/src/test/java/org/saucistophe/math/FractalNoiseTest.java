@@ -0,0 +1,84 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FractalNoiseTest
+{
+	@Test
+	public void gridTest()
+	{
+		FractalNoise fractal = new FractalNoise(FractalNoise.openSimplex2D(new OpenSimplexNoise(42)));
+		fractal.octaves = 9;
+		fractal.frequency = 0.5;
+		NoiseFieldGenerator generator = new NoiseFieldGenerator();
+		int width = 150;
+		int height = 70;
+		double step = 0.03;
+		double[] values = new double[width * height];
+
+		for (FractalNoise.Mode mode : FractalNoise.Mode.values())
+		{
+			for (double warpStrength : new double[]
+			{
+				0, 0.4
+			})
+			{
+				fractal.mode = mode;
+				fractal.warpStrength = warpStrength;
+				fractal.generate(generator, values, -1, 2, 0, step, step, width, height);
+
+				double min = mode == FractalNoise.Mode.FBM || mode == FractalNoise.Mode.BILLOW ? -1 : 0;
+				for (int j = 0; j < height; j++)
+				{
+					for (int i = 0; i < width; i++)
+					{
+						double value = values[j * width + i];
+						Assertions.assertEquals(fractal.eval(-1 + i * step, 2 + j * step, 0), value, 1e-9);
+						Assertions.assertTrue(value >= min && value <= 1);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void perlinAltitudeTest()
+	{
+		// PerlinUtils.altitude is a three octaves fBm.
+		FractalNoise fractal = new FractalNoise(FractalNoise.perlin());
+		fractal.octaves = 3;
+		for (int i = 0; i < 1000; i++)
+		{
+			float x = i * 0.037f;
+			float y = i * 0.011f - 3;
+			float z = 1.5f;
+			Assertions.assertEquals(PerlinUtils.altitude(x, y, z) * 2 - 1, fractal.eval(x, y, z), 1e-5);
+		}
+	}
+
+	/**
+	 The batched Perlin sources must give the values of sample by sample evaluation.
+	 */
+	@Test
+	public void perlinFillTest()
+	{
+		for (FractalNoise.Source source : new FractalNoise.Source[]
+		{
+			FractalNoise.perlin(), FractalNoise.perlin(PerlinNoise.forSeed(5))
+		})
+		{
+			int width = 45;
+			int height = 7;
+			double[] values = new double[width * height];
+			source.fill(values, -2.3, 0.7, 1.9, 0.031, 0.17, width, height);
+			for (int j = 0; j < height; j++)
+			{
+				for (int i = 0; i < width; i++)
+				{
+					Assertions.assertEquals(source.eval(-2.3 + i * 0.031, 0.7 + j * 0.17, 1.9), values[j * width + i]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class NoiseFieldGeneratorTest
+{
+	@Test
+	public void deterministicTest()
+	{
+		OpenSimplexNoise noise = new OpenSimplexNoise(42);
+		int width = 150;
+		int height = 70;
+		int depth = 3;
+		double x0 = -12.5;
+		double y0 = 3.25;
+		double z0 = 7;
+		double step = 0.013;
+
+		// The sequential reference.
+		double[] expected2D = new double[width * height];
+		float[] expected3D = new float[width * height * depth];
+		for (int k = 0; k < depth; k++)
+		{
+			for (int j = 0; j < height; j++)
+			{
+				for (int i = 0; i < width; i++)
+				{
+					if (k == 0)
+					{
+						expected2D[j * width + i] = noise.eval(x0 + i * step, y0 + j * step);
+					}
+					expected3D[(k * height + j) * width + i] = PerlinUtils.altitude((float) (x0 + i * step), (float) (y0 + j * step), (float) (z0 + k * step));
+				}
+			}
+		}
+
+		for (int threads = 1; threads <= 4; threads++)
+		{
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			NoiseFieldGenerator generator = new NoiseFieldGenerator(pool);
+
+			double[] values2D = new double[width * height];
+			generator.generate(noise::eval, values2D, x0, y0, step, step, width, height);
+			Assertions.assertArrayEquals(expected2D, values2D);
+
+			float[] values3D = new float[width * height * depth];
+			generator.generate((x, y, z) -> PerlinUtils.altitude((float) x, (float) y, (float) z), values3D, x0, y0, z0, step, step, step, width, height, depth);
+			Assertions.assertArrayEquals(expected3D, values3D);
+
+			pool.shutdown();
+		}
+	}
+}
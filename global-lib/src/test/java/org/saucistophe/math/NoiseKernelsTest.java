@@ -0,0 +1,87 @@
+package org.saucistophe.math;
+
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NoiseKernelsTest
+{
+	/**
+	 The vectorised kernels, when available, must give the results of the scalar ones within the documented tolerances,
+	 including for runs not filling whole vectors.
+	 */
+	@Test
+	public void vectorTest()
+	{
+		if (NoiseKernels.VECTOR == null)
+		{
+			// Not a JDK 17+ with the vector module: there is nothing to compare.
+			return;
+		}
+
+		Random random = new Random(3);
+		int count = 1003;
+		float[] xs = new float[count];
+		float[] ys = new float[count];
+		float[] zs = new float[count];
+		for (int i = 0; i < count; i++)
+		{
+			xs[i] = (random.nextFloat() - 0.5f) * 1000;
+			ys[i] = (random.nextFloat() - 0.5f) * 1000;
+			zs[i] = i % 7 == 0 ? (int) xs[i] : (random.nextFloat() - 0.5f) * 1000;
+		}
+		int[] perm = new int[512];
+		short[] permutation = OpenSimplexNoise.permutation(5);
+		for (int i = 0; i < 512; i++)
+		{
+			perm[i] = permutation[i & 0xFF];
+		}
+		float[] expected = new float[count];
+		float[] values = new float[count];
+		NoiseKernels.SCALAR.perlinNoise(perm, xs, ys, zs, expected, count);
+		NoiseKernels.VECTOR.perlinNoise(perm, xs, ys, zs, values, count);
+		Assertions.assertArrayEquals(expected, values);
+
+		for (int run : new int[]
+		{
+			0, 1, 7, 64, 1000
+		})
+		{
+			double[] expectedRow = new double[count];
+			double[] row = new double[count];
+			NoiseKernels.SCALAR.scatterRow(expectedRow, 2, run, -1.3, 0.0027, 0.6, 0.7, -0.2);
+			NoiseKernels.VECTOR.scatterRow(row, 2, run, -1.3, 0.0027, 0.6, 0.7, -0.2);
+			Assertions.assertArrayEquals(expectedRow, row, 1e-12);
+		}
+	}
+
+	/**
+	 Batches and grids must give the noise of each point.
+	 */
+	@Test
+	public void batchTest()
+	{
+		PerlinNoise noise = PerlinNoise.forSeed(11);
+		int width = 37;
+		int height = 5;
+		float[] values = new float[width * height];
+		noise.fill(values, -3.2f, 1.7f, 0.4f, 0.13f, 0.21f, width, height);
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width; i++)
+			{
+				Assertions.assertEquals(noise.normedNoise(-3.2f + i * 0.13f, 1.7f + j * 0.21f, 0.4f), values[j * width + i]);
+			}
+		}
+
+		float[] xs = {0.5f, -12.25f, 100.125f};
+		float[] ys = {3.75f, 0.5f, -7.5f};
+		float[] zs = {-1.1f, 2.2f, 0};
+		float[] batch = new float[3];
+		PerlinUtils.normedNoise(xs, ys, zs, batch, 3);
+		for (int i = 0; i < 3; i++)
+		{
+			Assertions.assertEquals(PerlinUtils.normedNoise(xs[i], ys[i], zs[i]), batch[i]);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package org.saucistophe.math;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.saucistophe.files.CacheStrategy;
+
+public class NoiseTileCacheTest
+{
+	private static final int RESOLUTION = 32;
+
+	/**
+	 Generates a tile of 2D OpenSimplex noise, each tile spanning one noise unit.
+	 */
+	private static double[] generate(NoiseTileCache.TileKey key)
+	{
+		double[] tile = new double[key.getSampleCount()];
+		double step = 1.0 / key.resolution;
+		new OpenSimplexNoise(key.seed).fill(tile, key.x, key.y, step, step, key.resolution, key.resolution);
+		return tile;
+	}
+
+	private static NoiseTileCache.TileKey key(int x, int y)
+	{
+		return new NoiseTileCache.TileKey(42, "simplex", x, y, 0, RESOLUTION);
+	}
+
+	@Test
+	public void lruTest()
+	{
+		long tileBytes = RESOLUTION * RESOLUTION * Double.BYTES;
+		NoiseTileCache cache = new NoiseTileCache(NoiseTileCacheTest::generate, 3 * tileBytes);
+
+		double[] first = cache.get(key(0, 0));
+		Assertions.assertArrayEquals(generate(key(0, 0)), first);
+		Assertions.assertSame(first, cache.get(key(0, 0)));
+		cache.get(key(1, 0));
+		cache.get(key(2, 0));
+		Assertions.assertEquals(1, cache.getHits());
+		Assertions.assertEquals(3, cache.getMisses());
+
+		// Touch the first tile, so that the second one is evicted.
+		cache.get(key(0, 0));
+		cache.get(key(3, 0));
+		Assertions.assertEquals(3, cache.size());
+		Assertions.assertEquals(3 * tileBytes, cache.getBytes());
+		Assertions.assertEquals(1, cache.getEvictions());
+		Assertions.assertSame(first, cache.get(key(0, 0)));
+		cache.get(key(1, 0));
+		Assertions.assertEquals(3, cache.getHits());
+		Assertions.assertEquals(5, cache.getMisses());
+		Assertions.assertEquals(3.0 / 8, cache.getHitRatio(), 1e-12);
+	}
+
+	@Test
+	public void diskTest() throws IOException
+	{
+		Path folder = Files.createTempDirectory("noiseTiles");
+		try
+		{
+			CacheStrategy diskCache = new CacheStrategy(folder.toString(), "tile");
+			NoiseTileCache cache = new NoiseTileCache(NoiseTileCacheTest::generate, 0, diskCache);
+			for (int i = 0; i < 4; i++)
+			{
+				cache.get(key(i, 0));
+			}
+			Assertions.assertEquals(1, cache.size());
+			Assertions.assertEquals(4, cache.getMisses());
+
+			// A new cache over the same folder reads the tiles back.
+			NoiseTileCache otherCache = new NoiseTileCache(NoiseTileCacheTest::generate, 0, diskCache);
+			for (int i = 0; i < 4; i++)
+			{
+				Assertions.assertArrayEquals(generate(key(i, 0)), otherCache.get(key(i, 0)));
+			}
+			Assertions.assertEquals(4, otherCache.getDiskHits());
+			Assertions.assertEquals(0, otherCache.getMisses());
+		}
+		finally
+		{
+			try (Stream<Path> paths = Files.walk(folder))
+			{
+				paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NormalMapGeneratorTest
+{
+	@Test
+	public void finiteDifferencesTest()
+	{
+		OpenSimplexNoise noise = new OpenSimplexNoise(42);
+		Assertions.assertEquals(0xFF7F7FFF, NormalMapGenerator.toNormal(0, 0));
+
+		int width = 100;
+		int height = 80;
+		double pixelSize = 0.02;
+		double strength = 3;
+		double h = 1e-6;
+		int[] raster = new int[width * height];
+		int[] sliceRaster = new int[width * height];
+		NoiseFieldGenerator generator = new NoiseFieldGenerator();
+		// 3D noise has tiny discontinuities between some of its regions, which finite differences must not straddle:
+		// avoid lining up the samples with them, and tolerate the few samples close enough to one.
+		int discontinuities = 0;
+		double x0 = 1.0037;
+		double y0 = 2.0111;
+		double z = 0.4713;
+		NormalMapGenerator.fill(generator, raster, width, height, x0, y0, pixelSize, strength, noise);
+		NormalMapGenerator.fill(generator, sliceRaster, width, height, x0, y0, z, pixelSize, strength, noise);
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width; i++)
+			{
+				double x = x0 + i * pixelSize;
+				double y = y0 + j * pixelSize;
+				int expected = NormalMapGenerator.toNormal(strength * (noise.eval(x + h, y) - noise.eval(x - h, y)) / (2 * h),
+					strength * (noise.eval(x, y + h) - noise.eval(x, y - h)) / (2 * h));
+				assertClose(expected, raster[j * width + i]);
+
+				expected = NormalMapGenerator.toNormal(strength * (noise.eval(x + h, y, z) - noise.eval(x - h, y, z)) / (2 * h),
+					strength * (noise.eval(x, y + h, z) - noise.eval(x, y - h, z)) / (2 * h));
+				if (!isClose(expected, sliceRaster[j * width + i]))
+				{
+					discontinuities++;
+				}
+			}
+		}
+		Assertions.assertTrue(discontinuities <= width * height / 1000);
+	}
+
+	/**
+	 Checks that two colours' channels differ by at most one level, rounding apart.
+	 */
+	private static void assertClose(int expected, int actual)
+	{
+		Assertions.assertTrue(isClose(expected, actual), Integer.toHexString(expected) + " != " + Integer.toHexString(actual));
+	}
+
+	private static boolean isClose(int expected, int actual)
+	{
+		for (int shift = 0; shift < 32; shift += 8)
+		{
+			if (Math.abs((expected >>> shift & 0xFF) - (actual >>> shift & 0xFF)) > 1)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+}
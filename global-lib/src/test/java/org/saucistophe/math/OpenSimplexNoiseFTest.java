@@ -0,0 +1,52 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class OpenSimplexNoiseFTest
+{
+	@Test
+	public void accuracyTest()
+	{
+		OpenSimplexNoise reference = new OpenSimplexNoise(42);
+		OpenSimplexNoiseF noise = new OpenSimplexNoiseF(42);
+		Random random = new Random(0);
+		for (int i = 0; i < 100000; i++)
+		{
+			float x = random.nextFloat() * 200 - 100;
+			float y = random.nextFloat() * 200 - 100;
+			float z = random.nextFloat() * 200 - 100;
+			Assertions.assertEquals(reference.eval(x, y), noise.eval(x, y), 1e-4);
+			Assertions.assertEquals(reference.eval(x, y, z), noise.eval(x, y, z), 1e-4);
+		}
+	}
+
+	@Test
+	public void fillTest()
+	{
+		OpenSimplexNoiseF noise = new OpenSimplexNoiseF(42);
+		int width = 37;
+		int height = 23;
+		float[] values = new float[width * height];
+
+		noise.fill(values, -3.5f, 2, 0.05f, 0.07f, width, height);
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width; i++)
+			{
+				Assertions.assertEquals(noise.eval(-3.5f + i * 0.05f, 2 + j * 0.07f), values[j * width + i]);
+			}
+		}
+
+		noise.fill(values, -3.5f, 2, 1.5f, 0.05f, 0.07f, width, height);
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width; i++)
+			{
+				Assertions.assertEquals(noise.eval(-3.5f + i * 0.05f, 2 + j * 0.07f, 1.5f), values[j * width + i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class OpenSimplexNoiseTest
+{
+	@Test
+	public void fillTest()
+	{
+		OpenSimplexNoise noise = new OpenSimplexNoise(42);
+		Random random = new Random(0);
+		for (int i = 0; i < 20; i++)
+		{
+			int width = 1 + random.nextInt(150);
+			int height = 1 + random.nextInt(150);
+			double x0 = random.nextDouble() * 200 - 100;
+			double y0 = random.nextDouble() * 200 - 100;
+			double z = random.nextDouble() * 50;
+			double w = random.nextDouble() * 50;
+			// Include steps large enough to use the sample by sample path.
+			double dx = 0.005 + random.nextDouble() * (i % 2 == 0 ? 0.1 : 1);
+			double dy = 0.005 + random.nextDouble() * (i % 2 == 0 ? 0.1 : 1);
+			double[] values = new double[width * height];
+
+			noise.fill(values, x0, y0, dx, dy, width, height);
+			for (int j = 0; j < height; j++)
+			{
+				for (int k = 0; k < width; k++)
+				{
+					Assertions.assertEquals(noise.eval(x0 + k * dx, y0 + j * dy), values[j * width + k], 1e-12);
+				}
+			}
+
+			noise.fill(values, x0, y0, z, dx, dy, width, height);
+			for (int j = 0; j < height; j++)
+			{
+				for (int k = 0; k < width; k++)
+				{
+					Assertions.assertEquals(noise.eval(x0 + k * dx, y0 + j * dy, z), values[j * width + k], 1e-3);
+				}
+			}
+
+			noise.fill(values, x0, y0, z, w, dx, dy, width, height);
+			for (int j = 0; j < height; j++)
+			{
+				for (int k = 0; k < width; k++)
+				{
+					Assertions.assertEquals(noise.eval(x0 + k * dx, y0 + j * dy, z, w), values[j * width + k], 1e-3);
+				}
+			}
+		}
+	}
+
+	/**
+	 A sample must have the same value whatever the grid it belongs to: coarse grids, single samples, and the matching
+	 samples of finer grids.
+	 */
+	@Test
+	public void zoomTest()
+	{
+		OpenSimplexNoise noise = new OpenSimplexNoise(42);
+		Random random = new Random(1);
+		int width = 40;
+		int height = 30;
+		int zoom = 8;
+		double[] coarse = new double[width * height];
+		double[] fine = new double[width * zoom * height * zoom];
+		double[] single = new double[1];
+		for (int i = 0; i < 10; i++)
+		{
+			double x0 = random.nextDouble() * 200 - 100;
+			double y0 = random.nextDouble() * 200 - 100;
+			double z = random.nextDouble() * 50;
+			double w = random.nextDouble() * 50;
+			// Coarse steps used to switch to eval.
+			double step = 0.75 + random.nextDouble() * 2;
+
+			for (int dimensions = 3; dimensions <= 4; dimensions++)
+			{
+				if (dimensions == 3)
+				{
+					noise.fill(coarse, x0, y0, z, step, step, width, height);
+					noise.fill(fine, x0, y0, z, step / zoom, step / zoom, width * zoom, height * zoom);
+				}
+				else
+				{
+					noise.fill(coarse, x0, y0, z, w, step, step, width, height);
+					noise.fill(fine, x0, y0, z, w, step / zoom, step / zoom, width * zoom, height * zoom);
+				}
+				for (int j = 0; j < height; j++)
+				{
+					for (int k = 0; k < width; k++)
+					{
+						double x = x0 + k * step;
+						double y = y0 + j * step;
+						if (dimensions == 3)
+						{
+							noise.fill(single, x, y, z, 1, 1, 1, 1);
+						}
+						else
+						{
+							noise.fill(single, x, y, z, w, 1, 1, 1, 1);
+						}
+						Assertions.assertEquals(single[0], coarse[j * width + k], 1e-12);
+						Assertions.assertEquals(single[0], fine[j * zoom * width * zoom + k * zoom], 1e-12);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void derivativesTest()
+	{
+		OpenSimplexNoise noise = new OpenSimplexNoise(42);
+		Random random = new Random(0);
+		double[] gradient = new double[3];
+		double h = 1e-6;
+		for (int i = 0; i < 10000; i++)
+		{
+			double x = random.nextDouble() * 200 - 100;
+			double y = random.nextDouble() * 200 - 100;
+			double z = random.nextDouble() * 200 - 100;
+
+			Assertions.assertEquals(noise.eval(x, y), noise.eval(x, y, gradient));
+			Assertions.assertEquals((noise.eval(x + h, y) - noise.eval(x - h, y)) / (2 * h), gradient[0], 1e-6);
+			Assertions.assertEquals((noise.eval(x, y + h) - noise.eval(x, y - h)) / (2 * h), gradient[1], 1e-6);
+
+			// 3D noise has rare, tiny discontinuities, which these samples avoid.
+			Assertions.assertEquals(noise.eval(x, y, z), noise.eval(x, y, z, gradient));
+			Assertions.assertEquals((noise.eval(x + h, y, z) - noise.eval(x - h, y, z)) / (2 * h), gradient[0], 1e-6);
+			Assertions.assertEquals((noise.eval(x, y + h, z) - noise.eval(x, y - h, z)) / (2 * h), gradient[1], 1e-6);
+			Assertions.assertEquals((noise.eval(x, y, z + h) - noise.eval(x, y, z - h)) / (2 * h), gradient[2], 1e-6);
+		}
+	}
+}
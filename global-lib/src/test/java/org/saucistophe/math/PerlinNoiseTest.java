@@ -0,0 +1,87 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class PerlinNoiseTest
+{
+	@Test
+	public void seedTest()
+	{
+		PerlinNoise noise = PerlinNoise.forSeed(42);
+		Assertions.assertSame(noise, PerlinNoise.forSeed(42));
+		PerlinNoise other = PerlinNoise.forSeed(43);
+		Assertions.assertNotSame(noise, other);
+
+		// Same seeds give the same world, different ones different worlds.
+		PerlinNoise copy = new PerlinNoise(42);
+		int differences = 0;
+		for (int i = 0; i < 1000; i++)
+		{
+			float x = i * 0.37f;
+			float y = i * 0.11f - 30;
+			float z = 1.5f;
+			float altitude = noise.altitude(x, y, z);
+			Assertions.assertTrue(altitude >= 0 && altitude <= 1);
+			Assertions.assertEquals(altitude, copy.altitude(x, y, z));
+			if (altitude != other.altitude(x, y, z))
+			{
+				differences++;
+			}
+		}
+		Assertions.assertTrue(differences > 900);
+	}
+
+	@Test
+	public void sharedInstancesTest()
+	{
+		PerlinNoise noise = PerlinNoise.forSeed(-1);
+		PerlinNoise.clearSharedInstances();
+		Assertions.assertNotSame(noise, PerlinNoise.forSeed(-1));
+
+		// A full cache evicts a seed not used since it was filled, rather than the recently used one.
+		PerlinNoise.clearSharedInstances();
+		noise = PerlinNoise.forSeed(-1);
+		for (int seed = 1000; seed < 1000 + PerlinNoise.MAX_SHARED_SEEDS - 1; seed++)
+		{
+			PerlinNoise.forSeed(seed);
+		}
+		Assertions.assertEquals(PerlinNoise.MAX_SHARED_SEEDS, PerlinNoise.sharedInstanceCount());
+		Assertions.assertSame(noise, PerlinNoise.forSeed(-1));
+		PerlinNoise.forSeed(999);
+		Assertions.assertEquals(PerlinNoise.MAX_SHARED_SEEDS, PerlinNoise.sharedInstanceCount());
+		Assertions.assertSame(noise, PerlinNoise.forSeed(-1));
+
+		// The number of instances stays bounded.
+		for (int seed = 2000; seed < 2000 + 3 * PerlinNoise.MAX_SHARED_SEEDS; seed++)
+		{
+			PerlinNoise.forSeed(seed);
+		}
+		Assertions.assertEquals(PerlinNoise.MAX_SHARED_SEEDS, PerlinNoise.sharedInstanceCount());
+		PerlinNoise.clearSharedInstances();
+	}
+
+	@Test
+	public void concurrentTest()
+	{
+		PerlinNoise noise = PerlinNoise.forSeed(7);
+		int width = 200;
+		int height = 150;
+		float[] expected = new float[width * height];
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width; i++)
+			{
+				expected[j * width + i] = noise.normedNoise((float) (i * 0.05), (float) (j * 0.05), 0);
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		float[] values = new float[width * height];
+		new NoiseFieldGenerator(pool).generate((x, y) -> noise.normedNoise((float) x, (float) y, 0), values, 0, 0, 0.05, 0.05, width, height);
+		pool.shutdown();
+		Assertions.assertArrayEquals(expected, values);
+	}
+}
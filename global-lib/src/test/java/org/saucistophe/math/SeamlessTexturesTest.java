@@ -0,0 +1,92 @@
+package org.saucistophe.math;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SeamlessTexturesTest
+{
+	@Test
+	public void torusTest()
+	{
+		OpenSimplexNoise noise = new OpenSimplexNoise(42);
+		int width = 300;
+		int height = 200;
+		int[] raster = new int[width * height];
+		int[] parallelRaster = new int[width * height];
+		// Keep values as integers, precise enough to compare neighbours.
+		SeamlessTextures.fillTorus(raster, width, height, 6, 4, noise::eval, value -> (int) (value * 1e6), false);
+		SeamlessTextures.fillTorus(parallelRaster, width, height, 6, 4, noise::eval, value -> (int) (value * 1e6), true);
+		Assertions.assertArrayEquals(raster, parallelRaster);
+
+		// The edges meet as smoothly as neighbouring pixels.
+		int largestStep = 0;
+		for (int j = 0; j < height; j++)
+		{
+			for (int i = 0; i < width - 1; i++)
+			{
+				largestStep = Math.max(largestStep, Math.abs(raster[j * width + i + 1] - raster[j * width + i]));
+			}
+		}
+		for (int j = 0; j < height; j++)
+		{
+			Assertions.assertTrue(Math.abs(raster[j * width] - raster[j * width + width - 1]) <= largestStep);
+		}
+		for (int i = 0; i < width; i++)
+		{
+			Assertions.assertTrue(Math.abs(raster[i] - raster[(height - 1) * width + i]) <= 2 * largestStep);
+		}
+	}
+
+	@Test
+	public void sphereTest()
+	{
+		double radius = 3;
+		int width = 160;
+		int height = 80;
+
+		// Every sample lies on the sphere.
+		int[] raster = new int[width * height];
+		int[] parallelRaster = new int[width * height];
+		NoiseFieldGenerator.Noise3D squaredNorm = (x, y, z) -> x * x + y * y + z * z;
+		SeamlessTextures.fillEquirectangular(raster, width, height, radius, squaredNorm, value -> (int) Math.round(value * 1000), false);
+		SeamlessTextures.fillEquirectangular(parallelRaster, width, height, radius, squaredNorm, value -> (int) Math.round(value * 1000), true);
+		Assertions.assertArrayEquals(raster, parallelRaster);
+		for (int value : raster)
+		{
+			Assertions.assertEquals(9000, value);
+		}
+
+		int size = 64;
+		int[] cubeMap = new int[6 * size * size];
+		int[] parallelCubeMap = new int[6 * size * size];
+		SeamlessTextures.fillCubeMap(cubeMap, size, radius, squaredNorm, value -> (int) Math.round(value * 1000), false);
+		SeamlessTextures.fillCubeMap(parallelCubeMap, size, radius, squaredNorm, value -> (int) Math.round(value * 1000), true);
+		Assertions.assertArrayEquals(cubeMap, parallelCubeMap);
+		for (int value : cubeMap)
+		{
+			Assertions.assertEquals(9000, value);
+		}
+
+		// Each face is centred on its axis.
+		NoiseFieldGenerator.Noise3D direction = (x, y, z) -> Math.round(x) * 100 + Math.round(y) * 10 + Math.round(z);
+		SeamlessTextures.fillCubeMap(cubeMap, size, 1, direction, value -> (int) value, true);
+		int center = size / 2 * size + size / 2;
+		int[] expectedCenters =
+		{
+			100, -100, 10, -10, 1, -1
+		};
+		for (int face = 0; face < 6; face++)
+		{
+			Assertions.assertEquals(expectedCenters[face], cubeMap[face * size * size + center]);
+		}
+
+		// The top row of the +x face meets the last column of the +y face.
+		SeamlessTextures.fillCubeMap(cubeMap, size, 1, (x, y, z) -> z, value -> (int) Math.round(value * 1000), true);
+		for (int i = 0; i < size; i++)
+		{
+			int positiveX = cubeMap[i];
+			int positiveY = cubeMap[(2 * size + size - 1 - i) * size + size - 1];
+			Assertions.assertEquals(positiveX, positiveY, 1000 * 2.0 / size);
+		}
+	}
+}
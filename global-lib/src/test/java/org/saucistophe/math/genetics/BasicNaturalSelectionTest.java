@@ -0,0 +1,61 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BasicNaturalSelectionTest
+{
+	/**
+	 An individual scoring a point for both fighters at each fight, so that fitnesses only depend on the fight count.
+	 */
+	static class Sparring extends SelectionStrategyTest.Value
+	{
+		@Override
+		public void fight(Individual otherIndividual)
+		{
+			addFitness(1);
+			otherIndividual.addFitness(1);
+		}
+	}
+
+	/**
+	 Individuals fighting in many threads at once must not lose points.
+	 */
+	@Test
+	public void concurrentFitnessTest()
+	{
+		BasicNaturalSelection selection = new BasicNaturalSelection();
+		List<Individual> individuals = new ArrayList<>();
+		for (int i = 0; i < 300; i++)
+		{
+			individuals.add(new Sparring());
+		}
+
+		individuals.forEach(Individual::resetFitness);
+		selection.fight(selection.getCouples(individuals));
+		selection.fight(selection.getCouples(individuals));
+		for (Individual individual : individuals)
+		{
+			// 2 rounds of 299 couples, each couple fighting twice, a point for both fighters per fight.
+			Assertions.assertEquals(2 * 299 * 2, individual.fitness);
+		}
+
+		individuals.get(0).addFitness(5);
+		individuals.get(0).resetFitness();
+		individuals.get(0).collectFitness();
+		Assertions.assertEquals(0, individuals.get(0).fitness);
+
+		// Overflows are reported rather than wrapped around.
+		Individual individual = individuals.get(1);
+		individual.resetFitness();
+		individual.addFitness(Integer.MAX_VALUE - 1);
+		individual.collectFitness();
+		individual.addFitness(1);
+		individual.collectFitness();
+		Assertions.assertEquals(Integer.MAX_VALUE, individual.fitness);
+		individual.addFitness(1);
+		Assertions.assertThrows(ArithmeticException.class, individual::collectFitness);
+	}
+}
@@ -0,0 +1,157 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FightCacheTest
+{
+	/**
+	 An individual counting its fights, and hashing its value.
+	 */
+	static class Counted extends SelectionStrategyTest.Value
+	{
+		static final AtomicInteger FIGHTS = new AtomicInteger();
+
+		@Override
+		public Individual makeChild(Individual otherIndividual)
+		{
+			Counted child = new Counted();
+			child.value = (value + ((Counted) otherIndividual).value) / 2;
+			return child;
+		}
+
+		@Override
+		public void fight(Individual otherIndividual)
+		{
+			FIGHTS.incrementAndGet();
+			super.fight(otherIndividual);
+			otherIndividual.addFitness(-1);
+		}
+
+		@Override
+		public long getGenomeHash()
+		{
+			return Double.doubleToLongBits(value);
+		}
+	}
+
+	private static Counted counted(double value)
+	{
+		Counted individual = new Counted();
+		individual.value = value;
+		return individual;
+	}
+
+	@Test
+	public void replayTest()
+	{
+		FightCache cache = new FightCache(2);
+		Counted strong = counted(0.8);
+		Counted weak = counted(0.3);
+		Counted weakClone = counted(0.3);
+
+		Counted.FIGHTS.set(0);
+		cache.fight(strong, weak);
+		cache.fight(strong, weakClone);
+		cache.fight(weak, strong);
+		Assertions.assertEquals(2, Counted.FIGHTS.get());
+		Assertions.assertEquals(1, cache.getHits());
+		Assertions.assertEquals(2, cache.getMisses());
+		Assertions.assertEquals(1 / 3.0, cache.getHitRatio(), 1e-12);
+
+		// The replayed fight gives the same points as the played one.
+		for (Individual individual : new Individual[]
+		{
+			strong, weak, weakClone
+		})
+		{
+			individual.collectFitness();
+		}
+		Assertions.assertEquals(2 - 1, strong.fitness);
+		Assertions.assertEquals(-1, weak.fitness);
+		Assertions.assertEquals(-1, weakClone.fitness);
+
+		// A third outcome evicts the least recently used one.
+		cache.fight(weak, counted(0.1));
+		Assertions.assertEquals(2, cache.size());
+		Assertions.assertEquals(1, cache.getEvictions());
+		cache.fight(strong, weak);
+		Assertions.assertEquals(4, cache.getMisses());
+	}
+
+	/**
+	 Fights writing the fitness directly, as individuals did before addFitness, must be played every time rather than
+	 replayed without points.
+	 */
+	@Test
+	public void directFitnessTest()
+	{
+		FightCache cache = new FightCache(10);
+		Counted legacy = new Counted()
+		{
+			@Override
+			public void fight(Individual otherIndividual)
+			{
+				FIGHTS.incrementAndGet();
+				fitness++;
+			}
+		};
+		legacy.value = 0.5;
+
+		Counted.FIGHTS.set(0);
+		cache.fight(legacy, counted(0.2));
+		cache.fight(legacy, counted(0.2));
+		Assertions.assertEquals(2, Counted.FIGHTS.get());
+		Assertions.assertEquals(2, legacy.fitness);
+		Assertions.assertEquals(0, cache.size());
+	}
+
+	/**
+	 A selection must refuse a cache when the individuals do not hash their genome.
+	 */
+	@Test
+	public void missingHashTest()
+	{
+		List<Individual> individuals = new ArrayList<>();
+		for (int i = 0; i < 30; i++)
+		{
+			individuals.add(new SelectionStrategyTest.Value());
+		}
+
+		BasicNaturalSelection selection = new BasicNaturalSelection();
+		selection.individuals = individuals;
+		selection.init();
+		selection.fightCache = new FightCache(10000);
+		Assertions.assertThrows(IllegalStateException.class, selection::iterate);
+	}
+
+	/**
+	 Parents surviving from a generation to the next must not fight again.
+	 */
+	@Test
+	public void selectionTest()
+	{
+		List<Individual> individuals = new ArrayList<>();
+		for (int i = 0; i < 30; i++)
+		{
+			Counted individual = new Counted();
+			individual.randomize();
+			individuals.add(individual);
+		}
+
+		BasicNaturalSelection selection = new BasicNaturalSelection();
+		selection.individuals = individuals;
+		selection.fightCache = new FightCache(10000);
+		selection.iterate();
+		Assertions.assertEquals(0, selection.fightCache.getHits());
+
+		Counted.FIGHTS.set(0);
+		selection.iterate();
+		int parentCouples = BasicNaturalSelection.MIXING_FACTOR * (BasicNaturalSelection.MIXING_FACTOR - 1) / 2;
+		Assertions.assertEquals(2 * parentCouples, selection.fightCache.getHits());
+		Assertions.assertEquals(30 * 29 - 2 * parentCouples, Counted.FIGHTS.get());
+	}
+}
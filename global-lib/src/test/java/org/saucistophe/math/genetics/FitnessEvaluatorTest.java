@@ -0,0 +1,151 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FitnessEvaluatorTest
+{
+	/**
+	 An individual whose fitness is its value.
+	 */
+	static class Scored extends AbsoluteIndividual
+	{
+		double value;
+
+		@Override
+		public Individual makeChild(Individual otherIndividual)
+		{
+			Scored child = new Scored();
+			child.value = (value + ((Scored) otherIndividual).value) / 2;
+			return child;
+		}
+
+		@Override
+		public void randomize()
+		{
+			value = Math.random();
+		}
+
+		@Override
+		public long evaluate()
+		{
+			return (long) (value * 1_000_000);
+		}
+	}
+
+	private static BasicNaturalSelection selection(int size)
+	{
+		BasicNaturalSelection selection = new BasicNaturalSelection();
+		selection.individuals = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			selection.individuals.add(new Scored());
+		}
+		selection.init();
+		selection.evaluator = FitnessEvaluator.INDIVIDUAL;
+		return selection;
+	}
+
+	@Test
+	public void batchTest()
+	{
+		BasicNaturalSelection selection = selection(10000);
+		selection.batchSize = 300;
+		List<Integer> batchSizes = new ArrayList<>();
+		selection.evaluator = batch ->
+		{
+			synchronized (batchSizes)
+			{
+				batchSizes.add(batch.size());
+			}
+			FitnessEvaluator.INDIVIDUAL.evaluate(batch);
+		};
+		selection.iterate();
+
+		Assertions.assertEquals(34, batchSizes.size());
+		Assertions.assertEquals(10000, batchSizes.stream().mapToInt(Integer::intValue).sum());
+		Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 300));
+
+		selection.batchSize = 0;
+		Assertions.assertThrows(IllegalStateException.class, selection::iterate);
+		selection.batchSize = 300;
+
+		// The parents are the best individuals.
+		double best = ((Scored) selection.individuals.get(0)).value;
+		Assertions.assertTrue(best > 0.999);
+		for (int i = 1; i < BasicNaturalSelection.MIXING_FACTOR; i++)
+		{
+			Assertions.assertTrue(((Scored) selection.individuals.get(i)).value <= best);
+		}
+	}
+
+	/**
+	 Absolute individuals can also be ranked by fights.
+	 */
+	@Test
+	public void fightTest()
+	{
+		BasicNaturalSelection selection = selection(30);
+		selection.evaluator = null;
+		selection.iterate();
+		// The best individual beat all the others.
+		Assertions.assertEquals(29, selection.individuals.get(0).fitness);
+	}
+
+	@Test
+	public void eliteTest()
+	{
+		BasicNaturalSelection selection = selection(50);
+		selection.eliteCount = 20;
+		selection.iterate();
+		List<Individual> elites = new ArrayList<>(selection.individuals.subList(0, 20));
+		double[] values = elites.stream().mapToDouble(individual -> ((Scored) individual).value).toArray();
+		for (int i = 1; i < 20; i++)
+		{
+			Assertions.assertTrue(values[i] <= values[i - 1]);
+		}
+
+		// The elites are kept as they are: the next generation's best are at least as good.
+		selection.iterate();
+		Assertions.assertTrue(((Scored) selection.individuals.get(0)).value >= values[0]);
+		Assertions.assertTrue(selection.individuals.containsAll(elites.subList(0, BasicNaturalSelection.MIXING_FACTOR)));
+
+		selection.eliteCount = 48;
+		Assertions.assertThrows(IllegalStateException.class, selection::iterate);
+	}
+
+	@Test
+	public void mutationTest()
+	{
+		BasicNaturalSelection selection = selection(50);
+		selection.mutationRate = 1;
+		selection.iterate();
+		List<Individual> individuals = selection.individuals;
+		List<Individual> children = individuals.subList(individuals.size() - 6, individuals.size());
+
+		// Fully mutated children are random, rather than averages of the parents.
+		int averages = 0;
+		for (Individual child : children)
+		{
+			double value = ((Scored) child).value;
+			for (int i = 0; i < 4; i++)
+			{
+				for (int j = i + 1; j < 4; j++)
+				{
+					if (value == (((Scored) individuals.get(i)).value + ((Scored) individuals.get(j)).value) / 2)
+					{
+						averages++;
+					}
+				}
+			}
+		}
+		Assertions.assertEquals(0, averages);
+
+		selection.mutationRate = 1.5;
+		Assertions.assertThrows(IllegalStateException.class, selection::iterate);
+		selection.mutationRate = Double.NaN;
+		Assertions.assertThrows(IllegalStateException.class, selection::iterate);
+	}
+}
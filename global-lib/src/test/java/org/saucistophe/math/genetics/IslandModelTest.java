@@ -0,0 +1,106 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IslandModelTest
+{
+	private static List<Individual> population(int size)
+	{
+		List<Individual> individuals = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			individuals.add(new SelectionStrategyTest.Value());
+		}
+		return individuals;
+	}
+
+	@Test
+	public void evolveTest()
+	{
+		ForkJoinPool pool = new ForkJoinPool(4);
+		IslandModel model = new IslandModel(pool);
+		model.migrationInterval = 3;
+		model.migrantCount = 2;
+		for (int i = 0; i < 4; i++)
+		{
+			model.addIsland(population(40));
+		}
+		model.init();
+		model.evolve(20);
+		pool.shutdown();
+
+		for (BasicNaturalSelection island : model.islands)
+		{
+			Assertions.assertEquals(40, island.individuals.size());
+			Assertions.assertTrue(((SelectionStrategyTest.Value) island.individuals.get(0)).value > 0.95);
+		}
+	}
+
+	@Test
+	public void migrationTest()
+	{
+		IslandModel model = new IslandModel();
+		model.migrantCount = 2;
+		for (int i = 0; i < 3; i++)
+		{
+			List<Individual> individuals = population(20);
+			for (int j = 0; j < 20; j++)
+			{
+				((SelectionStrategyTest.Value) individuals.get(j)).value = i * 100 + j;
+			}
+			model.addIsland(individuals);
+		}
+
+		model.migrate();
+		for (int i = 0; i < 3; i++)
+		{
+			List<Individual> individuals = model.islands.get(i).individuals;
+			int origin = (i + 2) % 3;
+			for (int j = 0; j < 2; j++)
+			{
+				Individual migrant = individuals.get(BasicNaturalSelection.MIXING_FACTOR + j);
+				Assertions.assertEquals(origin * 100 + j, ((SelectionStrategyTest.Value) migrant).value);
+				// A copy, not the original.
+				Assertions.assertNotSame(model.islands.get(origin).individuals.get(j), migrant);
+			}
+		}
+
+		model.migrantCount = 9;
+		Assertions.assertThrows(IllegalStateException.class, () -> model.evolve(1));
+	}
+
+	/**
+	 Migrants must be the best individuals of the generation, which only the elites still are once an iteration is over.
+	 */
+	@Test
+	public void eliteMigrationTest()
+	{
+		IslandModel model = new IslandModel();
+		model.migrationInterval = 1;
+		model.migrantCount = 1;
+		for (int i = 0; i < 2; i++)
+		{
+			model.addIsland(population(20)).eliteCount = 1;
+		}
+		model.init();
+		model.evolve(1);
+		for (int i = 0; i < 2; i++)
+		{
+			Individual best = model.islands.get(i).individuals.get(0);
+			Individual migrant = model.islands.get(1 - i).individuals.get(1);
+			Assertions.assertEquals(((SelectionStrategyTest.Value) best).value, ((SelectionStrategyTest.Value) migrant).value);
+		}
+
+		// Without elites, the best individuals are randomized before they can migrate.
+		model.islands.forEach(island -> island.eliteCount = 0);
+		Assertions.assertThrows(IllegalStateException.class, () -> model.evolve(1));
+
+		model.islands.forEach(island -> island.eliteCount = 1);
+		model.migrationInterval = 0;
+		Assertions.assertThrows(IllegalStateException.class, () -> model.evolve(1));
+	}
+}
@@ -0,0 +1,164 @@
+package org.saucistophe.math.genetics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SelectionStrategyTest
+{
+	/**
+	 An individual whose strength is a single value.
+	 */
+	static class Value extends Individual
+	{
+		private static final Random RANDOM = new Random(0);
+
+		double value;
+
+		@Override
+		public Individual makeChild(Individual otherIndividual)
+		{
+			Value child = new Value();
+			child.value = (value + ((Value) otherIndividual).value) / 2;
+			return child;
+		}
+
+		@Override
+		public void randomize()
+		{
+			synchronized (RANDOM)
+			{
+				value = RANDOM.nextDouble();
+			}
+		}
+
+		@Override
+		public void fight(Individual otherIndividual)
+		{
+			if (value > ((Value) otherIndividual).value)
+			{
+				addFitness(1);
+			}
+		}
+	}
+
+	private static List<Individual> population(int size)
+	{
+		List<Individual> individuals = new ArrayList<>();
+		for (int i = 0; i < size; i++)
+		{
+			Value individual = new Value();
+			individual.randomize();
+			individuals.add(individual);
+		}
+		return individuals;
+	}
+
+	/**
+	 @return The number of couples each individual was part of, over all rounds.
+	 */
+	private static Map<Individual, Integer> countCouples(SelectionStrategy strategy, List<Individual> individuals)
+	{
+		Map<Individual, Integer> counts = new HashMap<>();
+		strategy.schedule(individuals, couples -> couples.forEach(couple ->
+		{
+			Assertions.assertNotSame(couple.left, couple.right);
+			counts.merge(couple.left, 1, Integer::sum);
+			counts.merge(couple.right, 1, Integer::sum);
+		}));
+		return counts;
+	}
+
+	@Test
+	public void fightCountsTest()
+	{
+		List<Individual> individuals = population(1000);
+
+		TournamentSelection tournament = new TournamentSelection(8, 3);
+		tournament.random = new Random(1);
+		Map<Individual, Integer> counts = countCouples(tournament, individuals);
+		Assertions.assertEquals(1000, counts.size());
+		counts.values().forEach(count -> Assertions.assertEquals(3 * 7, (int) count));
+
+		SampledRoundRobinSelection sampled = new SampledRoundRobinSelection(5);
+		sampled.random = new Random(2);
+		counts = countCouples(sampled, individuals);
+		Assertions.assertEquals(1000, counts.size());
+		counts.values().forEach(count -> Assertions.assertEquals(6, (int) count));
+
+		SwissSelection swiss = new SwissSelection();
+		swiss.random = new Random(3);
+		counts = countCouples(swiss, individuals);
+		Assertions.assertEquals(1000, counts.size());
+		counts.values().forEach(count -> Assertions.assertEquals(10, (int) count));
+	}
+
+	/**
+	 When the population does not divide evenly, every individual must still fight in every round, with one more fight
+	 at most.
+	 */
+	@Test
+	public void unevenFightCountsTest()
+	{
+		List<Individual> individuals = population(1001);
+
+		TournamentSelection tournament = new TournamentSelection(8, 3);
+		tournament.random = new Random(1);
+		Map<Individual, Integer> counts = countCouples(tournament, individuals);
+		Assertions.assertEquals(1001, counts.size());
+		counts.values().forEach(count -> Assertions.assertTrue(count >= 3 * 7 && count <= 3 * 8, count.toString()));
+		// 124 groups of 8 and 1 of 9 per round.
+		Assertions.assertEquals(3 * (124 * 8 * 7 + 9 * 8), counts.values().stream().mapToInt(Integer::intValue).sum());
+
+		SampledRoundRobinSelection sampled = new SampledRoundRobinSelection(5);
+		sampled.random = new Random(2);
+		counts = countCouples(sampled, individuals);
+		Assertions.assertEquals(1001, counts.size());
+		counts.values().forEach(count -> Assertions.assertEquals(6, (int) count));
+
+		SwissSelection swiss = new SwissSelection();
+		swiss.random = new Random(3);
+		counts = countCouples(swiss, individuals);
+		Assertions.assertEquals(1001, counts.size());
+		counts.values().forEach(count -> Assertions.assertTrue(count >= 10 && count <= 20, count.toString()));
+		// 500 couples and the odd individual's per round.
+		Assertions.assertEquals(10 * 501 * 2, counts.values().stream().mapToInt(Integer::intValue).sum());
+	}
+
+	/**
+	 Large populations must evolve quickly, and the chosen parents be among the strongest individuals.
+	 */
+	@Test
+	public void largePopulationTest()
+	{
+		for (SelectionStrategy strategy : Arrays.asList(new TournamentSelection(16, 4), new SwissSelection(), new SampledRoundRobinSelection(64)))
+		{
+			BasicNaturalSelection selection = new BasicNaturalSelection();
+			selection.selection = strategy;
+			selection.individuals = population(10000);
+
+			long start = System.nanoTime();
+			selection.iterate();
+			Assertions.assertTrue(System.nanoTime() - start < 5_000_000_000L, strategy.getClass().getSimpleName());
+
+			Assertions.assertEquals(10000, selection.individuals.size());
+			for (int i = 0; i < BasicNaturalSelection.MIXING_FACTOR; i++)
+			{
+				Assertions.assertTrue(((Value) selection.individuals.get(i)).value > 0.9, strategy.getClass().getSimpleName());
+			}
+		}
+	}
+
+	@Test
+	public void populationSizeTest()
+	{
+		BasicNaturalSelection selection = new BasicNaturalSelection();
+		selection.individuals = population(BasicNaturalSelection.MIXING_FACTOR);
+		Assertions.assertThrows(IllegalStateException.class, selection::iterate);
+	}
+}
@@ -0,0 +1,159 @@
+package org.saucistophe.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ The noise kernels, vectorised with the jdk.incubator.vector module: 8 or 16 floats, 4 or 8 doubles, are processed at
+ once depending on the hardware. Loaded by NoiseKernels when the module is available.
+ */
+final class VectorNoiseKernels extends NoiseKernels
+{
+	private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 The lanes' indices, 0, 1, 2...
+	 */
+	private static final double[] LANES = new double[DOUBLES.length()];
+
+	static
+	{
+		for (int i = 0; i < LANES.length; i++)
+		{
+			LANES[i] = i;
+		}
+	}
+
+	VectorNoiseKernels()
+	{
+		// Without SIMD instructions, the vector API is emulated, and much slower than scalar code.
+		if (DOUBLES.length() < 4 || FLOATS.length() != INTS.length())
+		{
+			throw new UnsupportedOperationException("No suitable SIMD support");
+		}
+	}
+
+	@Override
+	void scatterRow(double[] out, int from, int count, double xOffset, double dx, double remaining, double xGradient, double rowGradient)
+	{
+		int lanes = DOUBLES.length();
+		DoubleVector laneOffsets = DoubleVector.fromArray(DOUBLES, LANES, 0).mul(dx);
+		int i = 0;
+		for (; i <= count - lanes; i += lanes)
+		{
+			DoubleVector offsets = laneOffsets.add(xOffset + i * dx);
+			DoubleVector attenuation = DoubleVector.broadcast(DOUBLES, remaining).sub(offsets.mul(offsets)).max(0);
+			attenuation = attenuation.mul(attenuation);
+			attenuation = attenuation.mul(attenuation);
+			DoubleVector contribution = attenuation.mul(offsets.mul(xGradient).add(rowGradient));
+			DoubleVector.fromArray(DOUBLES, out, from + i).add(contribution).intoArray(out, from + i);
+		}
+		if (i < count)
+		{
+			super.scatterRow(out, from + i, count - i, xOffset + i * dx, dx, remaining, xGradient, rowGradient);
+		}
+	}
+
+	@Override
+	void perlinNoise(int[] perm, float[] xs, float[] ys, float[] zs, float[] out, int count)
+	{
+		int lanes = FLOATS.length();
+		int[] indices = new int[lanes];
+		int i = 0;
+		for (; i <= count - lanes; i += lanes)
+		{
+			FloatVector x = FloatVector.fromArray(FLOATS, xs, i);
+			FloatVector y = FloatVector.fromArray(FLOATS, ys, i);
+			FloatVector z = FloatVector.fromArray(FLOATS, zs, i);
+
+			// Find the unit cube containing the point, and the point's position in it.
+			IntVector floorX = floor(x);
+			IntVector floorY = floor(y);
+			IntVector floorZ = floor(z);
+			IntVector X = floorX.and(255);
+			IntVector Y = floorY.and(255);
+			IntVector Z = floorZ.and(255);
+			x = x.sub((FloatVector) floorX.convert(VectorOperators.I2F, 0));
+			y = y.sub((FloatVector) floorY.convert(VectorOperators.I2F, 0));
+			z = z.sub((FloatVector) floorZ.convert(VectorOperators.I2F, 0));
+
+			FloatVector u = fade(x);
+			FloatVector v = fade(y);
+			FloatVector w = fade(z);
+
+			// Hash the coordinates of the cube's 8 corners, and blend their gradients.
+			IntVector A = gather(perm, X, 0, indices).add(Y);
+			IntVector AA = gather(perm, A, 0, indices).add(Z);
+			IntVector AB = gather(perm, A, 1, indices).add(Z);
+			IntVector B = gather(perm, X, 1, indices).add(Y);
+			IntVector BA = gather(perm, B, 0, indices).add(Z);
+			IntVector BB = gather(perm, B, 1, indices).add(Z);
+
+			FloatVector x1 = x.sub(1);
+			FloatVector y1 = y.sub(1);
+			FloatVector z1 = z.sub(1);
+			FloatVector noise = lerp(w, lerp(v, lerp(u, grad(gather(perm, AA, 0, indices), x, y, z),
+				grad(gather(perm, BA, 0, indices), x1, y, z)),
+				lerp(u, grad(gather(perm, AB, 0, indices), x, y1, z),
+					grad(gather(perm, BB, 0, indices), x1, y1, z))),
+				lerp(v, lerp(u, grad(gather(perm, AA, 1, indices), x, y, z1),
+					grad(gather(perm, BA, 1, indices), x1, y, z1)),
+					lerp(u, grad(gather(perm, AB, 1, indices), x, y1, z1),
+						grad(gather(perm, BB, 1, indices), x1, y1, z1))));
+			noise.intoArray(out, i);
+		}
+		for (; i < count; i++)
+		{
+			out[i] = perlinNoise(perm, xs[i], ys[i], zs[i]);
+		}
+	}
+
+	/**
+	 @return The floor of each lane, which must be within the range of ints.
+	 */
+	private static IntVector floor(FloatVector x)
+	{
+		// Truncate, then step down the negative values which were rounded up.
+		IntVector truncated = (IntVector) x.convert(VectorOperators.F2I, 0);
+		VectorMask<Integer> roundedUp = ((FloatVector) truncated.convert(VectorOperators.I2F, 0)).compare(VectorOperators.GT, x).cast(INTS);
+		return truncated.sub(1, roundedUp);
+	}
+
+	/**
+	 @return perm[index + offset] for each lane.
+	 */
+	private static IntVector gather(int[] perm, IntVector index, int offset, int[] indices)
+	{
+		index.intoArray(indices, 0);
+		return IntVector.fromArray(INTS, perm, offset, indices, 0);
+	}
+
+	private static FloatVector fade(FloatVector t)
+	{
+		return t.mul(t).mul(t).mul(t.mul(t.mul(6).sub(15)).add(10));
+	}
+
+	private static FloatVector lerp(FloatVector t, FloatVector a, FloatVector b)
+	{
+		return a.add(t.mul(b.sub(a)));
+	}
+
+	private static FloatVector grad(IntVector hash, FloatVector x, FloatVector y, FloatVector z)
+	{
+		// Convert the low 4 bits of the hash code into 12 gradient directions.
+		IntVector h = hash.and(15);
+		FloatVector u = y.blend(x, h.compare(VectorOperators.LT, 8).cast(FLOATS));
+		VectorMask<Integer> xAsV = h.compare(VectorOperators.EQ, 12).or(h.compare(VectorOperators.EQ, 14));
+		FloatVector v = z.blend(x, xAsV.cast(FLOATS)).blend(y, h.compare(VectorOperators.LT, 4).cast(FLOATS));
+
+		u = u.lanewise(VectorOperators.NEG, h.and(1).compare(VectorOperators.NE, 0).cast(FLOATS));
+		v = v.lanewise(VectorOperators.NEG, h.and(2).compare(VectorOperators.NE, 0).cast(FLOATS));
+		return u.add(v);
+	}
+}